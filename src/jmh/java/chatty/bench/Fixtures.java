@@ -0,0 +1,84 @@
+package chatty.bench;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Random;
+
+import chatty.task.Deadline;
+import chatty.task.Event;
+import chatty.task.Task;
+import chatty.task.Todo;
+
+/**
+ * Deterministic test data for the benchmarks. Every call with the same size returns the same tasks,
+ * so results from different runs and machines measure the same work.
+ */
+final class Fixtures {
+    /** Matches no generated task except {@link #RARE_DESCRIPTION}. */
+    static final String RARE_KEYWORD = "needle";
+    static final String RARE_DESCRIPTION = "find the needle";
+    /** Matches roughly one task in ten. */
+    static final String COMMON_KEYWORD = "book";
+    /** All deadlines and events fall in this year. */
+    static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private static final long SEED = 20250101L;
+    private static final String[] WORDS = {
+        "read", "book", "return", "submit", "report", "buy", "milk", "call", "mum", "team",
+        "meeting", "project", "review", "gym", "lecture", "tutorial", "pay", "rent", "plan", "trip",
+    };
+
+    private Fixtures() {}
+
+    /**
+     * Returns {@code size} tasks: 40% todos, 30% deadlines and 30% events spread over 2025,
+     * with about a third of them done. The task in the middle is the only one containing
+     * {@link #RARE_KEYWORD}.
+     */
+    static ArrayList<Task> tasks(int size) {
+        Random rnd = new Random(SEED);
+        ArrayList<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String desc = i == size / 2 ? RARE_DESCRIPTION : description(rnd);
+            LocalDateTime at = START.plusMinutes(rnd.nextInt(365 * 24 * 60));
+            int kind = rnd.nextInt(10);
+            Task t;
+            if (kind < 4) {
+                t = new Todo(desc);
+            } else if (kind < 7) {
+                t = new Deadline(desc, at);
+            } else {
+                t = new Event(desc, at, at.plusMinutes(30 + rnd.nextInt(72 * 60)));
+            }
+            if (rnd.nextInt(3) == 0) {
+                t.mark();
+            }
+            tasks.add(t);
+        }
+        return tasks;
+    }
+
+    /** Returns a mix of the commands a user types, one of each kind. */
+    static String[] commands() {
+        return new String[] {
+            "list",
+            "todo read book",
+            "deadline return book /by 12-08-2025 1800",
+            "event project meeting /from 12-08-2025 1400 /to 12-08-2025 1600",
+            "mark 2",
+            "unmark 2",
+            "delete 3",
+            "find book",
+            "view 12-08-2025",
+        };
+    }
+
+    private static String description(Random rnd) {
+        int words = 2 + rnd.nextInt(3);
+        StringBuilder sb = new StringBuilder(WORDS[rnd.nextInt(WORDS.length)]);
+        for (int w = 1; w < words; w++) {
+            sb.append(' ').append(WORDS[rnd.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package chatty.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chatty.exceptions.ChattyFileException;
+import chatty.storage.FsyncPolicy;
+import chatty.storage.Storage;
+import chatty.task.TaskList;
+
+/**
+ * Measures what each {@link FsyncPolicy} costs a command: marking or unmarking one task and persisting
+ * the change, either by rewriting the whole file or by patching it in place. Saves happen on the calling
+ * thread, so the score includes every force the policy asks for. Results depend heavily on the disk;
+ * point {@code java.io.tmpdir} at the disk the data file lives on.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FsyncBenchmark {
+    @Param({"ALWAYS", "BATCHED", "NEVER"})
+    private FsyncPolicy policy;
+
+    @Param({"rewrite", "incremental"})
+    private String mode;
+
+    @Param({"10000"})
+    private int size;
+
+    private File dir;
+    private Storage storage;
+    private TaskList tasks;
+
+    /** Writes a list of {@code size} tasks with the chosen policy and mode. */
+    @Setup
+    public void setUp() throws IOException, ChattyFileException {
+        dir = Files.createTempDirectory("chatty-bench").toFile();
+        File file = new File(dir, "chatty.txt");
+        new Storage(file).save(Fixtures.tasks(size));
+        storage = new Storage(file, new Storage.Options().incremental("incremental".equals(mode)).fsync(policy));
+        tasks = storage.loadTaskList();
+        storage.attach(tasks);
+    }
+
+    /** Waits for batched syncs and removes the temporary files. */
+    @TearDown
+    public void tearDown() throws ChattyFileException {
+        storage.flush();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    /** Flips the status of the first task and persists the change. */
+    @Benchmark
+    public void toggleAndPersist() throws ChattyFileException {
+        if (tasks.get(0).getIsDone()) {
+            tasks.unmark(0);
+        } else {
+            tasks.mark(0);
+        }
+        storage.persist(tasks);
+    }
+}
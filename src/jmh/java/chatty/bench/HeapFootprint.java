@@ -0,0 +1,60 @@
+package chatty.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+
+import chatty.task.Task;
+import chatty.task.TaskList;
+
+/**
+ * Reports how much heap a task list holds per million tasks, as task objects and as a
+ * {@link TaskList#columnar(java.util.List) columnar} list, for the tasks of {@link Fixtures}.
+ *
+ * <p>This is not a JMH benchmark, since it measures memory that stays in use rather than time.
+ * Run it with {@code ./gradlew footprint}, or {@code ./gradlew footprint -PfootprintArgs="--size 5000000"};
+ * give the JVM enough heap to hold the list as objects. The scan speed of both layouts is measured by
+ * {@link TaskListBenchmark}.</p>
+ */
+public final class HeapFootprint {
+    private HeapFootprint() {}
+
+    /**
+     * Builds each layout in turn and prints the heap it retains.
+     *
+     * @param args {@code --size <tasks>}, 1000000 by default.
+     */
+    public static void main(String[] args) {
+        int size = 1_000_000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if ("--size".equals(args[i])) {
+                size = Integer.parseInt(args[i + 1]);
+            } else {
+                System.err.println("Unknown option " + args[i]);
+                System.exit(2);
+            }
+        }
+
+        for (String layout : new String[] {"objects", "columnar"}) {
+            long before = usedHeap();
+            ArrayList<Task> seed = Fixtures.tasks(size);
+            TaskList tasks = "columnar".equals(layout) ? TaskList.columnar(seed) : new TaskList(seed);
+            seed = null; // a columnar list keeps copies, so the objects can go
+            long retained = usedHeap() - before;
+            System.out.printf("%-8s %,8d MB per million tasks (%,d bytes per task)%n", layout,
+                    retained * 1_000_000 / size / (1024 * 1024), retained / size);
+            if (tasks.size() != size) {
+                throw new AssertionError("List lost tasks");
+            }
+        }
+    }
+
+    /** Returns the heap in use once garbage has been collected, as far as the JVM lets us. */
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
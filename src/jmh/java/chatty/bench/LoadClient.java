@@ -0,0 +1,163 @@
+package chatty.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import chatty.server.ChattyServer;
+import chatty.server.VirtualThreads;
+
+/**
+ * Load-test client for a running {@link ChattyServer}. Opens many connections, waits until all of them
+ * are greeted, then sends commands over every connection as fast as the server answers and reports the
+ * throughput and the latency percentiles.
+ *
+ * <p>This is not a JMH benchmark, since the server runs in another process. Start the server with
+ * {@code ./gradlew server}, then run {@code ./gradlew loadTest -PloadArgs="--connections 5000"}.
+ * Options: {@code --host}, {@code --port}, {@code --connections}, {@code --requests} (per connection)
+ * and {@code --writes} (the percentage of commands that add a task; 0 by default, so the list of the
+ * server is left unchanged).</p>
+ */
+public final class LoadClient {
+    /** Reads whose replies stay short however many tasks the writes add. */
+    private static final String[] READS = {"list 1", "find task 1-1", "list 2"};
+
+    private final String host;
+    private final int port;
+    private final int writePercent;
+    private final int requests;
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private LoadClient(String host, int port, int requests, int writePercent) {
+        this.host = host;
+        this.port = port;
+        this.requests = requests;
+        this.writePercent = writePercent;
+    }
+
+    /**
+     * Runs the load test and prints the results.
+     *
+     * @param args the options described in the class comment.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String host = "localhost";
+        int port = ChattyServer.DEFAULT_PORT;
+        int connections = 1000;
+        int requests = 100;
+        int writePercent = 0;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+            case "--host":
+                host = args[i + 1];
+                break;
+            case "--port":
+                port = Integer.parseInt(args[i + 1]);
+                break;
+            case "--connections":
+                connections = Integer.parseInt(args[i + 1]);
+                break;
+            case "--requests":
+                requests = Integer.parseInt(args[i + 1]);
+                break;
+            case "--writes":
+                writePercent = Integer.parseInt(args[i + 1]);
+                break;
+            default:
+                System.err.println("Unknown option " + args[i]);
+                System.exit(2);
+            }
+        }
+        new LoadClient(host, port, requests, writePercent).run(connections);
+    }
+
+    private void run(int connections) throws InterruptedException {
+        long[][] latencies = new long[connections][];
+        CountDownLatch greeted = new CountDownLatch(connections);
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService threads = VirtualThreads.newPerTaskExecutor("chatty-load");
+        for (int c = 0; c < connections; c++) {
+            int id = c;
+            threads.execute(() -> latencies[id] = runConnection(id, greeted, go));
+        }
+
+        greeted.await();
+        long start = System.nanoTime();
+        go.countDown();
+        threads.shutdown();
+        threads.awaitTermination(1, TimeUnit.DAYS);
+        long elapsed = System.nanoTime() - start;
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        double seconds = elapsed / 1e9;
+        System.out.printf("Connections: %d (%s threads), %d failed%n", connections,
+                VirtualThreads.isAvailable() ? "virtual" : "platform", failures.get());
+        System.out.printf("Requests:    %d in %.2f s, %.0f requests/s%n", all.length, seconds, all.length / seconds);
+        if (all.length > 0) {
+            System.out.printf("Latency:     p50 %s, p99 %s, p99.9 %s, max %s%n", millis(all, 0.5),
+                    millis(all, 0.99), millis(all, 0.999), millis(all, 1.0));
+        }
+    }
+
+    /** Greets, waits for the start signal and runs the requests; returns their latencies in nanoseconds. */
+    private long[] runConnection(int id, CountDownLatch greeted, CountDownLatch go) {
+        long[] times = new long[requests];
+        int done = 0;
+        boolean isGreeted = false;
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            readReply(in);
+            isGreeted = true;
+            greeted.countDown();
+            go.await();
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (; done < requests; done++) {
+                String command = random.nextInt(100) < writePercent
+                        ? "todo load task " + id + "-" + done
+                        : READS[random.nextInt(READS.length)];
+                long t0 = System.nanoTime();
+                out.println(command);
+                readReply(in);
+                times[done] = System.nanoTime() - t0;
+            }
+            out.println("bye");
+            readReply(in);
+        } catch (IOException e) {
+            failures.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (!isGreeted) {
+                greeted.countDown();
+            }
+        }
+        return Arrays.copyOf(times, done);
+    }
+
+    private static void readReply(BufferedReader in) throws IOException {
+        String line;
+        while (!".".equals(line = in.readLine())) {
+            if (line == null) {
+                throw new IOException("Connection closed by the server");
+            }
+        }
+    }
+
+    private static String millis(long[] sorted, double quantile) {
+        int idx = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return String.format("%.2f ms", sorted[Math.max(idx, 0)] / 1e6);
+    }
+}
@@ -0,0 +1,127 @@
+package chatty.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import chatty.command.CommandFactory;
+import chatty.exceptions.ChattyException;
+import chatty.exceptions.UnknownCommandException;
+import chatty.parser.Parser;
+import chatty.task.TaskList;
+
+/**
+ * Measures turning one line of input into a command: {@link Parser#parse(String)} alone, and together
+ * with {@link CommandFactory#from(Parser.Parsed, TaskList)}. Each operation handles one of every kind
+ * of command, so the score is the time for the whole mix.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+    private String[] commands;
+    private Parser.Parsed[] parsed;
+    private TaskList tasks;
+
+    /** Prepares the inputs and a small list for the factory's index checks. */
+    @Setup
+    public void setUp() throws ChattyException {
+        commands = Fixtures.commands();
+        parsed = new Parser.Parsed[commands.length];
+        for (int i = 0; i < commands.length; i++) {
+            parsed[i] = Parser.parse(commands[i]);
+        }
+        tasks = new TaskList(Fixtures.tasks(1_000));
+    }
+
+    /** Parses every command in the mix. */
+    @Benchmark
+    public void parse(Blackhole bh) throws ChattyException {
+        for (String c : commands) {
+            bh.consume(Parser.parse(c));
+        }
+    }
+
+    /** Parses every command in the mix the way the earlier, split-based parser did. */
+    @Benchmark
+    public void parseSplit(Blackhole bh) throws ChattyException {
+        for (String c : commands) {
+            bh.consume(splitParse(c));
+        }
+    }
+
+    /** Parses the task number of every {@code mark}, {@code unmark} and {@code delete} in the mix. */
+    @Benchmark
+    public void parseIndex(Blackhole bh) throws ChattyException {
+        for (Parser.Parsed p : parsed) {
+            if (isIndexed(p)) {
+                bh.consume(Parser.parseIndexOrThrow(p.args(), tasks.size()));
+            }
+        }
+    }
+
+    /** Parses the same task numbers as {@link #parseIndex} the way the earlier parser did. */
+    @Benchmark
+    public void parseIndexSplit(Blackhole bh) {
+        for (Parser.Parsed p : parsed) {
+            if (isIndexed(p)) {
+                bh.consume(Integer.parseInt(p.args().trim().split("\\s+")[0]) - 1);
+            }
+        }
+    }
+
+    /** Builds a command object from every pre-parsed input in the mix. */
+    @Benchmark
+    public void commandFactory(Blackhole bh) throws ChattyException {
+        for (Parser.Parsed p : parsed) {
+            bh.consume(CommandFactory.from(p, tasks));
+        }
+    }
+
+    /** Parses every command in the mix and builds its command object. */
+    @Benchmark
+    public void parseAndBuild(Blackhole bh) throws ChattyException {
+        for (String c : commands) {
+            bh.consume(CommandFactory.from(Parser.parse(c), tasks));
+        }
+    }
+
+    private static boolean isIndexed(Parser.Parsed p) {
+        return p.cmd() == Parser.Command.MARK || p.cmd() == Parser.Command.UNMARK
+                || p.cmd() == Parser.Command.DELETE;
+    }
+
+    /** The earlier parser: split off the keyword, trim the rest and switch on the keyword string. */
+    private static Parser.Parsed splitParse(String input) throws ChattyException {
+        String[] parts = input.split(" ", 2);
+        String args = parts.length > 1 ? parts[1].trim() : "";
+        Parser.Command cmd = switch (parts[0]) {
+        case "bye" -> Parser.Command.BYE;
+        case "list" -> Parser.Command.LIST;
+        case "mark" -> Parser.Command.MARK;
+        case "unmark" -> Parser.Command.UNMARK;
+        case "delete" -> Parser.Command.DELETE;
+        case "todo" -> Parser.Command.TODO;
+        case "deadline" -> Parser.Command.DEADLINE;
+        case "event" -> Parser.Command.EVENT;
+        case "find" -> Parser.Command.FIND;
+        case "view" -> Parser.Command.VIEW;
+        case "stats" -> Parser.Command.STATS;
+        default -> throw new UnknownCommandException(input);
+        };
+        return new Parser.Parsed(cmd, args);
+    }
+}
@@ -0,0 +1,81 @@
+package chatty.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chatty.exceptions.ChattyFileException;
+import chatty.storage.Storage;
+import chatty.task.Task;
+
+/**
+ * Measures {@link Storage#load()} and {@link Storage#save(java.util.List)} of a whole list,
+ * in the text and the binary format. Files live in a temporary directory that is removed afterwards.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class StorageBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"txt", "bin"})
+    private String format;
+
+    private File dir;
+    private Storage loadFrom;
+    private Storage saveTo;
+    private ArrayList<Task> tasks;
+
+    /** Writes the file read by {@link #load()} once per trial. */
+    @Setup
+    public void setUp() throws IOException, ChattyFileException {
+        dir = Files.createTempDirectory("chatty-bench").toFile();
+        tasks = Fixtures.tasks(size);
+        loadFrom = new Storage(new File(dir, "load." + format));
+        loadFrom.save(tasks);
+        saveTo = new Storage(new File(dir, "save." + format));
+    }
+
+    /** Removes the temporary files. */
+    @TearDown
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    /** Reads and parses every task in the file. */
+    @Benchmark
+    public ArrayList<Task> load() {
+        return loadFrom.load();
+    }
+
+    /** Writes every task, replacing the previous contents of the file. */
+    @Benchmark
+    public void save() throws ChattyFileException {
+        saveTo.save(tasks);
+    }
+}
@@ -0,0 +1,121 @@
+package chatty.bench;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chatty.command.ViewCommand;
+import chatty.task.Task;
+import chatty.task.TaskList;
+import chatty.ui.Ui;
+
+/**
+ * Measures the read paths over an in-memory list: {@link TaskList#find(String)} for a rare and a
+ * common keyword, {@link ViewCommand} for one day and for one week, and finding the done tasks (a third of
+ * the list) and counting them as {@code list done} and {@code count} do, and the next ten deadlines and events
+ * from the middle of the year as {@code agenda} does. Also measures deleting a task in
+ * the middle of the list by its ID, which should not depend on how many tasks follow it with objects.
+ *
+ * <p>Each is run on a list of task objects and on a {@link TaskList#columnar(List) columnar} list, which
+ * has no search indexes and builds task views while scanning. {@link HeapFootprint} shows the memory
+ * each of them needs.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class TaskListBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+    @Param({"objects", "columnar"})
+    private String layout;
+
+    private static final LocalDateTime AGENDA_FROM = Fixtures.START.plusMonths(6);
+
+    private TaskList tasks;
+    private Ui ui;
+    private ViewCommand viewDay;
+    private ViewCommand viewWeek;
+
+    /** Builds the list and its indexes once per trial. */
+    @Setup
+    public void setUp() {
+        ArrayList<Task> seed = Fixtures.tasks(size);
+        tasks = "columnar".equals(layout) ? TaskList.columnar(seed) : new TaskList(seed);
+        ui = new Ui();
+        LocalDate day = LocalDate.of(2025, 8, 12);
+        viewDay = new ViewCommand(day);
+        viewWeek = new ViewCommand(day, day.plusDays(6));
+    }
+
+    /** Finds the single task containing a rare keyword. */
+    @Benchmark
+    public List<Task> findRare() {
+        return tasks.find(Fixtures.RARE_KEYWORD);
+    }
+
+    /** Finds the tasks containing a keyword that about one task in ten has. */
+    @Benchmark
+    public List<Task> findCommon() {
+        return tasks.find(Fixtures.COMMON_KEYWORD);
+    }
+
+    /** Renders the schedule of one day. */
+    @Benchmark
+    public String viewDay() {
+        return viewDay.execute(tasks, ui);
+    }
+
+    /** Renders the schedule of one week. */
+    @Benchmark
+    public String viewWeek() {
+        return viewWeek.execute(tasks, ui);
+    }
+
+    /** Finds the positions of the done tasks, as {@code list done} does before rendering them. */
+    @Benchmark
+    public int[] donePositions() {
+        return tasks.positionsWithStatus(true);
+    }
+
+    /** Finds the next ten pending deadlines and events from the middle of the year. */
+    @Benchmark
+    public List<Task> agenda() {
+        return tasks.upcoming(AGENDA_FROM, 10);
+    }
+
+    /** Counts the done tasks, as {@code count} does. */
+    @Benchmark
+    public int countDone() {
+        return tasks.countDone();
+    }
+
+    /**
+     * Deletes the task in the middle of the list by its ID, as {@code delete #id} does, and appends it
+     * again so that the size stays the same.
+     */
+    @Benchmark
+    public Task deleteByIdInTheMiddle() {
+        Task t = tasks.get(size / 2);
+        tasks.remove(tasks.indexOfId(t.getId()));
+        tasks.add(t);
+        tasks.clearDirty();
+        return t;
+    }
+}
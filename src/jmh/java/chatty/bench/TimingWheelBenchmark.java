@@ -0,0 +1,58 @@
+package chatty.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chatty.reminder.TimingWheel;
+
+/**
+ * Measures one minute's tick of the reminder {@link TimingWheel} with up to millions of timers spread over a
+ * year. Each expired timer is set again a year ahead, so the number of timers stays the same. A tick only
+ * touches the timers that expire or move down a wheel, so the score should barely depend on {@code timers}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class TimingWheelBenchmark {
+    private static final long YEAR = 365 * 24 * 60;
+
+    @Param({"1000", "1000000", "5000000"})
+    private int timers;
+
+    private TimingWheel wheel;
+    private IntConsumer setAgain;
+
+    /** Sets every timer at a random minute of the coming year. */
+    @Setup
+    public void setUp() {
+        Random rnd = new Random(42);
+        wheel = new TimingWheel(Fixtures.START.toLocalDate().toEpochDay() * 24 * 60);
+        for (int key = 1; key <= timers; key++) {
+            wheel.schedule(key, wheel.now() + 1 + (long) (rnd.nextDouble() * YEAR));
+        }
+        setAgain = key -> wheel.schedule(key, wheel.now() + YEAR);
+    }
+
+    /** Advances the wheel by one minute. */
+    @Benchmark
+    public int tick() {
+        wheel.advanceTo(wheel.now() + 1, setAgain);
+        return wheel.size();
+    }
+}
@@ -1,5 +1,13 @@
 package chatty.app;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import chatty.ui.Ui;
 
 /** Main class for the ChattyBot application. */
@@ -11,15 +19,15 @@ public class ChattyBot {
         this.core = new ChattyCore();
     }
 
-    /** Runs the ChattyBot application. */
+    /** Runs the ChattyBot application, printing reminders as they come due. */
     public void run() {
         System.out.println(core.greeting());
+        core.startReminders(System.out::println);
 
         Ui ui = new Ui();
         while (true) {
             String input = ui.readCommand();
-            String reply = core.process(input);
-            System.out.println(reply);
+            core.process(input, System.out::println);
 
             if ("bye".equalsIgnoreCase(input.trim())) {
                 ui.close();
@@ -28,8 +36,37 @@ public class ChattyBot {
         }
     }
 
-    /** Main method to start the ChattyBot application. */
+    /**
+     * Runs every command in a script as one batch, saving once at the end.
+     *
+     * @param source the script file, or {@code -} to read the commands from standard input.
+     * @return true if every command succeeded and the result was saved.
+     * @see ChattyCore#processBatch(Iterable, java.util.function.Consumer)
+     */
+    public boolean runScript(String source) {
+        try (BufferedReader in = "-".equals(source)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(source), StandardCharsets.UTF_8)) {
+            return core.processBatch(in.lines()::iterator, System.out::println);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Could not read script " + source + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Main method to start the ChattyBot application.
+     * With {@code --script <file>} (or {@code --script -} for standard input), runs the commands
+     * in the script as one batch and exits with status 0 if they all succeeded.
+     */
     public static void main(String[] args) {
-        new ChattyBot().run();
+        if (args.length == 0) {
+            new ChattyBot().run();
+        } else if (args.length == 2 && "--script".equals(args[0])) {
+            System.exit(new ChattyBot().runScript(args[1]) ? 0 : 1);
+        } else {
+            System.err.println("Usage: ChattyBot [--script <file> | --script -]");
+            System.exit(2);
+        }
     }
 }
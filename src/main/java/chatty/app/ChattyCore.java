@@ -1,13 +1,16 @@
 package chatty.app;
 
-import java.util.ArrayList;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
 
+import chatty.command.ByeCommand;
 import chatty.command.Command;
 import chatty.command.CommandFactory;
 import chatty.exceptions.ChattyException;
+import chatty.metrics.Metrics;
 import chatty.parser.Parser;
+import chatty.reminder.ReminderScheduler;
 import chatty.storage.Storage;
-import chatty.task.Task;
 import chatty.task.TaskList;
 import chatty.ui.Ui;
 
@@ -16,33 +19,182 @@ public class ChattyCore {
     private final Ui ui;
     private final Storage storage;
     private final TaskList tasks;
+    private final Metrics metrics;
+    private ReminderScheduler reminders;
 
-    /** Constructor for ChattyCore. */
+    /**
+     * Constructor for ChattyCore using the storage configured by system properties.
+     * Its metrics are registered with JMX.
+     *
+     * @see Storage#fromSystemProperties()
+     * @see Metrics#register()
+     */
     public ChattyCore() {
+        this(Storage.fromSystemProperties());
+        metrics.register();
+    }
+
+    /** Constructor for ChattyCore using the given storage. */
+    public ChattyCore(Storage storage) {
+        this(storage, false);
+    }
+
+    /**
+     * Constructor for ChattyCore using the given storage.
+     *
+     * @param storage the storage to load from and save to.
+     * @param isShared whether {@link #process} and {@link #processBatch} may be called from many threads
+     *     at once, for example by several clients. Reading commands then run in parallel, while commands
+     *     that change the list run one at a time.
+     * @see Storage#loadSharedTaskList()
+     */
+    public ChattyCore(Storage storage, boolean isShared) {
         this.ui = new Ui();
-        this.storage = new Storage();
-        ArrayList<Task> seed = storage.load();
-        this.tasks = new TaskList(seed);
+        this.storage = storage;
+        this.tasks = isShared ? storage.loadSharedTaskList() : storage.loadTaskList();
+        this.metrics = new Metrics(storage::bytesWritten);
+        storage.attach(tasks);
+    }
+
+    /** Returns the metrics of the commands processed so far. */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Starts raising reminders as deadlines come due and events start, for as long as the program runs.
+     * Call it once, before the first command is processed.
+     *
+     * @param out receives each reminder, formatted like a reply, on the reminder thread.
+     * @see ReminderScheduler
+     */
+    public void startReminders(Consumer<String> out) {
+        assert reminders == null : "Reminders are already running";
+        reminders = new ReminderScheduler(ui::showReminder, out);
+        reminders.start(tasks);
     }
 
     /** Process one line of user input, return bot’s reply. */
     public String process(String input) {
+        StringJoiner reply = new StringJoiner("\n");
+        process(input, reply::add);
+        return reply.toString();
+    }
+
+    /**
+     * Process one line of user input, handing the bot's reply to {@code out} in one or more chunks.
+     * Long replies such as a full {@code list} are streamed rather than built as one string.
+     *
+     * @param input the user input.
+     * @param out receives the reply; joining the chunks with line breaks gives {@link #process(String)}.
+     * @see Command#stream(TaskList, Ui, Consumer)
+     */
+    public void process(String input, Consumer<String> out) {
+        Metrics.Sample sample = metrics.start();
+        boolean isFailed = true;
         try {
             Parser.Parsed parsed = Parser.parse(input);
-            Command cmd = CommandFactory.from(parsed, tasks);
-            String reply = cmd.execute(tasks, ui);
+            sample.lap(Metrics.Phase.PARSE);
+            sample.setCommand(parsed.cmd());
+            // built under the lock it runs under, so task numbers are checked against the list it reads or changes
+            Command cmd = parsed.cmd().isMutating()
+                    ? tasks.write(() -> execute(parsed, sample, out))
+                    : tasks.read(() -> execute(parsed, sample, out));
+            if (cmd instanceof ByeCommand) {
+                storage.flush();
+            }
+            isFailed = false;
+        } catch (ChattyException e) {
+            out.accept(ui.showError(e.getMessage()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            out.accept(ui.showError("Please provide a valid task number within range."));
+        } finally {
+            sample.finish(isFailed);
+        }
+    }
 
-            if (cmd.isMutating()) {
-                storage.save(tasks.asList());
+    /** Builds and runs a parsed command, persisting any change; called under the task list's lock. */
+    private Command execute(Parser.Parsed parsed, Metrics.Sample sample, Consumer<String> out)
+            throws ChattyException {
+        sample.resume();
+        Command cmd = CommandFactory.from(parsed, tasks, metrics);
+        sample.lap(Metrics.Phase.FACTORY);
+        assert cmd.isMutating() == parsed.cmd().isMutating() : parsed.cmd() + " built a command of the other kind";
+        cmd.stream(tasks, ui, out);
+        sample.lap(Metrics.Phase.EXECUTE);
+        if (cmd.isMutating() && tasks.isDirty()) {
+            storage.persist(tasks);
+            sample.lap(Metrics.Phase.PERSIST);
+        }
+        return cmd;
+    }
+
+    /**
+     * Runs many lines of input as one batch: either every line succeeds and the result is persisted
+     * once at the end, or the first failing line stops the batch and every change made by the earlier
+     * lines is undone. Blank lines and lines starting with {@code #} are skipped.
+     *
+     * @param lines the commands to run, read one at a time.
+     * @param out receives the replies of the commands, then a summary or the error that stopped the batch.
+     * @return true if every command succeeded and the result was persisted.
+     * @see TaskList#beginBatch()
+     */
+    public boolean processBatch(Iterable<String> lines, Consumer<String> out) {
+        try {
+            return tasks.write(() -> runBatch(lines, out));
+        } catch (ChattyException e) {
+            out.accept(ui.showError(e.getMessage()));
+            return false;
+        }
+    }
+
+    private boolean runBatch(Iterable<String> lines, Consumer<String> out) {
+        int lineNo = 0;
+        int count = 0;
+        boolean isMutating = false;
+        boolean isCommitted = false;
+        tasks.beginBatch();
+        try {
+            for (String line : lines) {
+                lineNo++;
+                String input = line.trim();
+                if (input.isEmpty() || input.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    Command cmd = CommandFactory.from(Parser.parse(input), tasks, metrics);
+                    cmd.stream(tasks, ui, out);
+                    isMutating |= cmd.isMutating();
+                    count++;
+                } catch (ChattyException e) {
+                    out.accept(ui.showBatchFailed(lineNo, input, e.getMessage()));
+                    return false;
+                } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                    out.accept(ui.showBatchFailed(lineNo, input, "Please provide a valid task number within range."));
+                    return false;
+                }
+            }
+            tasks.commitBatch();
+            isCommitted = true;
+        } finally {
+            if (!isCommitted) {
+                tasks.rollbackBatch();
             }
+        }
 
-            return reply;
+        try {
+            if (isMutating && tasks.isDirty()) {
+                storage.persist(tasks);
+            }
+            storage.flush();
         } catch (ChattyException e) {
-            return ui.showError(e.getMessage());
-        } catch (NumberFormatException | IndexOutOfBoundsException e) {
-            return ui.showError("Please provide a valid task number within range.");
+            out.accept(ui.showError(e.getMessage()));
+            return false;
         }
+        out.accept(ui.showBatchDone(count));
+        return true;
     }
+
     /** Shared greeting */
     public String greeting() {
         return ui.showWelcome();
@@ -1,12 +1,26 @@
 package chatty.app;
 
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+
 /** Engine for ChattyBot. */
 public class ChattyEngine {
     private final ChattyCore core;
 
     /** Constructor for ChattyEngine. */
     public ChattyEngine() {
-        this.core = new ChattyCore();
+        this(new ChattyCore());
+    }
+
+    /**
+     * Constructor for ChattyEngine running on the given core, such as one shared by many clients.
+     *
+     * @param core the core that handles the input.
+     * @see ChattyCore#ChattyCore(chatty.storage.Storage, boolean)
+     */
+    public ChattyEngine(ChattyCore core) {
+        this.core = core;
     }
 
     /** Handles user input and returns a reply. */
@@ -14,6 +28,34 @@ public class ChattyEngine {
         return core.process(input);
     }
 
+    /** Handles user input and hands the reply to {@code out} in chunks. */
+    public void handleInput(String input, Consumer<String> out) {
+        core.process(input, out);
+    }
+
+    /**
+     * Runs the given commands as one all-or-nothing batch that is saved once at the end.
+     *
+     * @param lines the commands to run.
+     * @return the replies of the commands, followed by a summary or the error that stopped the batch.
+     * @see ChattyCore#processBatch(Iterable, Consumer)
+     */
+    public String handleBatch(List<String> lines) {
+        StringJoiner reply = new StringJoiner("\n");
+        core.processBatch(lines, reply::add);
+        return reply.toString();
+    }
+
+    /**
+     * Starts raising reminders as deadlines come due and events start.
+     *
+     * @param out receives each reminder, on the reminder thread.
+     * @see ChattyCore#startReminders(Consumer)
+     */
+    public void startReminders(Consumer<String> out) {
+        core.startReminders(out);
+    }
+
     /** Returns the greeting message. */
     public String getGreeting() {
         return core.greeting();
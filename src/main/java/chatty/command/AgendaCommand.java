@@ -0,0 +1,45 @@
+package chatty.command;
+
+import java.time.LocalDateTime;
+
+import chatty.task.TaskList;
+import chatty.ui.Ui;
+
+/**
+ * A command to show the next deadlines and events that are not done yet, as in {@code agenda 5}.
+ *
+ * @see TaskList#upcoming(LocalDateTime, int)
+ */
+public class AgendaCommand extends ReadOnlyCommand {
+    /** Number of tasks shown by {@code agenda} without a count. */
+    public static final int DEFAULT_COUNT = 10;
+
+    private final int count;
+    private final LocalDateTime now;
+
+    /**
+     * Creates a command that shows the next tasks from the time it is executed.
+     *
+     * @param count the maximum number of tasks to show; must be positive.
+     */
+    public AgendaCommand(int count) {
+        this(count, null);
+    }
+
+    /**
+     * Creates a command that shows the next tasks from a fixed time.
+     *
+     * @param count the maximum number of tasks to show; must be positive.
+     * @param now the time to start from, or {@code null} for the time the command is executed.
+     */
+    AgendaCommand(int count, LocalDateTime now) {
+        assert count > 0 : "Agenda count must be positive";
+        this.count = count;
+        this.now = now;
+    }
+
+    @Override
+    public String execute(TaskList tasks, Ui ui) {
+        return ui.showAgenda(tasks.upcoming(now != null ? now : LocalDateTime.now(), count));
+    }
+}
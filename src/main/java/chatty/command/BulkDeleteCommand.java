@@ -0,0 +1,47 @@
+package chatty.command;
+
+import java.util.List;
+
+import chatty.task.Task;
+import chatty.task.TaskList;
+import chatty.ui.Ui;
+
+/**
+ * Represents a command to delete several tasks at once, such as {@code delete 1,5,9} or {@code delete done}.
+ * The tasks are removed in a single pass over the list.
+ *
+ * @see TaskList#removeAll(int[])
+ */
+public class BulkDeleteCommand extends MutatingCommand {
+    /** The positions to delete, or {@code null} to delete every task that is done. */
+    private final int[] indices;
+
+    /**
+     * Constructor for BulkDeleteCommand.
+     *
+     * @param indices the 0-based positions of the tasks, in strictly ascending order.
+     */
+    public BulkDeleteCommand(int[] indices) {
+        this.indices = indices;
+    }
+
+    private BulkDeleteCommand() {
+        this.indices = null;
+    }
+
+    /**
+     * Returns a command that deletes every task that is done when the command is executed.
+     *
+     * @return the command.
+     */
+    public static BulkDeleteCommand done() {
+        return new BulkDeleteCommand();
+    }
+
+    @Override
+    public String execute(TaskList tasks, Ui ui) {
+        int[] targets = indices != null ? indices : tasks.positionsWithStatus(true);
+        List<Task> removed = tasks.removeAll(targets);
+        return ui.showDeletedAll(removed, tasks.size());
+    }
+}
@@ -0,0 +1,34 @@
+package chatty.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import chatty.task.Task;
+import chatty.task.TaskList;
+import chatty.ui.Ui;
+
+/** Represents a command to mark or unmark several tasks at once, such as {@code mark 3-40}. */
+public class BulkMarkCommand extends MutatingCommand {
+    private final int[] indices;
+    private final boolean isDone;
+
+    /**
+     * Constructor for BulkMarkCommand.
+     *
+     * @param indices the 0-based positions of the tasks, in ascending order.
+     * @param isDone true to mark the tasks as done, false to mark them as not done.
+     */
+    public BulkMarkCommand(int[] indices, boolean isDone) {
+        this.indices = indices;
+        this.isDone = isDone;
+    }
+
+    @Override
+    public String execute(TaskList tasks, Ui ui) {
+        List<Task> changed = new ArrayList<>(indices.length);
+        for (int idx : indices) {
+            changed.add(isDone ? tasks.mark(idx) : tasks.unmark(idx));
+        }
+        return isDone ? ui.showMarkedAll(changed) : ui.showUnmarkedAll(changed);
+    }
+}
@@ -4,7 +4,7 @@ import chatty.task.TaskList;
 import chatty.ui.Ui;
 
 /** A command to exit the bot. */
-public class ByeCommand implements Command {
+public class ByeCommand extends ReadOnlyCommand {
     @Override
     public String execute(TaskList tasks, Ui ui) {
         return ui.showBye();
@@ -1,15 +1,32 @@
 package chatty.command;
 
+import java.util.function.Consumer;
+
 import chatty.exceptions.ChattyException;
 import chatty.task.TaskList;
 import chatty.ui.Ui;
 
-/** A command that can be executed by the bot. */
-public interface Command {
+/**
+ * A command that can be executed by the bot.
+ * Every command is either a {@link ReadOnlyCommand} or a {@link MutatingCommand}.
+ */
+public sealed interface Command permits ReadOnlyCommand, MutatingCommand {
     public String execute(TaskList tasks, Ui ui) throws ChattyException;
 
-    /** Whether this command mutates the task list. */
-    default boolean isMutating() {
-        return false;
+    /**
+     * Executes the command and hands its reply to {@code out}, possibly in several chunks.
+     * Joining the chunks with line breaks gives the reply of {@link #execute(TaskList, Ui)}.
+     * Commands with long replies override this so the full reply is never built in memory.
+     *
+     * @param tasks the task list.
+     * @param ui the ui used to format the reply.
+     * @param out receives the reply, one or more lines per call.
+     * @throws ChattyException if the command fails.
+     */
+    default void stream(TaskList tasks, Ui ui, Consumer<String> out) throws ChattyException {
+        out.accept(execute(tasks, ui));
     }
+
+    /** Whether this command may change the task list and therefore needs persisting. */
+    boolean isMutating();
 }
@@ -1,26 +1,23 @@
 package chatty.command;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.DateTimeParseException;
-import java.time.format.ResolverStyle;
 
 import chatty.exceptions.ChattyException;
 import chatty.exceptions.EmptyDescriptionException;
 import chatty.exceptions.MalformedArgumentsException;
+import chatty.metrics.Metrics;
 import chatty.parser.Parser;
 import chatty.task.TaskList;
+import chatty.task.TemporalCodec;
 
 /** Factory class for creating Command objects. */
 public final class CommandFactory {
 
-    private static final DateTimeFormatter DATE_FMT =
-            new DateTimeFormatterBuilder()
-                    .parseCaseInsensitive()
-                    .appendPattern("dd-MM-uuuu")
-                    .toFormatter()
-                    .withResolverStyle(ResolverStyle.STRICT);
+    private static final String VIEW_USAGE = "view <dd-MM-yyyy> [<to dd-MM-yyyy>]";
+    private static final String AGENDA_USAGE = "agenda [<count>]";
+    private static final String LIST_USAGE = "list [<page>], list pending, list done"
+            + " or list [--from <task number>] [--limit <count>]";
 
     /** Private constructor to prevent instantiation. */
     private CommandFactory() {}
@@ -35,18 +32,44 @@ public final class CommandFactory {
      * @throws MalformedArgumentsException If the arguments are malformed.
      */
     public static Command from(Parser.Parsed p, TaskList tasks) throws ChattyException {
+        return from(p, tasks, null);
+    }
+
+    /**
+     * Creates a Command object based on the parsed input.
+     *
+     * @param p The parsed input.
+     * @param tasks The list of tasks.
+     * @param metrics The metrics shown by {@code stats}, or {@code null} if none are recorded.
+     * @return The created Command object.
+     * @throws ChattyException If the input is invalid.
+     * @throws MalformedArgumentsException If the arguments are malformed.
+     */
+    public static Command from(Parser.Parsed p, TaskList tasks, Metrics metrics) throws ChattyException {
         switch (p.cmd()) {
         case BYE: {
             return new ByeCommand();
         }
         case LIST: {
-            return new ListCommand();
+            return parseList(p.args(), tasks.size());
         }
         case MARK: {
+            if (Parser.isTaskId(p.args())) {
+                return new MarkCommand(positionOfId(p.args(), tasks));
+            }
+            if (Parser.isIndexList(p.args())) {
+                return new BulkMarkCommand(Parser.parseIndicesOrThrow(p.args(), tasks.size()), true);
+            }
             int idx = Parser.parseIndexOrThrow(p.args(), tasks.size());
             return new MarkCommand(idx);
         }
         case UNMARK: {
+            if (Parser.isTaskId(p.args())) {
+                return new UnmarkCommand(positionOfId(p.args(), tasks));
+            }
+            if (Parser.isIndexList(p.args())) {
+                return new BulkMarkCommand(Parser.parseIndicesOrThrow(p.args(), tasks.size()), false);
+            }
             int idx = Parser.parseIndexOrThrow(p.args(), tasks.size());
             return new UnmarkCommand(idx);
         }
@@ -54,6 +77,15 @@ public final class CommandFactory {
             if (p.args().isEmpty()) {
                 throw new ChattyException("Task number is missing.");
             }
+            if ("done".equalsIgnoreCase(p.args().trim())) {
+                return BulkDeleteCommand.done();
+            }
+            if (Parser.isTaskId(p.args())) {
+                return new DeleteCommand(positionOfId(p.args(), tasks));
+            }
+            if (Parser.isIndexList(p.args())) {
+                return new BulkDeleteCommand(Parser.parseIndicesOrThrow(p.args(), tasks.size()));
+            }
             int idx = Parser.parseIndexOrThrow(p.args(), tasks.size());
             return new DeleteCommand(idx);
         }
@@ -86,17 +118,122 @@ public final class CommandFactory {
         case VIEW: {
             String arg = p.args();
             if (arg == null || arg.isBlank()) {
-                throw new MalformedArgumentsException("view <dd-MM-yyyy>");
+                throw new MalformedArgumentsException(VIEW_USAGE);
+            }
+            String[] days = arg.trim().split("\\s+");
+            if (days.length > 2) {
+                throw new MalformedArgumentsException(VIEW_USAGE);
             }
             try {
-                LocalDate day = LocalDate.parse(arg.trim(), DATE_FMT);
-                return new ViewCommand(day);
+                LocalDate from = TemporalCodec.parseDate(days[0]);
+                LocalDate to = days.length == 2 ? TemporalCodec.parseDate(days[1]) : from;
+                if (to.isBefore(from)) {
+                    throw new MalformedArgumentsException(VIEW_USAGE);
+                }
+                return new ViewCommand(from, to);
             } catch (DateTimeParseException e) {
-                throw new MalformedArgumentsException("view <dd-MM-yyyy>");
+                throw new MalformedArgumentsException(VIEW_USAGE);
+            }
+        }
+        case STATS: {
+            if (!p.args().isEmpty()) {
+                throw new MalformedArgumentsException("stats");
+            }
+            if (metrics == null) {
+                throw new ChattyException("Statistics are not being recorded.");
+            }
+            return new StatsCommand(metrics);
+        }
+        case COUNT: {
+            if (!p.args().isEmpty()) {
+                throw new MalformedArgumentsException("count");
+            }
+            return new CountCommand();
+        }
+        case AGENDA: {
+            if (p.args().isEmpty()) {
+                return new AgendaCommand(AgendaCommand.DEFAULT_COUNT);
+            }
+            try {
+                int count = Integer.parseInt(p.args());
+                if (count < 1) {
+                    throw new MalformedArgumentsException(AGENDA_USAGE);
+                }
+                return new AgendaCommand(count);
+            } catch (NumberFormatException e) {
+                throw new MalformedArgumentsException(AGENDA_USAGE);
             }
         }
         default:
             throw new ChattyException("Unknown command encountered: " + p.cmd());
         }
     }
+
+    /**
+     * Returns the position of the task named by an ID such as {@code #42}. Only valid until the list
+     * changes, which the read or write lock the factory runs under rules out.
+     */
+    private static int positionOfId(String args, TaskList tasks) throws ChattyException {
+        int id = Parser.parseIdOrThrow(args);
+        int idx = tasks.indexOfId(id);
+        if (idx < 0) {
+            throw new ChattyException("No task has ID #" + id + ".");
+        }
+        return idx;
+    }
+
+    /**
+     * Parses the arguments of {@code list}: nothing, a page number, {@code pending}, {@code done}, or
+     * {@code --from} and {@code --limit}. A page or start beyond the end of a non-empty list is rejected.
+     */
+    private static Command parseList(String args, int size) throws ChattyException {
+        if (args == null || args.isBlank()) {
+            return new ListCommand();
+        }
+        if ("pending".equalsIgnoreCase(args.trim()) || "done".equalsIgnoreCase(args.trim())) {
+            return new StatusListCommand("done".equalsIgnoreCase(args.trim()));
+        }
+        String[] tokens = args.trim().split("\\s+");
+        try {
+            if (tokens.length == 1) {
+                int page = Integer.parseInt(tokens[0]);
+                if (page < 1) {
+                    throw new MalformedArgumentsException(LIST_USAGE);
+                }
+                int pages = Math.max(1, (size + ListCommand.PAGE_SIZE - 1) / ListCommand.PAGE_SIZE);
+                if (page > pages) {
+                    throw new ChattyException("Page out of range. The list has " + pages
+                            + (pages == 1 ? " page." : " pages."));
+                }
+                return ListCommand.page(page);
+            }
+            if (tokens.length % 2 != 0) {
+                throw new MalformedArgumentsException(LIST_USAGE);
+            }
+            int from = 1;
+            int limit = -1;
+            for (int i = 0; i < tokens.length; i += 2) {
+                int value = Integer.parseInt(tokens[i + 1]);
+                if (value < 1) {
+                    throw new MalformedArgumentsException(LIST_USAGE);
+                }
+                switch (tokens[i]) {
+                case "--from":
+                    from = value;
+                    break;
+                case "--limit":
+                    limit = value;
+                    break;
+                default:
+                    throw new MalformedArgumentsException(LIST_USAGE);
+                }
+            }
+            if (from > Math.max(size, 1)) {
+                throw new ChattyException("Task number out of range.");
+            }
+            return new ListCommand(from - 1, limit);
+        } catch (NumberFormatException e) {
+            throw new MalformedArgumentsException(LIST_USAGE);
+        }
+    }
 }
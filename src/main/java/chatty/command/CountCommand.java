@@ -0,0 +1,12 @@
+package chatty.command;
+
+import chatty.task.TaskList;
+import chatty.ui.Ui;
+
+/** A command to show how many tasks there are, and how many of them are done. */
+public class CountCommand extends ReadOnlyCommand {
+    @Override
+    public String execute(TaskList tasks, Ui ui) {
+        return ui.showCount(tasks.size(), tasks.countDone());
+    }
+}
@@ -8,7 +8,7 @@ import chatty.task.TaskList;
 import chatty.ui.Ui;
 
 /** Represents a command to find tasks containing a specific keyword. */
-public class FindCommand extends MutatingCommand {
+public class FindCommand extends ReadOnlyCommand {
     private final String searchString;
 
     public FindCommand(String searchString) {
@@ -1,12 +1,70 @@
 package chatty.command;
 
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+
 import chatty.task.TaskList;
 import chatty.ui.Ui;
 
-/** A command to list all tasks. */
-public class ListCommand implements Command {
+/** A command to list all tasks, or one page of them. */
+public class ListCommand extends ReadOnlyCommand {
+    /** Number of tasks shown by {@code list <page>}. */
+    public static final int PAGE_SIZE = 20;
+
+    private final int from;
+    private final int limit;
+
+    /** Creates a command that lists every task. */
+    public ListCommand() {
+        this(0, -1);
+    }
+
+    /**
+     * Creates a command that lists at most {@code limit} tasks, starting at position {@code from}.
+     * The range is clipped to the end of the list when the command runs.
+     *
+     * @param from the 0-based position of the first task to list.
+     * @param limit the maximum number of tasks to list, or -1 to list every task from {@code from} on.
+     */
+    public ListCommand(int from, int limit) {
+        assert from >= 0 && (limit > 0 || limit == -1) : "Invalid list range";
+        this.from = from;
+        this.limit = limit;
+    }
+
+    /**
+     * Creates a command that lists one page of {@link #PAGE_SIZE} tasks.
+     *
+     * @param page the 1-based page number.
+     * @return the command.
+     */
+    public static ListCommand page(int page) {
+        assert page > 0 : "Pages are numbered from 1";
+        return new ListCommand((page - 1) * PAGE_SIZE, PAGE_SIZE);
+    }
+
     @Override
     public String execute(TaskList tasks, Ui ui) {
-        return ui.showList(tasks);
+        if (isWholeList()) {
+            return ui.showList(tasks);
+        }
+        StringJoiner reply = new StringJoiner("\n");
+        stream(tasks, ui, reply::add);
+        return reply.toString();
+    }
+
+    @Override
+    public void stream(TaskList tasks, Ui ui, Consumer<String> out) {
+        if (isWholeList()) {
+            ui.streamList(tasks, out);
+            return;
+        }
+        int start = Math.min(from, tasks.size());
+        int end = limit == -1 ? tasks.size() : (int) Math.min((long) start + limit, tasks.size());
+        ui.streamPage(tasks, start, end, out);
+    }
+
+    private boolean isWholeList() {
+        return from == 0 && limit == -1;
     }
 }
@@ -15,8 +15,7 @@ public class MarkCommand extends MutatingCommand {
 
     @Override
     public String execute(TaskList tasks, Ui ui) {
-        Task task = tasks.get(index);
-        task.mark();
+        Task task = tasks.mark(index);
         return ui.showMarked(task);
     }
 }
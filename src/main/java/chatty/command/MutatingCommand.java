@@ -1,9 +1,9 @@
 package chatty.command;
 
 /** A command that mutates the task list. */
-public abstract class MutatingCommand implements Command {
+public abstract non-sealed class MutatingCommand implements Command {
     @Override
-    public boolean isMutating() {
+    public final boolean isMutating() {
         return true;
     }
 }
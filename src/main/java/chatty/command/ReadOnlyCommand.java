@@ -0,0 +1,9 @@
+package chatty.command;
+
+/** A command that only reads the task list and never needs persisting. */
+public abstract non-sealed class ReadOnlyCommand implements Command {
+    @Override
+    public final boolean isMutating() {
+        return false;
+    }
+}
@@ -0,0 +1,19 @@
+package chatty.command;
+
+import chatty.metrics.Metrics;
+import chatty.task.TaskList;
+import chatty.ui.Ui;
+
+/** A command to show how long each kind of command has taken so far. */
+public class StatsCommand extends ReadOnlyCommand {
+    private final Metrics metrics;
+
+    public StatsCommand(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String execute(TaskList tasks, Ui ui) {
+        return ui.showStats(metrics.getReport());
+    }
+}
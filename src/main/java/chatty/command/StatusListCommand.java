@@ -0,0 +1,38 @@
+package chatty.command;
+
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+
+import chatty.task.TaskList;
+import chatty.ui.Ui;
+
+/**
+ * A command to list only the tasks that are done, or only those that are not, as in {@code list done}
+ * and {@code list pending}. Tasks keep their numbers from the full list.
+ *
+ * @see TaskList#positionsWithStatus(boolean)
+ */
+public class StatusListCommand extends ReadOnlyCommand {
+    private final boolean isDone;
+
+    /**
+     * Creates a command that lists the tasks with the given status.
+     *
+     * @param isDone whether to list the done tasks rather than the pending ones.
+     */
+    public StatusListCommand(boolean isDone) {
+        this.isDone = isDone;
+    }
+
+    @Override
+    public String execute(TaskList tasks, Ui ui) {
+        StringJoiner reply = new StringJoiner("\n");
+        stream(tasks, ui, reply::add);
+        return reply.toString();
+    }
+
+    @Override
+    public void stream(TaskList tasks, Ui ui, Consumer<String> out) {
+        ui.streamWithStatus(tasks, tasks.positionsWithStatus(isDone), isDone, out);
+    }
+}
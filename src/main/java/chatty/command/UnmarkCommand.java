@@ -15,8 +15,7 @@ public class UnmarkCommand extends MutatingCommand {
 
     @Override
     public String execute(TaskList tasks, Ui ui) {
-        Task task = tasks.get(index);
-        task.unmark();
+        Task task = tasks.unmark(index);
         return ui.showUnmarked(task);
     }
 }
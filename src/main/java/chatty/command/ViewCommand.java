@@ -3,9 +3,6 @@ package chatty.command;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeFormatterBuilder;
-import java.time.format.ResolverStyle;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -14,18 +11,13 @@ import chatty.task.Deadline;
 import chatty.task.Event;
 import chatty.task.Task;
 import chatty.task.TaskList;
+import chatty.task.TemporalCodec;
 import chatty.ui.Ui;
 
-/** Command to view a day's schedule (morning to night). */
-public final class ViewCommand implements Command {
-    private static final DateTimeFormatter DATE_FMT = new DateTimeFormatterBuilder()
-            .parseCaseInsensitive()
-            .appendPattern("dd-MM-uuuu")
-            .toFormatter()
-            .withResolverStyle(ResolverStyle.STRICT);
-    private static final DateTimeFormatter TIME_FMT = DateTimeFormatter.ofPattern("HHmm");
-
-    private final LocalDate day;
+/** Command to view the schedule of a day or a range of days (morning to night). */
+public final class ViewCommand extends ReadOnlyCommand {
+    private final LocalDate from;
+    private final LocalDate to;
 
     /**
      * Constructs a ViewCommand object.
@@ -33,28 +25,37 @@ public final class ViewCommand implements Command {
      * @param day The day to view.
      */
     public ViewCommand(LocalDate day) {
-        this.day = day;
+        this(day, day);
+    }
+
+    /**
+     * Constructs a ViewCommand object for a range of days.
+     *
+     * @param from The first day to view.
+     * @param to The last day to view, not before {@code from}.
+     */
+    public ViewCommand(LocalDate from, LocalDate to) {
+        assert !to.isBefore(from) : "View range must not end before it starts";
+        this.from = from;
+        this.to = to;
     }
 
     @Override
     public String execute(TaskList tasks, Ui ui) {
-        LocalDateTime startOfDay = day.atStartOfDay();
-        LocalDateTime endOfDay = day.atTime(LocalTime.MAX);
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.atTime(LocalTime.MAX);
+        boolean isSingleDay = from.equals(to);
 
-        // Collect timed entries from tasks
+        // Collect timed entries from tasks, clipped to the requested days
         List<Entry> entries = new ArrayList<>();
 
-        for (Task t : tasks.asList()) {
+        for (Task t : tasks.findTimed(start, end)) {
             if (t instanceof Deadline d) {
-                if (d.getBy().toLocalDate().equals(day)) {
-                    entries.add(new Entry(d.getDescription(), d.getBy(), d.getBy(), "[D] ", d.getIsDone()));
-                }
+                entries.add(new Entry(d.getDescription(), d.getBy(), d.getBy(), "[D] ", d.getIsDone()));
             } else if (t instanceof Event e) {
-                if (!e.getTo().isBefore(startOfDay) && !e.getFrom().isAfter(endOfDay)) {
-                    LocalDateTime s = e.getFrom().isBefore(startOfDay) ? startOfDay : e.getFrom();
-                    LocalDateTime en = e.getTo().isAfter(endOfDay) ? endOfDay : e.getTo();
-                    entries.add(new Entry(e.getDescription(), s, en, "[E] ", e.getIsDone()));
-                }
+                LocalDateTime s = e.getFrom().isBefore(start) ? start : e.getFrom();
+                LocalDateTime en = e.getTo().isAfter(end) ? end : e.getTo();
+                entries.add(new Entry(e.getDescription(), s, en, "[E] ", e.getIsDone()));
             }
         }
 
@@ -65,13 +66,17 @@ public final class ViewCommand implements Command {
 
         // Format output
         StringBuilder sb = new StringBuilder();
-        sb.append("Schedule for ").append(day.format(DATE_FMT)).append(System.lineSeparator());
+        TemporalCodec.appendDate(sb.append("Schedule for "), from);
+        if (!isSingleDay) {
+            TemporalCodec.appendDate(sb.append(" to "), to);
+        }
+        sb.append(System.lineSeparator());
         if (entries.isEmpty()) {
-            sb.append("(No timed tasks on this day)");
+            sb.append(isSingleDay ? "(No timed tasks on this day)" : "(No timed tasks in this period)");
             return sb.toString();
         }
 
-        buildOutputString(entries, sb);
+        buildOutputString(entries, sb, isSingleDay);
 
         return sb.toString();
     }
@@ -81,29 +86,28 @@ public final class ViewCommand implements Command {
      *
      * @param entries The list of entries to be included in the schedule.
      * @param sb      The StringBuilder to append the output string to.
+     * @param isTimeOnly Whether to write times as HHmm, for a single day, rather than with the date.
      */
-    private static void buildOutputString(List<Entry> entries, StringBuilder sb) {
+    private static void buildOutputString(List<Entry> entries, StringBuilder sb, boolean isTimeOnly) {
         // Build output string
         for (Entry en : entries) {
             String status = en.done ? "[X]" : "[ ]";
 
             if (en.isInstant()) {
                 // Deadline: single time point
-                sb.append(status).append(" ")
-                        .append(en.start.format(TIME_FMT))
+                appendTime(sb.append(status).append(" "), en.start, isTimeOnly)
                         .append("  ")
                         .append(en.type)
                         .append(en.description)
-                        .append(" (by ")
-                        .append(en.start.format(TIME_FMT))
+                        .append(" (by ");
+                appendTime(sb, en.start, isTimeOnly)
                         .append(")")
                         .append(System.lineSeparator());
             } else {
                 // Event: time range
-                sb.append(status).append(" ")
-                        .append(en.start.format(TIME_FMT))
-                        .append("-")
-                        .append(en.end.format(TIME_FMT))
+                appendTime(sb.append(status).append(" "), en.start, isTimeOnly)
+                        .append("-");
+                appendTime(sb, en.end, isTimeOnly)
                         .append("  ")
                         .append(en.type)
                         .append(en.description)
@@ -112,6 +116,10 @@ public final class ViewCommand implements Command {
         }
     }
 
+    private static StringBuilder appendTime(StringBuilder sb, LocalDateTime t, boolean isTimeOnly) {
+        return isTimeOnly ? TemporalCodec.appendTime(sb, t) : TemporalCodec.appendDateTime(sb, t);
+    }
+
     /** Local struct for schedule entries. */
     private static final class Entry {
         final String description;
@@ -0,0 +1,118 @@
+package chatty.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in nanoseconds with a fixed relative error, in the style of HdrHistogram.
+ *
+ * <p>Values below {@value #LINEAR_LIMIT} get a bucket each. Above that, every power of two is split into
+ * {@value #SUB_BUCKETS} equal buckets, so a recorded value is off by less than 1/{@value #SUB_BUCKETS}
+ * (about 1.6%) however large it is. Values of about 4.9 hours (2^44 ns) and more are counted in the last bucket.</p>
+ *
+ * <p>Recording is lock-free and allocation-free, so many threads may record into one histogram at once.
+ * Reads are not atomic with respect to concurrent recording, which is fine for monitoring.</p>
+ */
+public final class Histogram {
+    private static final int SUB_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+    /** Exponent of the largest power of two with buckets of its own. */
+    private static final int MAX_EXPONENT = 43;
+    private static final int BUCKETS = LINEAR_LIMIT + (MAX_EXPONENT - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records one value.
+     *
+     * @param nanos the value, in nanoseconds; negative values count as 0.
+     */
+    public void record(long nanos) {
+        long v = Math.max(nanos, 0);
+        counts.incrementAndGet(bucketOf(v));
+        total.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    /** Returns the number of recorded values. */
+    public long getCount() {
+        return total.sum();
+    }
+
+    /** Returns the largest recorded value, or 0 if nothing was recorded. */
+    public long getMax() {
+        return max.get();
+    }
+
+    /** Returns the mean of the recorded values, or 0 if nothing was recorded. */
+    public double getMean() {
+        long n = total.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns the value below or at which the given share of the recorded values lies, rounded up to the
+     * end of its bucket but never beyond the largest recorded value.
+     *
+     * @param percentile the share, from 0 to 100.
+     * @return the value in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        assert percentile >= 0 && percentile <= 100 : "Percentile must be between 0 and 100";
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            n += counts.get(i);
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /** Forgets every recorded value. */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    static int bucketOf(long v) {
+        if (v < LINEAR_LIMIT) {
+            return (int) v;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int shift = exponent - SUB_BITS;
+        int sub = (int) (v >>> shift) - SUB_BUCKETS; // the top bit is always set, so 0 to SUB_BUCKETS - 1
+        return LINEAR_LIMIT + (exponent - SUB_BITS - 1) * SUB_BUCKETS + sub;
+    }
+
+    static long highestValueIn(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int band = (bucket - LINEAR_LIMIT) / SUB_BUCKETS;
+        int sub = (bucket - LINEAR_LIMIT) % SUB_BUCKETS;
+        int shift = band + 1;
+        return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+}
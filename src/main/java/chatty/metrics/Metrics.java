@@ -0,0 +1,277 @@
+package chatty.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.sun.management.ThreadMXBean;
+
+import chatty.parser.Parser;
+
+/**
+ * Records how long each {@link Parser.Command} takes, phase by phase, and how much it allocates.
+ *
+ * <p>Every line of input is timed by a {@link Sample}: parsing, building the command in the
+ * {@code CommandFactory}, executing it and persisting the result each go into a {@link Histogram} of their
+ * own per command type. Time spent waiting for the task list lock is not counted in any phase. Allocation
+ * is measured with the per-thread allocation counter of HotSpot, where available.</p>
+ *
+ * <p>The numbers are shown by the {@code stats} command and, once {@link #register()} is called, over JMX.</p>
+ */
+public final class Metrics implements MetricsMBean {
+    /** The phases of handling one line of input. */
+    public enum Phase { PARSE, FACTORY, EXECUTE, PERSIST }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final String OBJECT_NAME = "chatty:type=Metrics";
+    /** The allocation counter, or {@code null} if the JVM has none. */
+    private static final ThreadMXBean ALLOCATIONS = allocationCounter();
+
+    private final EnumMap<Parser.Command, CommandStats> byCommand = new EnumMap<>(Parser.Command.class);
+    private final LongAdder unparsed = new LongAdder();
+    private final LongSupplier bytesWritten;
+
+    /**
+     * Creates an empty set of metrics.
+     *
+     * @param bytesWritten reports the number of bytes the storage has written so far.
+     */
+    public Metrics(LongSupplier bytesWritten) {
+        this.bytesWritten = bytesWritten;
+        for (Parser.Command c : Parser.Command.values()) {
+            byCommand.put(c, new CommandStats());
+        }
+    }
+
+    /**
+     * Starts timing one line of input. The parse phase starts right away.
+     *
+     * @return the sample to record the phases in; used by one thread only.
+     */
+    public Sample start() {
+        return new Sample();
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server as {@code chatty:type=Metrics}, unless
+     * other metrics are registered under that name already.
+     *
+     * @return true if these metrics were registered.
+     */
+    public boolean register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                return false;
+            }
+            server.registerMBean(this, name);
+            return true;
+        } catch (JMException e) {
+            return false; // monitoring is optional; the bot works the same without it
+        }
+    }
+
+    /**
+     * Returns the histogram of one phase of one command.
+     *
+     * @param command the command.
+     * @param phase the phase.
+     * @return the latencies recorded for that phase, in nanoseconds.
+     */
+    public Histogram histogram(Parser.Command command, Phase phase) {
+        return byCommand.get(command).phases[phase.ordinal()];
+    }
+
+    @Override
+    public long getCommands() {
+        long n = unparsed.sum();
+        for (CommandStats s : byCommand.values()) {
+            n += s.runs.sum();
+        }
+        return n;
+    }
+
+    @Override
+    public long getErrors() {
+        long n = unparsed.sum();
+        for (CommandStats s : byCommand.values()) {
+            n += s.errors.sum();
+        }
+        return n;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.getAsLong();
+    }
+
+    @Override
+    public double percentileMillis(String command, String phase, double percentile) {
+        Histogram h = histogram(Parser.Command.valueOf(command.toUpperCase(Locale.ROOT)),
+                Phase.valueOf(phase.toUpperCase(Locale.ROOT)));
+        return h.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    @Override
+    public void reset() {
+        unparsed.reset();
+        for (CommandStats s : byCommand.values()) {
+            s.reset();
+        }
+    }
+
+    /**
+     * Returns a table with one row per command that has run: its run and failure counts, the median and
+     * 99th percentile of every phase in microseconds, and the mean allocation per run.
+     *
+     * @return the report, one line per row.
+     */
+    @Override
+    public String getReport() {
+        StringJoiner report = new StringJoiner("\n");
+        report.add(String.format(" %-8s %7s %7s  %-15s %-15s %-15s %-15s %s",
+                "command", "runs", "failed", "parse", "factory", "execute", "persist", "alloc/run"));
+        for (Parser.Command c : Parser.Command.values()) {
+            CommandStats s = byCommand.get(c);
+            long runs = s.runs.sum();
+            if (runs == 0) {
+                continue;
+            }
+            report.add(String.format(" %-8s %7d %7d  %-15s %-15s %-15s %-15s %s",
+                    c.name().toLowerCase(Locale.ROOT), runs, s.errors.sum(), micros(s, Phase.PARSE),
+                    micros(s, Phase.FACTORY), micros(s, Phase.EXECUTE), micros(s, Phase.PERSIST),
+                    ALLOCATIONS == null ? "n/a" : bytes(s.allocated.sum() / runs)));
+        }
+        report.add(" Latency is p50/p99 in microseconds. Unrecognised input: " + unparsed.sum()
+                + ". Written to disk: " + bytes(getBytesWritten()) + ".");
+        return report.toString();
+    }
+
+    private static String micros(CommandStats s, Phase phase) {
+        Histogram h = s.phases[phase.ordinal()];
+        if (h.getCount() == 0) {
+            return "-";
+        }
+        return String.format(Locale.ROOT, "%.1f/%.1f",
+                h.getValueAtPercentile(50) / 1e3, h.getValueAtPercentile(99) / 1e3);
+    }
+
+    private static String bytes(long n) {
+        if (n < 1024) {
+            return n + " B";
+        }
+        if (n < 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f KB", n / 1024.0);
+        }
+        return String.format(Locale.ROOT, "%.1f MB", n / (1024.0 * 1024));
+    }
+
+    private static ThreadMXBean allocationCounter() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean t
+                    && t.isThreadAllocatedMemorySupported() && t.isThreadAllocatedMemoryEnabled()) {
+                return t;
+            }
+        } catch (UnsupportedOperationException | LinkageError e) {
+            // not HotSpot
+        }
+        return null;
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATIONS == null ? 0 : ALLOCATIONS.getCurrentThreadAllocatedBytes();
+    }
+
+    /** The timing of one line of input, from parsing to persisting. */
+    public final class Sample {
+        private final long[] nanos = new long[PHASES.length];
+        private final long startAllocated = allocatedBytes();
+        private long mark = System.nanoTime();
+        private Parser.Command command;
+
+        private Sample() {
+            for (int i = 0; i < nanos.length; i++) {
+                nanos[i] = -1; // not run
+            }
+        }
+
+        /** Restarts the clock without counting the time since the last phase, e.g. after waiting for a lock. */
+        public void resume() {
+            mark = System.nanoTime();
+        }
+
+        /**
+         * Ends a phase, adding the time since the previous phase ended to it. A phase may run more than once.
+         *
+         * @param phase the phase that just ended.
+         */
+        public void lap(Phase phase) {
+            long now = System.nanoTime();
+            int i = phase.ordinal();
+            nanos[i] = Math.max(nanos[i], 0) + now - mark;
+            mark = now;
+        }
+
+        /**
+         * Sets the command the input was parsed as.
+         *
+         * @param command the command.
+         */
+        public void setCommand(Parser.Command command) {
+            this.command = command;
+        }
+
+        /**
+         * Records the sample under its command, or as unrecognised input if it was never parsed.
+         *
+         * @param isFailed whether the command failed.
+         */
+        public void finish(boolean isFailed) {
+            if (command == null) {
+                unparsed.increment();
+                return;
+            }
+            CommandStats s = byCommand.get(command);
+            for (int i = 0; i < nanos.length; i++) {
+                if (nanos[i] >= 0) {
+                    s.phases[i].record(nanos[i]);
+                }
+            }
+            s.runs.increment();
+            if (isFailed) {
+                s.errors.increment();
+            }
+            s.allocated.add(allocatedBytes() - startAllocated);
+        }
+    }
+
+    /** Counters and histograms of one command type. */
+    private static final class CommandStats {
+        final Histogram[] phases = new Histogram[PHASES.length];
+        final LongAdder runs = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder allocated = new LongAdder();
+
+        CommandStats() {
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = new Histogram();
+            }
+        }
+
+        void reset() {
+            for (Histogram h : phases) {
+                h.reset();
+            }
+            runs.reset();
+            errors.reset();
+            allocated.reset();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package chatty.metrics;
+
+/**
+ * The JMX view of {@link Metrics}, registered as {@code chatty:type=Metrics}.
+ */
+public interface MetricsMBean {
+    /** Returns the number of commands handled, successful or not. */
+    long getCommands();
+
+    /** Returns the number of commands that failed, including input that could not be parsed. */
+    long getErrors();
+
+    /** Returns the number of bytes written to the data file and the journal. */
+    long getBytesWritten();
+
+    /** Returns the same report as the {@code stats} command. */
+    String getReport();
+
+    /**
+     * Returns a latency percentile of one phase of one command.
+     *
+     * @param command the command, such as {@code find}.
+     * @param phase the phase: {@code parse}, {@code factory}, {@code execute} or {@code persist}.
+     * @param percentile the percentile, from 0 to 100.
+     * @return the latency in milliseconds, or 0 if the phase has not run for that command.
+     */
+    double percentileMillis(String command, String phase, double percentile);
+
+    /** Forgets every recorded value. The byte count is kept, as it belongs to the storage. */
+    void reset();
+}
@@ -1,5 +1,8 @@
 package chatty.parser;
 
+import java.util.Arrays;
+import java.util.Locale;
+
 import chatty.exceptions.ChattyException;
 import chatty.exceptions.MalformedArgumentsException;
 import chatty.exceptions.UnknownCommandException;
@@ -8,9 +11,28 @@ import chatty.exceptions.UnknownCommandException;
  * The Parser class is responsible for parsing user input and converting it into a Parsed object.
  */
 public class Parser {
+    /** The keyword of every command, indexed by {@link Command#ordinal()}. */
+    private static final String[] KEYWORDS;
+    /** A shared result per command for input without arguments, such as {@code list}. */
+    private static final Parsed[] BARE;
+
+    static {
+        Command[] commands = Command.values();
+        KEYWORDS = new String[commands.length];
+        BARE = new Parsed[commands.length];
+        for (Command c : commands) {
+            KEYWORDS[c.ordinal()] = c.name().toLowerCase(Locale.ROOT);
+            BARE[c.ordinal()] = new Parsed(c, "");
+        }
+    }
+
     /**
      * Parses the user input and returns a Parsed object containing the command and arguments.
      *
+     * <p>The input is scanned once: the keyword is matched in place and the arguments are trimmed by
+     * their offsets, so the only string created is the arguments themselves, and none at all for a
+     * command without arguments.</p>
+     *
      * @param input the user input to be parsed.
      * @return a Parsed object containing the command and arguments.
      * @throws ChattyException if the input is empty or the command is not recognized.
@@ -21,23 +43,20 @@ public class Parser {
             throw new UnknownCommandException("");
         }
 
-        String[] parts = input.split(" ", 2);
-        String keyword = parts[0];
-        String args = (parts.length > 1) ? parts[1].trim() : "";
+        int length = input.length();
+        int space = input.indexOf(' ');
+        int keywordEnd = space < 0 ? length : space;
+        Command cmd = keywordOf(input, keywordEnd);
+        if (cmd == null) {
+            throw new UnknownCommandException(input);
+        }
 
-        return switch (keyword) {
-            case "bye" -> new Parsed(Command.BYE, args);
-            case "list" -> new Parsed(Command.LIST, args);
-            case "mark" -> new Parsed(Command.MARK, args);
-            case "unmark" -> new Parsed(Command.UNMARK, args);
-            case "delete" -> new Parsed(Command.DELETE, args);
-            case "todo" -> new Parsed(Command.TODO, args);
-            case "deadline" -> new Parsed(Command.DEADLINE, args);
-            case "event" -> new Parsed(Command.EVENT, args);
-            case "find" -> new Parsed(Command.FIND, args);
-            case "view" -> new Parsed(Command.VIEW, args);
-            default -> throw new UnknownCommandException(input);
-        };
+        int from = space < 0 ? length : trimStart(input, space + 1, length);
+        int to = trimEnd(input, from, length);
+        if (from >= to) {
+            return BARE[cmd.ordinal()];
+        }
+        return new Parsed(cmd, input.substring(from, to));
     }
 
     /**
@@ -48,9 +67,7 @@ public class Parser {
      * @return the parsed index.
      * @throws ChattyException if the index is out of range or not a valid integer.
      * @see ChattyException
-     * @see Integer#parseInt(String)
-     * @see String#isEmpty()
-     * @see String#trim()
+     * @see Integer#parseInt(CharSequence, int, int, int)
      */
     public static int parseIndexOrThrow(String s, int size) throws ChattyException {
         if (s == null || s.isBlank()) {
@@ -58,15 +75,16 @@ public class Parser {
             throw new MalformedArgumentsException("Provide exactly one task number (e.g., mark 2)");
         }
 
-        String[] tokens = s.trim().split("\\s+");
-        if (tokens.length != 1) {
+        int from = trimStart(s, 0, s.length());
+        int to = trimEnd(s, from, s.length());
+        if (indexOfWhitespace(s, from, to) >= 0) {
             // wrong arity: too many tokens like "1 2"
             throw new MalformedArgumentsException("Provide exactly one task number (e.g., mark 2)");
         }
 
         final int idx;
         try {
-            int oneBased = Integer.parseInt(tokens[0]);
+            int oneBased = Integer.parseInt(s, from, to, 10);
             idx = oneBased - 1; // convert to 0-based
         } catch (NumberFormatException ex) {
             throw new MalformedArgumentsException("Task number must be an integer (e.g., mark 2)");
@@ -78,6 +96,138 @@ public class Parser {
         return idx;
     }
 
+    /**
+     * Returns whether the argument names a task by its ID, such as {@code #42}, rather than by its number.
+     *
+     * @param s the arguments of a mark, unmark or delete command.
+     * @return true if the argument starts with {@code #}.
+     * @see #parseIdOrThrow(String)
+     */
+    public static boolean isTaskId(String s) {
+        return s != null && s.trim().startsWith("#");
+    }
+
+    /**
+     * Parses a task ID written as {@code #} followed by the ID, such as {@code #42}.
+     * Whether a task has that ID is up to the caller to check.
+     *
+     * @param s the string to parse the ID from.
+     * @return the parsed ID, which is positive.
+     * @throws MalformedArgumentsException if the string is not a {@code #} followed by a positive integer.
+     * @see chatty.task.Task#getId()
+     */
+    public static int parseIdOrThrow(String s) throws MalformedArgumentsException {
+        final String usage = "Task IDs are written with a # in front (e.g., mark #42)";
+        String t = s == null ? "" : s.trim();
+        if (!t.startsWith("#")) {
+            throw new MalformedArgumentsException(usage);
+        }
+        try {
+            int id = Integer.parseInt(t, 1, t.length(), 10);
+            if (id < 1) {
+                throw new MalformedArgumentsException(usage);
+            }
+            return id;
+        } catch (NumberFormatException ex) {
+            throw new MalformedArgumentsException(usage);
+        }
+    }
+
+    /**
+     * Returns whether the argument names several tasks, such as {@code 1,5,9}, {@code 3-40} or {@code 3..40},
+     * rather than a single task number.
+     *
+     * A dash only makes a range with a digit right before and after it, so {@code 1 -2} stays a single,
+     * invalid task number.
+     *
+     * @param s the arguments of a mark, unmark or delete command.
+     * @return true if the argument contains a comma or a range.
+     * @see #parseIndicesOrThrow(String, int)
+     */
+    public static boolean isIndexList(String s) {
+        return s != null && (s.indexOf(',') >= 0 || hasRangeDash(s) || s.contains(".."));
+    }
+
+    private static boolean hasRangeDash(String s) {
+        for (int i = s.indexOf('-', 1); i > 0 && i < s.length() - 1; i = s.indexOf('-', i + 1)) {
+            if (Character.isDigit(s.charAt(i - 1)) && Character.isDigit(s.charAt(i + 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses a comma-separated list of task numbers and ranges, such as {@code 1,5,9} or {@code 2,10-20},
+     * and checks that every number is within the valid range. Ranges include both ends and may be
+     * written as {@code 3-40} or {@code 3..40}.
+     *
+     * @param s the string to parse the indices from.
+     * @param size the size of the list to check the indices against.
+     * @return the distinct 0-based indices, in ascending order.
+     * @throws ChattyException if an index is out of range or the list is malformed.
+     * @see #parseIndexOrThrow(String, int)
+     */
+    public static int[] parseIndicesOrThrow(String s, int size) throws ChattyException {
+        final String usage = "Use task numbers and ranges like 1,5,9 or 3-40 (e.g., mark 3-40)";
+        if (s == null || s.isBlank()) {
+            throw new MalformedArgumentsException(usage);
+        }
+
+        int[] indices = new int[8];
+        int count = 0;
+        int end = s.length();
+        while (end > 0 && s.charAt(end - 1) == ',') {
+            end--; // trailing empty items are ignored, as String#split does
+        }
+        for (int itemStart = 0; itemStart < end; ) {
+            int itemEnd = indexOf(s, ',', itemStart, end);
+            int from = trimStart(s, itemStart, itemEnd);
+            int to = trimEnd(s, from, itemEnd);
+            itemStart = itemEnd + 1;
+
+            int dots = indexOfDots(s, from, to);
+            int dash = to - from > 1 ? indexOf(s, '-', from + 1, to) : to;
+            int split = dots < to ? dots : dash;
+            final int first;
+            final int last;
+            try {
+                if (split == to) {
+                    first = Integer.parseInt(s, from, to, 10) - 1;
+                    last = first;
+                } else {
+                    int next = split + (dots < to ? 2 : 1);
+                    first = Integer.parseInt(s, from, trimEnd(s, from, split), 10) - 1;
+                    last = Integer.parseInt(s, trimStart(s, next, to), to, 10) - 1;
+                }
+            } catch (NumberFormatException ex) {
+                throw new MalformedArgumentsException(usage);
+            }
+            if (last < first) {
+                throw new MalformedArgumentsException(usage);
+            }
+            if (first < 0 || last >= size) {
+                throw new ChattyException("Task number out of range.");
+            }
+            for (int idx = first; idx <= last; idx++) {
+                if (count == indices.length) {
+                    indices = Arrays.copyOf(indices, count * 2);
+                }
+                indices[count++] = idx;
+            }
+        }
+
+        int[] sorted = Arrays.copyOf(indices, count);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
     /**
      * Splits the given string into an array of strings based on the "/by" delimiter.
      * The first element of the array is the description, and the second element is the deadline.
@@ -129,9 +279,86 @@ public class Parser {
         return new String[]{desc, from, to};
     }
 
+    /* ----------------- scanning by offsets ----------------- */
+
+    /** Returns the command whose keyword is exactly {@code input[0, end)}, or null if there is none. */
+    private static Command keywordOf(String input, int end) {
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            String keyword = KEYWORDS[i];
+            if (keyword.length() == end && input.regionMatches(0, keyword, 0, end)) {
+                return BARE[i].cmd();
+            }
+        }
+        return null;
+    }
+
+    /** Returns the first offset in {@code [from, to)} that {@link String#trim()} would keep, or {@code to}. */
+    private static int trimStart(CharSequence s, int from, int to) {
+        while (from < to && s.charAt(from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    /** Returns the end of {@code [from, to)} after dropping what {@link String#trim()} would drop. */
+    private static int trimEnd(CharSequence s, int from, int to) {
+        while (to > from && s.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    /** Returns the offset of {@code c} in {@code [from, to)}, or {@code to} if it does not occur. */
+    private static int indexOf(CharSequence s, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /** Returns the offset of the first {@code ..} in {@code [from, to)}, or {@code to} if it does not occur. */
+    private static int indexOfDots(CharSequence s, int from, int to) {
+        for (int i = from; i + 1 < to; i++) {
+            if (s.charAt(i) == '.' && s.charAt(i + 1) == '.') {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /** Returns the offset of the first character in {@code [from, to)} matched by the regex {@code \s}, or -1. */
+    private static int indexOfWhitespace(CharSequence s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /** Represents the commands that can be parsed.*/
     public enum Command {
-        BYE, LIST, MARK, UNMARK, DELETE, TODO, DEADLINE, EVENT, FIND, VIEW
+        BYE(false), LIST(false), MARK(true), UNMARK(true), DELETE(true), TODO(true), DEADLINE(true), EVENT(true),
+        FIND(false), VIEW(false), STATS(false), COUNT(false), AGENDA(false);
+
+        private final boolean isMutating;
+
+        Command(boolean isMutating) {
+            this.isMutating = isMutating;
+        }
+
+        /**
+         * Returns whether every command of this kind changes the task list, so that it has to be built and
+         * run inside the list's {@code write} rather than its {@code read}.
+         *
+         * @return true if the command is a {@link chatty.command.MutatingCommand}.
+         */
+        public boolean isMutating() {
+            return isMutating;
+        }
     }
 
     /** Represents the result of parsing a command.*/
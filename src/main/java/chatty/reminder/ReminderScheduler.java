@@ -0,0 +1,216 @@
+package chatty.reminder;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import chatty.exceptions.ChattyException;
+import chatty.task.Deadline;
+import chatty.task.Event;
+import chatty.task.Task;
+import chatty.task.TaskList;
+
+/**
+ * Raises a reminder when a deadline that is not done comes due or an event that is not done starts.
+ *
+ * <p>All timers live in one {@link TimingWheel} with a tick per minute, owned by a single daemon thread. The
+ * wheel is filled once from the tasks when the scheduler starts, and then follows the list as a
+ * {@link TaskList.Listener}: adding, marking, unmarking or deleting a task sets or cancels just that task's
+ * timer, handed to the scheduler thread in the order the changes were made. Changes rolled back in a batch
+ * are never reported, so they never reach the wheel.</p>
+ *
+ * <p>The wheel holds task IDs and minutes only, about 40 bytes a timer, and never a task: a task is looked
+ * up by ID under {@link TaskList#read(TaskList.Action)} when its timer expires. So reminders keep no task
+ * of a columnar or lazily loaded list in memory. Filling the wheel reads the agenda index of a list held in
+ * memory and the columns of a columnar one; a lazily loaded list is read through once, one task at a time,
+ * which costs a pass over the file at startup but keeps nothing of it.</p>
+ *
+ * <p>The thread wakes at the start of every minute and advances the wheel to the current minute, so the cost
+ * of a tick does not grow with the number of timers. If the computer was asleep, the minutes missed are
+ * caught up on waking and their reminders are raised late rather than lost. Tasks that are already due when
+ * the scheduler starts get no reminder.</p>
+ */
+public final class ReminderScheduler implements TaskList.Listener, AutoCloseable {
+    private final Function<Task, String> reminderOf;
+    private final Consumer<String> alerts;
+    private final Supplier<LocalDateTime> clock;
+    private final ScheduledExecutorService thread;
+    private TaskList tasks;
+    /** Only used on {@link #thread}, apart from being filled before it starts. */
+    private TimingWheel wheel;
+
+    /**
+     * Creates a scheduler that goes by the system clock. It does nothing until {@link #start(TaskList)}.
+     *
+     * @param reminderOf renders the reminder of a task; it is called inside {@link TaskList#read}, so the
+     *     task cannot change meanwhile.
+     * @param alerts receives each reminder as it comes due, on the scheduler thread.
+     */
+    public ReminderScheduler(Function<Task, String> reminderOf, Consumer<String> alerts) {
+        this(reminderOf, alerts, LocalDateTime::now);
+    }
+
+    /**
+     * Creates a scheduler that goes by the given clock.
+     *
+     * @param reminderOf renders the reminder of a task; it is called inside {@link TaskList#read}, so the
+     *     task cannot change meanwhile.
+     * @param alerts receives each reminder as it comes due, on the scheduler thread.
+     * @param clock returns the current time.
+     */
+    ReminderScheduler(Function<Task, String> reminderOf, Consumer<String> alerts, Supplier<LocalDateTime> clock) {
+        this.reminderOf = reminderOf;
+        this.alerts = alerts;
+        this.clock = clock;
+        this.thread = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "chatty-reminders");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Sets a timer for every deadline and event in the list that is not done and lies ahead, follows the
+     * list's changes from then on, and starts the scheduler thread. Must be called before the list is
+     * changed by other threads, such as at startup, and only once.
+     *
+     * @param tasks the tasks to raise reminders for.
+     */
+    public void start(TaskList tasks) {
+        assert wheel == null : "Reminders are already running";
+        LocalDateTime now = clock.get();
+        TimingWheel filled = new TimingWheel(minuteOf(now));
+        tasks.forEachUpcoming(now, filled::schedule);
+        this.tasks = tasks;
+        wheel = filled;
+        tasks.addListener(this);
+        thread.execute(this::tickAndWait);
+    }
+
+    @Override
+    public void onAdd(int idx, Task t) {
+        if (!t.getIsDone() && isTimed(t)) {
+            int id = t.getId();
+            long due = minuteOf(startOf(t));
+            thread.execute(() -> wheel.schedule(id, due));
+        }
+    }
+
+    @Override
+    public void onRemove(int idx, Task t) {
+        if (isTimed(t)) {
+            int id = t.getId();
+            thread.execute(() -> wheel.cancel(id));
+        }
+    }
+
+    @Override
+    public void onStatusChange(int idx, Task t) {
+        if (!isTimed(t)) {
+            return;
+        }
+        int id = t.getId();
+        if (t.getIsDone()) {
+            thread.execute(() -> wheel.cancel(id));
+        } else {
+            long due = minuteOf(startOf(t));
+            thread.execute(() -> wheel.schedule(id, due));
+        }
+    }
+
+    /** Stops the scheduler thread; no more reminders are raised. */
+    @Override
+    public void close() {
+        thread.shutdownNow();
+    }
+
+    /**
+     * Advances the wheel to the current time on the scheduler thread and waits until it has, after any
+     * change handed over before.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    void tick() throws InterruptedException {
+        try {
+            thread.submit(this::advance).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the number of timers that are set, once the changes handed over before have been applied.
+     *
+     * @return the number of timers.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    int pending() throws InterruptedException {
+        try {
+            return thread.submit(() -> wheel.size()).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /** Advances the wheel, then sleeps until the start of the next minute. */
+    private void tickAndWait() {
+        try {
+            advance();
+        } finally {
+            LocalDateTime now = clock.get();
+            long delay = Duration.between(now, now.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1)).toMillis();
+            thread.schedule(this::tickAndWait, Math.max(delay, 1), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void advance() {
+        wheel.advanceTo(minuteOf(clock.get()), this::remind);
+    }
+
+    /**
+     * Raises the reminder of the task whose timer expired at the wheel's current minute. A change that
+     * cancels or moves the timer may still be on its way to this thread, so the task is only shown if it
+     * is still there, not done, and due at this very minute. Tasks are mutable, so the reminder is
+     * rendered while the list is still locked and only the text leaves it.
+     */
+    private void remind(int id) {
+        try {
+            String reminder = tasks.read(() -> {
+                int idx = tasks.indexOfId(id);
+                if (idx < 0) {
+                    return null;
+                }
+                Task t = tasks.get(idx);
+                boolean isDue = !t.getIsDone() && isTimed(t) && minuteOf(startOf(t)) == wheel.now();
+                return isDue ? reminderOf.apply(t) : null;
+            });
+            if (reminder != null) {
+                alerts.accept(reminder);
+            }
+        } catch (ChattyException | RuntimeException e) {
+            System.err.println("Could not show a reminder: " + e);
+        }
+    }
+
+    private static boolean isTimed(Task t) {
+        return t instanceof Deadline || t instanceof Event;
+    }
+
+    /** Returns when a deadline is due or an event starts. */
+    private static LocalDateTime startOf(Task t) {
+        return t instanceof Deadline d ? d.getBy() : ((Event) t).getFrom();
+    }
+
+    /** Returns the number of whole minutes since the epoch, on the wall clock. */
+    private static long minuteOf(LocalDateTime t) {
+        return Math.floorDiv(t.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+}
@@ -0,0 +1,214 @@
+package chatty.reminder;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import chatty.task.IdIndex;
+
+/**
+ * A hierarchical timing wheel: timers keyed by an {@code int}, each due at a whole tick, such as an epoch
+ * minute. Not thread-safe; {@link ReminderScheduler} only uses it from its own thread.
+ *
+ * <p>There are {@link #LEVELS} wheels of 64 slots. A timer goes into the lowest wheel that can tell its due
+ * tick apart from the current one: the wheel of ticks for a timer due within the same 64 ticks, the wheel of
+ * 64-tick spans for one due within the same 4096, and so on. Each time the current tick reaches the start of
+ * a slot of a higher wheel, the timers in that slot move down into the wheels below. So every timer moves at
+ * most {@link #LEVELS} times, and a tick only looks at the slots it reaches, however many timers there are.
+ * Scheduling and cancelling take O(1).</p>
+ *
+ * <p>Timers live in parallel primitive arrays and are chained into their slots by index, so a timer costs
+ * no object of its own, and the wheel keeps nothing but the key and due tick: whoever set a timer looks up
+ * what it was for when it expires. An {@link IdIndex} finds the timer of a key.</p>
+ */
+public final class TimingWheel {
+    /** Number of wheels, enough for timers up to 2^36 ticks ahead. */
+    public static final int LEVELS = 6;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int NONE = -1;
+
+    /** The first timer in each slot, wheel by wheel. */
+    private final int[] heads = new int[LEVELS * SLOTS];
+    private final IdIndex timerOfKey = new IdIndex();
+
+    private long[] due = new long[16];
+    private int[] keys = new int[16];
+    /** The slot a timer is in; for free timers, unused. */
+    private int[] slotOf = new int[16];
+    /** Links between the timers of a slot; {@code next} also chains the free timers. */
+    private int[] next = new int[16];
+    private int[] prev = new int[16];
+    private int freeHead = NONE;
+    private int used;
+    private int size;
+    private long now;
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param now the current tick, not negative.
+     */
+    public TimingWheel(long now) {
+        assert now >= 0 : "Ticks are not negative";
+        this.now = now;
+        Arrays.fill(heads, NONE);
+    }
+
+    /**
+     * Returns the current tick.
+     *
+     * @return the last tick the wheel was advanced to.
+     */
+    public long now() {
+        return now;
+    }
+
+    /**
+     * Returns the number of timers waiting to expire.
+     *
+     * @return the number of timers.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sets the timer of a key, replacing any timer it had.
+     *
+     * @param key the key, positive.
+     * @param dueTick the tick at which the timer expires.
+     * @return false if {@code dueTick} is not after the current tick, or too far ahead, in which case the
+     *     key has no timer afterwards.
+     */
+    public boolean schedule(int key, long dueTick) {
+        cancel(key);
+        if (dueTick <= now || levelOf(dueTick) >= LEVELS) {
+            return false;
+        }
+        int timer = allocate();
+        due[timer] = dueTick;
+        keys[timer] = key;
+        timerOfKey.put(key, timer);
+        link(timer);
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the timer of a key.
+     *
+     * @param key the key.
+     * @return true if the key had a timer.
+     */
+    public boolean cancel(int key) {
+        int timer = timerOfKey.remove(key);
+        if (timer < 0) {
+            return false;
+        }
+        unlink(timer);
+        release(timer);
+        return true;
+    }
+
+    /**
+     * Moves the current tick forward one tick at a time, handing over the keys of the timers that expire,
+     * in order of their due ticks. Nothing happens if {@code tick} is not after the current tick.
+     *
+     * @param tick the tick to advance to.
+     * @param expired receives the key of each expired timer, which no longer has a timer by then.
+     */
+    public void advanceTo(long tick, IntConsumer expired) {
+        while (now < tick) {
+            if (size == 0) {
+                now = tick; // nothing can expire on the way
+                return;
+            }
+            now++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((now & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level * SLOTS + (int) ((now >>> (SLOT_BITS * level)) & MASK));
+                }
+            }
+            expire((int) (now & MASK), expired);
+        }
+    }
+
+    /** Moves the timers of a slot of a higher wheel into the wheels below, as seen from the current tick. */
+    private void cascade(int slot) {
+        int timer = heads[slot];
+        heads[slot] = NONE;
+        while (timer != NONE) {
+            int following = next[timer];
+            link(timer);
+            timer = following;
+        }
+    }
+
+    /** Hands over the keys of the timers in a slot of the lowest wheel, which are all due now. */
+    private void expire(int slot, IntConsumer expired) {
+        int timer = heads[slot];
+        heads[slot] = NONE;
+        while (timer != NONE) {
+            assert due[timer] == now : "Timers in the lowest wheel are due within its turn";
+            int following = next[timer];
+            int key = keys[timer];
+            timerOfKey.remove(key);
+            release(timer);
+            expired.accept(key);
+            timer = following;
+        }
+    }
+
+    /** Returns the lowest wheel that tells the due tick apart from the current one. */
+    private int levelOf(long dueTick) {
+        long differing = dueTick ^ now;
+        return differing == 0 ? 0 : (63 - Long.numberOfLeadingZeros(differing)) / SLOT_BITS;
+    }
+
+    private void link(int timer) {
+        int level = levelOf(due[timer]);
+        int slot = level * SLOTS + (int) ((due[timer] >>> (SLOT_BITS * level)) & MASK);
+        slotOf[timer] = slot;
+        prev[timer] = NONE;
+        next[timer] = heads[slot];
+        if (heads[slot] != NONE) {
+            prev[heads[slot]] = timer;
+        }
+        heads[slot] = timer;
+    }
+
+    private void unlink(int timer) {
+        if (prev[timer] != NONE) {
+            next[prev[timer]] = next[timer];
+        } else {
+            heads[slotOf[timer]] = next[timer];
+        }
+        if (next[timer] != NONE) {
+            prev[next[timer]] = prev[timer];
+        }
+    }
+
+    private int allocate() {
+        if (freeHead != NONE) {
+            int timer = freeHead;
+            freeHead = next[timer];
+            return timer;
+        }
+        if (used == due.length) {
+            int capacity = used * 2;
+            due = Arrays.copyOf(due, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            slotOf = Arrays.copyOf(slotOf, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+        }
+        return used++;
+    }
+
+    private void release(int timer) {
+        next[timer] = freeHead;
+        freeHead = timer;
+        size--;
+    }
+}
@@ -0,0 +1,166 @@
+package chatty.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+import chatty.app.ChattyCore;
+import chatty.app.ChattyEngine;
+import chatty.storage.Storage;
+
+/**
+ * Serves one shared task list to many clients over TCP, so that a team can work on the same tasks.
+ *
+ * <p>The protocol is line-based UTF-8 text. On connecting, a client receives the greeting; after that
+ * it sends one command per line, exactly as typed into the CLI, and receives the reply. Every reply,
+ * including the greeting, ends with a line holding a single {@code .}; reply lines that start with a dot
+ * are sent with an extra dot in front, which the client removes. {@code bye} ends the session.</p>
+ *
+ * <p>Each connection is a {@link Session} on a thread of its own, virtual where the JVM supports it.
+ * At most {@code maxConnections} sessions run at once: while all are taken, no further connections are
+ * accepted, so new clients wait in the listen backlog (and are refused once it is full) instead of
+ * using up memory.</p>
+ */
+public final class ChattyServer implements Closeable {
+    public static final int DEFAULT_PORT = 4242;
+    public static final int DEFAULT_MAX_CONNECTIONS = 10_000;
+    /** Longest command line accepted; longer lines close the connection. */
+    static final int MAX_LINE_LENGTH = 8192;
+    /** Sessions that send nothing for this long are closed. */
+    static final int IDLE_TIMEOUT_MILLIS = 15 * 60 * 1000;
+    private static final int BACKLOG = 1024;
+
+    private final ChattyEngine engine;
+    private final ServerSocket socket;
+    private final Semaphore slots;
+    private final ExecutorService sessions;
+    private final Set<Socket> open = ConcurrentHashMap.newKeySet();
+    private long nextId;
+
+    /**
+     * Opens the server socket. Connections are only accepted once {@link #serve()} runs.
+     *
+     * @param engine the engine shared by all sessions; it should be backed by a shared ChattyCore.
+     * @param port the port to listen on, or 0 for any free port.
+     * @param maxConnections the number of sessions that may run at once.
+     * @throws IOException if the port cannot be opened.
+     * @see ChattyCore#ChattyCore(Storage, boolean)
+     */
+    public ChattyServer(ChattyEngine engine, int port, int maxConnections) throws IOException {
+        assert maxConnections > 0 : "Server must allow at least one connection";
+        this.engine = engine;
+        this.socket = new ServerSocket();
+        this.socket.setReuseAddress(true);
+        this.socket.bind(new InetSocketAddress(port), BACKLOG);
+        this.slots = new Semaphore(maxConnections);
+        this.sessions = VirtualThreads.newPerTaskExecutor("chatty-session");
+    }
+
+    /** Returns the port the server listens on. */
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    /** Returns the number of sessions currently connected. */
+    public int activeSessions() {
+        return open.size();
+    }
+
+    /**
+     * Accepts connections and starts a session for each, until the server is closed.
+     *
+     * @throws IOException if accepting fails for another reason than the server being closed.
+     */
+    public void serve() throws IOException {
+        while (!socket.isClosed()) {
+            try {
+                slots.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Socket client;
+            try {
+                client = socket.accept();
+            } catch (IOException e) {
+                slots.release();
+                if (socket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            client.setTcpNoDelay(true);
+            open.add(client);
+            sessions.execute(new Session(++nextId, client, engine, () -> {
+                open.remove(client);
+                slots.release();
+            }));
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes every open session.
+     *
+     * @throws IOException if the server socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        for (Socket s : open) {
+            try {
+                s.close();
+            } catch (IOException ignored) {
+                // the session ends either way
+            }
+        }
+        sessions.shutdown();
+    }
+
+    /**
+     * Runs the server on the task list configured by system properties, until the process is stopped.
+     * Options: {@code --port <n>} (default {@value #DEFAULT_PORT}) and {@code --max-connections <n>}
+     * (default {@value #DEFAULT_MAX_CONNECTIONS}).
+     */
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        int maxConnections = DEFAULT_MAX_CONNECTIONS;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException();
+                }
+                switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--max-connections":
+                    maxConnections = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException();
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Usage: ChattyServer [--port <n>] [--max-connections <n>]");
+            System.exit(2);
+        }
+
+        ChattyCore core = new ChattyCore(Storage.fromSystemProperties(), true);
+        core.getMetrics().register();
+        ChattyEngine engine = new ChattyEngine(core);
+        try (ChattyServer server = new ChattyServer(engine, port, maxConnections)) {
+            System.out.println("ChattyBot server listening on port " + server.getPort()
+                    + (VirtualThreads.isAvailable() ? " (virtual threads)" : " (platform threads)") + ".");
+            server.serve();
+        } catch (IOException e) {
+            System.err.println("Server stopped: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
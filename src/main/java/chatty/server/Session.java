@@ -0,0 +1,119 @@
+package chatty.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import chatty.app.ChattyEngine;
+
+/**
+ * One client connection to a {@link ChattyServer}, from the greeting to {@code bye} or disconnect.
+ *
+ * <p>Commands are handled one at a time: the next line is only read once the reply to the previous one
+ * has been written. A client that sends faster than it reads therefore fills its own socket buffers and
+ * is slowed down, without holding up other sessions.</p>
+ */
+final class Session implements Runnable {
+    private final long id;
+    private final Socket socket;
+    private final ChattyEngine engine;
+    private final Runnable onClose;
+
+    /**
+     * Creates a session for an accepted connection.
+     *
+     * @param id the number of this session, for log messages.
+     * @param socket the connection; closed when the session ends.
+     * @param engine the engine shared by all sessions.
+     * @param onClose run once the session has ended, however it ended.
+     */
+    Session(long id, Socket socket, ChattyEngine engine, Runnable onClose) {
+        this.id = id;
+        this.socket = socket;
+        this.engine = engine;
+        this.onClose = onClose;
+    }
+
+    @Override
+    public void run() {
+        try (socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setSoTimeout(ChattyServer.IDLE_TIMEOUT_MILLIS);
+            writeReply(out, List.of(engine.getGreeting()));
+
+            String input;
+            while ((input = readLine(in)) != null) {
+                // Collected before writing, so a slow client never holds the task list while we wait for it.
+                ArrayList<String> reply = new ArrayList<>();
+                engine.handleInput(input, reply::add);
+                writeReply(out, reply);
+                if ("bye".equalsIgnoreCase(input.trim())) {
+                    return;
+                }
+            }
+        } catch (LineTooLongException e) {
+            System.err.println("Session " + id + ": closed after a line longer than "
+                    + ChattyServer.MAX_LINE_LENGTH + " characters.");
+        } catch (IOException e) {
+            // the client went away or stayed idle for too long; nothing to tell it
+        } finally {
+            onClose.run();
+        }
+    }
+
+    /**
+     * Reads one line of at most {@link ChattyServer#MAX_LINE_LENGTH} characters, without its line break.
+     *
+     * @return the line, or {@code null} at the end of the stream.
+     */
+    private static String readLine(BufferedReader in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\n') {
+                return stripCr(sb);
+            }
+            if (sb.length() == ChattyServer.MAX_LINE_LENGTH) {
+                throw new LineTooLongException();
+            }
+            sb.append((char) c);
+        }
+        return sb.length() > 0 ? stripCr(sb) : null;
+    }
+
+    private static String stripCr(StringBuilder sb) {
+        int len = sb.length();
+        return len > 0 && sb.charAt(len - 1) == '\r' ? sb.substring(0, len - 1) : sb.toString();
+    }
+
+    /** Writes the reply line by line, doubling a leading dot, and ends it with a line holding a single dot. */
+    private static void writeReply(BufferedWriter out, Iterable<String> chunks) throws IOException {
+        for (String chunk : chunks) {
+            for (String line : chunk.split("\n", -1)) {
+                if (line.startsWith(".")) {
+                    out.write('.');
+                }
+                out.write(line);
+                out.write('\n');
+            }
+        }
+        out.write(".\n");
+        out.flush();
+    }
+
+    /** Thrown when a client sends a line longer than the server accepts. */
+    private static final class LineTooLongException extends IOException {
+        LineTooLongException() {
+            super("Line too long");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package chatty.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates executors that run every task on a thread of its own, such as one per connection.
+ *
+ * <p>On Java 21 and later these are virtual threads, so thousands of mostly idle connections cost little.
+ * The application targets Java 17, where virtual threads do not exist, so they are looked up reflectively;
+ * without them, tasks run on daemon platform threads with a small stack.</p>
+ */
+public final class VirtualThreads {
+    /** Stack size of the fallback platform threads; sessions only need a shallow stack. */
+    private static final long FALLBACK_STACK_SIZE = 256 * 1024;
+
+    private VirtualThreads() {}
+
+    /**
+     * Returns whether the running JVM supports virtual threads.
+     *
+     * @return true if {@link #newPerTaskExecutor(String)} uses virtual threads.
+     */
+    public static boolean isAvailable() {
+        return factoryMethod() != null;
+    }
+
+    /**
+     * Creates an executor that starts a new thread for every task.
+     *
+     * @param name the prefix for the names of the fallback platform threads.
+     * @return a virtual-thread-per-task executor if available, otherwise a cached pool of daemon threads.
+     */
+    public static ExecutorService newPerTaskExecutor(String name) {
+        Method m = factoryMethod();
+        if (m != null) {
+            try {
+                return (ExecutorService) m.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // fall through to platform threads
+            }
+        }
+        AtomicLong count = new AtomicLong();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(null, r, name + "-" + count.incrementAndGet(), FALLBACK_STACK_SIZE);
+            t.setDaemon(true);
+            return t;
+        };
+        return Executors.newCachedThreadPool(factory);
+    }
+
+    private static Method factoryMethod() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
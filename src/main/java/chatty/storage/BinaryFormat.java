@@ -0,0 +1,177 @@
+package chatty.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import chatty.task.Deadline;
+import chatty.task.Event;
+import chatty.task.Task;
+import chatty.task.TemporalCodec;
+import chatty.task.Todo;
+
+/**
+ * Compact binary encoding of a task list, selected by giving the data file a {@code .bin} extension.
+ *
+ * <p>Layout (all numbers big-endian):</p>
+ * <pre>
+ * header:  int magic "CHTB" | short version | short reserved | int count | int reserved
+ * record:  byte kind ('T', 'D' or 'E') | byte done (0 or 1) | int id | int length
+ *          | length bytes UTF-8 description
+ *          | long by            (deadlines only, epoch minutes)
+ *          | long from | long to (events only, epoch minutes)
+ * </pre>
+ *
+ * <p>Version 1 files, written before tasks had IDs, lack the {@code id} field and are still read;
+ * their tasks are given IDs on load.</p>
+ *
+ * <p>Files are read through a memory-mapped {@link FileChannel}, so loading does no line splitting,
+ * trimming or date parsing.</p>
+ */
+final class BinaryFormat {
+    static final int MAGIC = 0x43485442; // "CHTB"
+    static final short VERSION = 2;
+    /** The last version without task IDs. */
+    static final short VERSION_WITHOUT_IDS = 1;
+    static final int HEADER_BYTES = 16;
+    /** The size of the smallest record, a todo with an empty description and no ID. */
+    private static final int MIN_RECORD_BYTES = 6;
+
+    private BinaryFormat() {}
+
+    /**
+     * Reads every task from a binary file. An empty file holds no tasks. A truncated file, or one whose
+     * task count or description length does not fit in the bytes left, or whose times are out of range,
+     * yields the tasks before the damaged record, in the same way corrupted text lines are skipped.
+     *
+     * @param file the file to read.
+     * @return the tasks in the file.
+     * @throws IOException if the file cannot be read or is not in this format.
+     */
+    static ArrayList<Task> read(File file) throws IOException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size == 0) {
+                return tasks;
+            }
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            short version = size < HEADER_BYTES || buf.getInt() != MAGIC ? 0 : buf.getShort();
+            if (version != VERSION && version != VERSION_WITHOUT_IDS) {
+                throw new IOException("Not a ChattyBot binary data file: " + file);
+            }
+            boolean hasIds = version != VERSION_WITHOUT_IDS;
+            buf.getShort();
+            int count = buf.getInt();
+            buf.getInt();
+
+            tasks.ensureCapacity(Math.min(count, buf.remaining() / MIN_RECORD_BYTES));
+            byte[] scratch = new byte[64];
+            try {
+                for (int i = 0; i < count; i++) {
+                    byte kind = buf.get();
+                    boolean isDone = buf.get() == 1;
+                    int id = hasIds ? buf.getInt() : 0;
+                    int len = buf.getInt();
+                    if (len < 0 || len > buf.remaining()) {
+                        return tasks; // damaged length: the description cannot be where it says
+                    }
+                    if (len > scratch.length) {
+                        scratch = new byte[Math.max(len, scratch.length * 2)];
+                    }
+                    buf.get(scratch, 0, len);
+                    String desc = new String(scratch, 0, len, StandardCharsets.UTF_8);
+
+                    Task t;
+                    switch (kind) {
+                    case 'T':
+                        t = new Todo(desc);
+                        break;
+                    case 'D':
+                        t = new Deadline(desc, TemporalCodec.fromMinutes(buf.getLong()));
+                        break;
+                    case 'E':
+                        LocalDateTime from = TemporalCodec.fromMinutes(buf.getLong());
+                        t = new Event(desc, from, TemporalCodec.fromMinutes(buf.getLong()));
+                        break;
+                    default:
+                        return tasks; // record boundaries are lost from here on
+                    }
+                    if (isDone) {
+                        t.mark();
+                    }
+                    if (id > 0) {
+                        t.setId(id);
+                    }
+                    tasks.add(t);
+                }
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | DateTimeException e) {
+                return tasks; // truncated file or a time out of range: keep what was complete
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Encodes the tasks as the complete contents of a binary file.
+     *
+     * @param tasks the tasks to encode.
+     * @return the encoded file contents.
+     */
+    static byte[] encode(List<Task> tasks) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_BYTES + tasks.size() * 32);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(bytes))) {
+            write(out, tasks);
+        } catch (IOException e) {
+            throw new AssertionError("In-memory stream cannot fail", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes the tasks in binary form.
+     *
+     * @param out the stream to write to.
+     * @param tasks the tasks to write.
+     * @throws IOException if writing fails.
+     */
+    static void write(DataOutputStream out, List<Task> tasks) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(0);
+        out.writeInt(tasks.size());
+        out.writeInt(0);
+        for (Task t : tasks) {
+            byte[] desc = t.getDescription().getBytes(StandardCharsets.UTF_8);
+            if (t instanceof Deadline d) {
+                writeHead(out, 'D', t, desc);
+                out.writeLong(TemporalCodec.toMinutes(d.getBy()));
+            } else if (t instanceof Event e) {
+                writeHead(out, 'E', t, desc);
+                out.writeLong(TemporalCodec.toMinutes(e.getFrom()));
+                out.writeLong(TemporalCodec.toMinutes(e.getTo()));
+            } else {
+                writeHead(out, 'T', t, desc);
+            }
+        }
+    }
+
+    private static void writeHead(DataOutputStream out, char kind, Task t, byte[] desc) throws IOException {
+        out.writeByte(kind);
+        out.writeByte(t.getIsDone() ? 1 : 0);
+        out.writeInt(t.getId());
+        out.writeInt(desc.length);
+        out.write(desc);
+    }
+}
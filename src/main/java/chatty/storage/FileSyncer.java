@@ -0,0 +1,175 @@
+package chatty.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes files so that they survive crashes, following a {@link FsyncPolicy}.
+ *
+ * <p>Files are never truncated and rewritten in place: {@link #replace(File, Contents)} writes the new
+ * contents to {@code <file>.tmp}, forces it to disk unless the policy is {@link FsyncPolicy#NEVER}, and
+ * atomically moves it over the old file. Whether the rename itself and later in-place writes are forced
+ * right away, in the background about once a second, or not at all depends on the policy.</p>
+ */
+final class FileSyncer {
+    static final long BATCH_INTERVAL_MILLIS = 1000;
+
+    private final FsyncPolicy policy;
+    /** Files and directories waiting for the next batched sync; guarded by itself. */
+    private final LinkedHashSet<Path> pending = new LinkedHashSet<>();
+    private ScheduledExecutorService batcher;
+
+    /**
+     * Creates a syncer following the given policy.
+     *
+     * @param policy when to force data to disk.
+     */
+    FileSyncer(FsyncPolicy policy) {
+        this.policy = policy;
+    }
+
+    /** Returns the policy this syncer follows. */
+    FsyncPolicy policy() {
+        return policy;
+    }
+
+    /** Returns the temporary file that {@link #replace(File, Contents)} writes before moving it into place. */
+    static File tmpFor(File target) {
+        return new File(target.getPath() + ".tmp");
+    }
+
+    /**
+     * Replaces the contents of a file atomically: readers, and the file after a crash, see either the old
+     * or the new contents in full.
+     *
+     * @param target the file to replace.
+     * @param contents writes the new contents; the stream is buffered and closed afterwards.
+     * @return the number of bytes written.
+     * @throws IOException if the file could not be written; the old contents are then left in place.
+     */
+    long replace(File target, Contents contents) throws IOException {
+        File tmp = tmpFor(target);
+        long length;
+        try (FileOutputStream fos = new FileOutputStream(tmp, false)) {
+            BufferedOutputStream out = new BufferedOutputStream(fos, 1 << 16);
+            contents.writeTo(out);
+            out.flush();
+            forceBeforeMove(fos.getChannel());
+            length = fos.getChannel().position();
+        }
+        Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        moved(target);
+        return length;
+    }
+
+    /**
+     * Forces a newly written file to disk before it is moved over an old one, unless the policy is
+     * {@link FsyncPolicy#NEVER}.
+     *
+     * @param channel the channel the new file was written through.
+     * @throws IOException if forcing failed.
+     */
+    void forceBeforeMove(FileChannel channel) throws IOException {
+        if (policy != FsyncPolicy.NEVER) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Makes the rename of a file durable, by forcing its directory now or in the next batch.
+     *
+     * @param target the file that was just moved into place.
+     */
+    void moved(File target) {
+        Path dir = target.getAbsoluteFile().toPath().getParent();
+        if (dir == null) {
+            return;
+        }
+        if (policy == FsyncPolicy.ALWAYS) {
+            forceQuietly(dir); // not every platform can force a directory
+        } else if (policy == FsyncPolicy.BATCHED) {
+            schedule(dir);
+        }
+    }
+
+    /**
+     * Makes writes made in place through a channel durable, now or in the next batch.
+     *
+     * @param file the file that was written.
+     * @param channel the channel it was written through, still open.
+     * @throws IOException if the policy is {@link FsyncPolicy#ALWAYS} and forcing failed.
+     */
+    void written(File file, FileChannel channel) throws IOException {
+        if (policy == FsyncPolicy.ALWAYS) {
+            channel.force(false);
+        } else if (policy == FsyncPolicy.BATCHED) {
+            schedule(file.toPath());
+        }
+    }
+
+    /**
+     * Makes writes made in place through a stream durable, now or in the next batch.
+     *
+     * @param file the file that was written.
+     * @param stream the stream it was written through, still open and already flushed.
+     * @throws IOException if the policy is {@link FsyncPolicy#ALWAYS} and forcing failed.
+     */
+    void written(File file, FileOutputStream stream) throws IOException {
+        written(file, stream.getChannel());
+    }
+
+    /** Forces everything waiting for the next batch to disk now. */
+    void syncPending() {
+        Path[] paths;
+        synchronized (pending) {
+            paths = pending.toArray(new Path[0]);
+            pending.clear();
+        }
+        for (Path p : paths) {
+            forceQuietly(p);
+        }
+    }
+
+    private void schedule(Path path) {
+        synchronized (pending) {
+            pending.add(path);
+            if (batcher == null) {
+                batcher = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread t = new Thread(r, "chatty-fsync");
+                    t.setDaemon(true);
+                    return t;
+                });
+                batcher.scheduleWithFixedDelay(this::syncPending, BATCH_INTERVAL_MILLIS, BATCH_INTERVAL_MILLIS,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /** Forces a file or directory to disk, ignoring failures: it may have been replaced or removed since. */
+    private static void forceQuietly(Path path) {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException e) {
+            // best effort
+        }
+    }
+
+    /** Writes the complete contents of a file. */
+    @FunctionalInterface
+    interface Contents {
+        /** Writes the contents to {@code out}. */
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
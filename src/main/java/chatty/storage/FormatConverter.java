@@ -0,0 +1,79 @@
+package chatty.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+
+import chatty.exceptions.ChattyFileException;
+import chatty.task.Task;
+
+/**
+ * Converts a data file between the text and the binary format.
+ * The format of each file is chosen by its extension, so
+ * {@code FormatConverter data/chatty.txt data/chatty.bin} converts text to binary and
+ * {@code FormatConverter data/chatty.bin data/chatty.txt} converts back.
+ */
+public final class FormatConverter {
+    private FormatConverter() {}
+
+    /**
+     * Copies every task from one data file to another.
+     *
+     * @param in the file to read.
+     * @param out the file to write; replaced if it exists.
+     * @return the number of tasks converted.
+     * @throws ChattyFileException if the input cannot be read or the output cannot be written.
+     */
+    public static int convert(File in, File out) throws ChattyFileException {
+        if (!in.isFile()) {
+            throw new ChattyFileException("No such data file: " + in);
+        }
+        ArrayList<Task> tasks;
+        try {
+            tasks = new Storage(in).read();
+        } catch (IOException e) {
+            throw new ChattyFileException("Could not read " + in + ": " + e.getMessage());
+        }
+        new Storage(out).save(tasks);
+        copyHighestId(in, out);
+        return tasks.size();
+    }
+
+    /** Gives the output file the input's record of removed task IDs, so they are not given out again. */
+    private static void copyHighestId(File in, File out) throws ChattyFileException {
+        Path from = Storage.lastIdFileFor(in).toPath();
+        Path to = Storage.lastIdFileFor(out).toPath();
+        try {
+            if (Files.exists(from)) {
+                Files.copy(from, to, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.deleteIfExists(to);
+            }
+        } catch (IOException e) {
+            throw new ChattyFileException("Could not write " + to + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the converter from the command line.
+     *
+     * @param args the input file and the output file.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: FormatConverter <input file> <output file>");
+            System.err.println("Files ending in .bin use the binary format, all others the text format.");
+            System.exit(2);
+        }
+        try {
+            int count = convert(new File(args[0]), new File(args[1]));
+            System.out.println("Converted " + count + " tasks from " + args[0] + " to " + args[1] + ".");
+        } catch (ChattyFileException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
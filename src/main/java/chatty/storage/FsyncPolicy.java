@@ -0,0 +1,25 @@
+package chatty.storage;
+
+/**
+ * How hard {@link Storage} works to get saved tasks onto the disk itself, rather than into the operating
+ * system's cache, before moving on. Every policy replaces whole files atomically, so a crash of ChattyBot
+ * never leaves a half-written data file; the policies differ in what survives a crash of the machine.
+ */
+public enum FsyncPolicy {
+    /**
+     * Every change is forced to disk before {@link Storage#persist(chatty.task.TaskList)} returns.
+     * The safest and slowest choice.
+     */
+    ALWAYS,
+    /**
+     * New files are forced to disk before they replace the old ones, so the data file is never found
+     * empty or torn. Renames, in-place changes and journal records are forced by a background thread about
+     * once a second and on {@link Storage#flush()}, so a power cut may lose the last second of changes.
+     */
+    BATCHED,
+    /**
+     * Nothing is forced; the operating system writes the data when it sees fit. A power cut may lose
+     * recent changes or, on some file systems, leave the data file empty.
+     */
+    NEVER
+}
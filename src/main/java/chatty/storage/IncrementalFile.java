@@ -0,0 +1,347 @@
+package chatty.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+import chatty.task.IdIndex;
+import chatty.task.Task;
+import chatty.task.TaskList;
+
+/**
+ * Keeps the text data file up to date by writing only the records that changed.
+ *
+ * <p>The position of every task's line in the file is remembered: where its kind letter is, and where its
+ * status digit is. Marking or unmarking a task overwrites that one digit with a positioned write through a
+ * {@link FileChannel}; new tasks are appended at the end of the file. A deleted task's kind letter is
+ * overwritten with {@code #}, which {@link Storage#parseLine(String)} skips like any corrupted line, so
+ * deleting does not move the lines behind it either.</p>
+ *
+ * <p>Records are kept in slots in the order they were added, found by the {@link Task#getId() ID} of their
+ * task, so removing a task costs the same wherever it is in the list. Slots of removed tasks are only
+ * dropped once they outnumber the live ones.</p>
+ *
+ * <p>The file is only rewritten in full when deleted lines outnumber the live ones (and there are at least
+ * {@link #COMPACT_THRESHOLD}), when a status has to change on a line whose status field is not a single
+ * digit, or after a write failed. The rewrite goes through {@link FileSyncer#replace(File, FileSyncer.Contents)},
+ * and in-place writes are forced to disk as its {@link FsyncPolicy} says.</p>
+ */
+final class IncrementalFile implements TaskList.Listener {
+    static final int COMPACT_THRESHOLD = 1000;
+
+    private static final byte CLEAN = 0;
+    private static final byte NEW = 1;
+    private static final byte DONE = 2;
+    private static final byte NOT_DONE = 3;
+    private static final byte GONE = 4;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    private static final byte DELETED = '#';
+    /** Offset of the status digit in a line written by {@link Task#toDataString()}, e.g. {@code T/-/0/-/...}. */
+    private static final int STATUS_OFFSET = 4;
+
+    private final File file;
+    private final LongConsumer onWritten;
+    private final FileSyncer syncer;
+
+    /* ----------------- record layout, one slot per task in the order they were added ----------------- */
+    private long[] kindAt = new long[16];
+    /** Position of the status digit, or -1 if the status field cannot be patched in place. */
+    private long[] statusAt = new long[16];
+    /** What has to be written for the task: nothing, the whole record, or its new status; or that it is gone. */
+    private byte[] state = new byte[16];
+    /** The tasks of {@link #NEW} records, which are not in the file yet; {@code null} for all others. */
+    private Task[] added = new Task[16];
+    /** The number of slots handed out, and the number of them that are not {@link #GONE}. */
+    private int used;
+    private int live;
+    /** Slots by task ID. */
+    private final IdIndex slotOf = new IdIndex();
+
+    /** The number of slots that are neither {@link #CLEAN} nor {@link #GONE}, and the first that may be one. */
+    private int pending;
+    private int firstPending;
+    /** Positions of the kind letters of deleted records that are still live in the file. */
+    private long[] deletions = new long[16];
+    private int deletionCount;
+    /** The number of lines in the file that hold no task. */
+    private int deadLines;
+    private boolean endsWithLineBreak = true;
+    private boolean isRewriteNeeded;
+
+    /**
+     * Creates the writer for the given text data file. {@link #load()} must be called before the
+     * first change.
+     *
+     * @param file the text data file.
+     * @param onWritten receives the number of bytes of every write.
+     * @param syncer rewrites the file and forces writes to disk.
+     */
+    IncrementalFile(File file, LongConsumer onWritten, FileSyncer syncer) {
+        this.file = file;
+        this.onWritten = onWritten;
+        this.syncer = syncer;
+    }
+
+    /**
+     * Reads every task from the file and remembers where each one's line is. Lines are split and parsed
+     * exactly as {@link java.io.BufferedReader#readLine()} and {@link Storage#parseLine(String)} would,
+     * on several cores if the file is large. Tasks without a unique ID cannot be found until the file is
+     * rewritten, which loading them triggers anyway.
+     *
+     * @return the tasks in the file.
+     * @throws IOException if the file cannot be read.
+     * @see ParallelTextReader
+     */
+    ArrayList<Task> load() throws IOException {
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        ParallelTextReader.Records records = ParallelTextReader.parse(bytes, true);
+        used = records.tasks.size();
+        live = used;
+        int capacity = Math.max(16, used);
+        kindAt = Arrays.copyOf(records.kindAt, capacity);
+        statusAt = Arrays.copyOf(records.statusAt, capacity);
+        state = new byte[capacity];
+        added = new Task[capacity];
+        slotOf.clear();
+        for (int slot = 0; slot < used; slot++) {
+            Task t = records.tasks.get(slot);
+            t.clearDirty();
+            if (t.getId() > 0) {
+                slotOf.put(t.getId(), slot);
+            }
+        }
+        pending = 0;
+        firstPending = Integer.MAX_VALUE;
+        deletionCount = 0;
+        deadLines = records.deadLines;
+        isRewriteNeeded = false;
+        endsWithLineBreak = bytes.length == 0 || bytes[bytes.length - 1] == '\n' || bytes[bytes.length - 1] == '\r';
+        return records.tasks;
+    }
+
+    /** Starts from an empty list whose first flush rewrites the file, e.g. after the file could not be read. */
+    void forget() {
+        used = 0;
+        live = 0;
+        slotOf.clear();
+        Arrays.fill(added, null);
+        pending = 0;
+        firstPending = Integer.MAX_VALUE;
+        deletionCount = 0;
+        isRewriteNeeded = true;
+    }
+
+    /* ----------------- changes ----------------- */
+
+    @Override
+    public void onAdd(int idx, Task t) {
+        assert idx == live : "Tasks are only ever appended";
+        int slot = append(-1, -1, NEW);
+        added[slot] = t;
+        slotOf.put(t.getId(), slot);
+        pending++;
+        firstPending = Math.min(firstPending, slot);
+    }
+
+    @Override
+    public void onRemove(int idx, Task t) {
+        int slot = slotOf.remove(t.getId());
+        if (slot < 0) {
+            isRewriteNeeded = true;
+            return;
+        }
+        if (state[slot] != CLEAN) {
+            pending--;
+        }
+        if (state[slot] != NEW) {
+            if (deletionCount == deletions.length) {
+                deletions = Arrays.copyOf(deletions, deletionCount * 2);
+            }
+            deletions[deletionCount++] = kindAt[slot];
+        }
+        state[slot] = GONE;
+        added[slot] = null;
+        live--;
+    }
+
+    @Override
+    public void onStatusChange(int idx, Task t) {
+        int slot = slotOf.get(t.getId());
+        if (slot >= 0 && state[slot] == NEW) {
+            return; // written with its current status anyway
+        }
+        if (slot < 0 || statusAt[slot] < 0) {
+            isRewriteNeeded = true;
+            return;
+        }
+        if (state[slot] == CLEAN) {
+            pending++;
+            firstPending = Math.min(firstPending, slot);
+        }
+        state[slot] = t.getIsDone() ? DONE : NOT_DONE;
+    }
+
+    private int append(long kind, long status, byte s) {
+        if (used == kindAt.length) {
+            int capacity = used * 2;
+            kindAt = Arrays.copyOf(kindAt, capacity);
+            statusAt = Arrays.copyOf(statusAt, capacity);
+            state = Arrays.copyOf(state, capacity);
+            added = Arrays.copyOf(added, capacity);
+        }
+        kindAt[used] = kind;
+        statusAt[used] = status;
+        state[used] = s;
+        live++;
+        return used++;
+    }
+
+    /**
+     * Drops the slots of removed tasks once they outnumber the live ones. Only called right after a
+     * flush, when every live slot is {@link #CLEAN}.
+     */
+    private void dropGoneSlots(TaskList tasks) {
+        if (used - live <= Math.max(16, live)) {
+            return;
+        }
+        int write = 0;
+        for (int read = 0; read < used; read++) {
+            if (state[read] != GONE) {
+                kindAt[write] = kindAt[read];
+                statusAt[write] = statusAt[read];
+                state[write] = CLEAN;
+                write++;
+            }
+        }
+        used = write;
+        // The live slots are in list order, so the task at each position owns the slot with that number.
+        slotOf.clear();
+        for (int slot = 0; slot < used; slot++) {
+            slotOf.put(tasks.get(slot).getId(), slot);
+        }
+    }
+
+    /* ----------------- writing ----------------- */
+
+    /**
+     * Writes the changes since the last flush: deleted records are blanked out, changed statuses patched
+     * and new records appended. Rewrites the whole file instead if that is needed or the file has become
+     * mostly deleted lines.
+     *
+     * @param tasks the current tasks; only read if the file is rewritten or removed slots are dropped.
+     * @throws IOException if the file could not be written. The next flush then rewrites it in full.
+     */
+    void flush(TaskList tasks) throws IOException {
+        assert tasks.size() == live : "Every change must have been reported to this writer";
+        if (isRewriteNeeded || deadLines + deletionCount > Math.max(COMPACT_THRESHOLD, live)) {
+            rewrite(tasks.asList());
+            return;
+        }
+        isRewriteNeeded = true; // until this flush succeeds
+        long written = 0;
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            for (int i = 0; i < deletionCount; i++) {
+                written += patch(ch, deletions[i], DELETED);
+            }
+            deadLines += deletionCount;
+            deletionCount = 0;
+
+            ByteArrayOutputStream appended = null;
+            long end = ch.size();
+            for (int i = firstPending; pending > 0 && i < used; i++) {
+                switch (state[i]) {
+                case DONE:
+                    written += patch(ch, statusAt[i], (byte) '1');
+                    break;
+                case NOT_DONE:
+                    written += patch(ch, statusAt[i], (byte) '0');
+                    break;
+                case NEW:
+                    if (appended == null) {
+                        appended = new ByteArrayOutputStream();
+                        if (!endsWithLineBreak) {
+                            appended.writeBytes(LINE_SEPARATOR);
+                        }
+                    }
+                    kindAt[i] = end + appended.size();
+                    statusAt[i] = kindAt[i] + STATUS_OFFSET;
+                    appended.writeBytes(added[i].toDataString().getBytes(StandardCharsets.UTF_8));
+                    appended.writeBytes(LINE_SEPARATOR);
+                    added[i] = null;
+                    break;
+                default:
+                    continue;
+                }
+                state[i] = CLEAN;
+                pending--;
+            }
+            if (appended != null) {
+                ByteBuffer buf = ByteBuffer.wrap(appended.toByteArray());
+                while (buf.hasRemaining()) {
+                    ch.write(buf, end + buf.position());
+                }
+                written += appended.size();
+                endsWithLineBreak = true;
+            }
+            syncer.written(file, ch);
+        } finally {
+            onWritten.accept(written);
+        }
+        assert pending == 0 : "Every pending record should have been written";
+        firstPending = Integer.MAX_VALUE;
+        isRewriteNeeded = false;
+        dropGoneSlots(tasks);
+    }
+
+    private static int patch(FileChannel ch, long position, byte b) throws IOException {
+        ch.write(ByteBuffer.wrap(new byte[] {b}), position);
+        return 1;
+    }
+
+    /**
+     * Writes every task to the file afresh, dropping deleted and corrupted lines, and remembers the
+     * new layout.
+     *
+     * @param tasks the tasks to write.
+     * @throws IOException if the file could not be written.
+     */
+    void rewrite(List<Task> tasks) throws IOException {
+        isRewriteNeeded = true; // until this rewrite succeeds
+        ByteArrayOutputStream contents = new ByteArrayOutputStream(Math.max(32, tasks.size() * 48));
+        used = 0;
+        live = 0;
+        Arrays.fill(added, null);
+        slotOf.clear();
+        for (Task t : tasks) {
+            long kind = contents.size();
+            int slot = append(kind, kind + STATUS_OFFSET, CLEAN);
+            if (t.getId() > 0) {
+                slotOf.put(t.getId(), slot);
+            }
+            contents.writeBytes(t.toDataString().getBytes(StandardCharsets.UTF_8));
+            contents.writeBytes(LINE_SEPARATOR);
+        }
+        onWritten.accept(syncer.replace(file, contents::writeTo));
+
+        pending = 0;
+        firstPending = Integer.MAX_VALUE;
+        deletionCount = 0;
+        deadLines = 0;
+        endsWithLineBreak = true;
+        isRewriteNeeded = false;
+    }
+
+    /** Returns the number of lines in the file that no longer hold a task. */
+    int deadLines() {
+        return deadLines;
+    }
+}
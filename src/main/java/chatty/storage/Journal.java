@@ -0,0 +1,385 @@
+package chatty.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+import chatty.exceptions.ChattyFileException;
+import chatty.task.Task;
+import chatty.task.TaskList;
+
+/**
+ * Append-only log of task list changes kept next to the snapshot file.
+ *
+ * <p>Every add, mark, unmark and delete is appended as one line:</p>
+ * <pre>
+ * A/-/T/-/0/-/desc      (add, followed by the task's data string)
+ * M/-/3                 (mark task at 0-based index 3)
+ * U/-/3                 (unmark task at 0-based index 3)
+ * X/-/3                 (delete task at 0-based index 3)
+ * </pre>
+ *
+ * <p>Once the log holds more records than the snapshot has tasks (and at least
+ * {@link #COMPACT_THRESHOLD}), it is rotated to {@code <file>.journal.old} and a fresh snapshot is
+ * written in the background to {@code <file>.next}. Deleting the old log is the commit point of a
+ * compaction; {@link #recover()} finishes or discards a compaction that was interrupted.</p>
+ *
+ * <p>Records are forced to disk when the log is flushed, as the {@link FsyncPolicy} of its {@link FileSyncer}
+ * says. Snapshots are always forced before the old log is deleted.</p>
+ */
+final class Journal implements TaskList.Listener {
+    static final int COMPACT_THRESHOLD = 1000;
+
+    private static final String SEP = "/-/";
+
+    private final File snapshot;
+    private final File log;
+    private final File oldLog;
+    private final File next;
+    private final Function<List<Task>, byte[]> encoder;
+    private final LongConsumer onWritten;
+    private final FileSyncer syncer;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "chatty-journal-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private BufferedWriter out;
+    /** The stream under {@link #out}, through which records are forced to disk. */
+    private FileOutputStream outStream;
+    private IOException pendingError;
+    private Future<?> compaction;
+    private int records;
+
+    /**
+     * Constructs a Journal for the given snapshot file.
+     *
+     * @param snapshot the snapshot file the journal belongs to.
+     * @param encoder encodes tasks as the complete contents of a snapshot file.
+     * @param onWritten receives the number of bytes of every record and snapshot written.
+     * @param syncer forces flushed records to disk.
+     */
+    Journal(File snapshot, Function<List<Task>, byte[]> encoder, LongConsumer onWritten, FileSyncer syncer) {
+        this.snapshot = snapshot;
+        this.encoder = encoder;
+        this.onWritten = onWritten;
+        this.syncer = syncer;
+        this.log = new File(snapshot.getPath() + ".journal");
+        this.oldLog = new File(snapshot.getPath() + ".journal.old");
+        this.next = new File(snapshot.getPath() + ".next");
+    }
+
+    /**
+     * Completes or rolls back a compaction interrupted by a crash. Must run before the snapshot is read.
+     *
+     * @throws IOException if the recovered snapshot cannot be moved into place.
+     */
+    void recover() throws IOException {
+        if (!next.exists()) {
+            return;
+        }
+        if (oldLog.exists()) {
+            // Old log was not deleted yet: the compaction never committed.
+            Files.delete(next.toPath());
+        } else {
+            Files.move(next.toPath(), snapshot.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Replays the rotated and the live log onto tasks loaded from the snapshot.
+     *
+     * Changed tasks are written back with {@link List#set(int, Object)} so that lazily loaded lists keep them.
+     *
+     * <p>A log that cannot be read to the end is cut off where reading failed, like a torn last record: the
+     * records before that point are kept, and the log is moved aside so that new records do not follow the
+     * damage. The live log is set aside with an unreadable rotated log, as its indexes assume every record
+     * before it. The snapshot is never touched.</p>
+     *
+     * @param tasks the tasks read from the snapshot; modified in place.
+     * @return false if a log was set aside; the records replayed from it then only live in {@code tasks}
+     *     until the next snapshot is written.
+     */
+    boolean replay(List<Task> tasks) {
+        if (replay(oldLog, tasks) < 0) {
+            setAside(log);
+            return false;
+        }
+        records = replay(log, tasks);
+        if (records < 0) {
+            records = 0;
+            return false;
+        }
+        return true;
+    }
+
+    /** Replays one log and returns how many records it held, or -1 if it could not be read and was set aside. */
+    private static int replay(File f, List<Task> tasks) {
+        if (!f.exists()) {
+            return 0;
+        }
+        int count = 0;
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                apply(line, tasks);
+                count++;
+            }
+        } catch (IOException e) {
+            setAside(f);
+            return -1;
+        }
+        return count;
+    }
+
+    private static void setAside(File f) {
+        if (!f.exists()) {
+            return;
+        }
+        File aside = new File(f.getPath() + ".unreadable-" + System.currentTimeMillis());
+        try {
+            Files.move(f.toPath(), aside.toPath());
+            System.err.println("Could not read " + f + " to the end; it was moved to " + aside + ".");
+        } catch (IOException e) {
+            System.err.println("Could not read " + f + " to the end.");
+        }
+    }
+
+    /**
+     * Applies one log record. Torn or out-of-range records are skipped, like corrupted snapshot lines.
+     */
+    private static void apply(String line, List<Task> tasks) {
+        if (line.length() < 5 || !line.startsWith(SEP, 1)) {
+            return;
+        }
+        String body = line.substring(4);
+        char op = line.charAt(0);
+        if (op == 'A') {
+            Task t = Storage.parseLine(body);
+            if (t != null) {
+                t.clearDirty(); // already durable in the log
+                tasks.add(t);
+            }
+            return;
+        }
+
+        final int idx;
+        try {
+            idx = Integer.parseInt(body.trim());
+        } catch (NumberFormatException e) {
+            return;
+        }
+        if (idx < 0 || idx >= tasks.size()) {
+            return;
+        }
+        Task t;
+        switch (op) {
+        case 'M':
+            t = tasks.get(idx);
+            t.mark();
+            t.clearDirty();
+            tasks.set(idx, t);
+            break;
+        case 'U':
+            t = tasks.get(idx);
+            t.unmark();
+            t.clearDirty();
+            tasks.set(idx, t);
+            break;
+        case 'X':
+            tasks.remove(idx);
+            break;
+        default:
+            break;
+        }
+    }
+
+    @Override
+    public void onAdd(int idx, Task t) {
+        append("A" + SEP + t.toDataString());
+    }
+
+    @Override
+    public void onRemove(int idx, Task t) {
+        append("X" + SEP + idx);
+    }
+
+    @Override
+    public void onStatusChange(int idx, Task t) {
+        append((t.getIsDone() ? "M" : "U") + SEP + idx);
+    }
+
+    /**
+     * Buffers one record. Listener callbacks cannot throw, so a failure is remembered and
+     * reported by the next {@link #flush(TaskList)}.
+     */
+    private void append(String record) {
+        if (pendingError != null) {
+            return;
+        }
+        try {
+            if (out == null) {
+                out = openLog();
+            }
+            out.write(record);
+            out.newLine();
+            records++;
+            onWritten.accept(utf8Length(record) + System.lineSeparator().length());
+        } catch (IOException e) {
+            pendingError = e;
+        }
+    }
+
+    /**
+     * Flushes buffered records to disk and starts a background compaction if the log has grown large.
+     * If a record was lost, the log no longer matches memory and is replaced by a full snapshot.
+     *
+     * @param tasks the current tasks, used as the content of the next snapshot.
+     * @throws ChattyFileException if neither the log nor a full snapshot could be written.
+     */
+    void flush(TaskList tasks) throws ChattyFileException {
+        try {
+            if (pendingError == null) {
+                if (out != null) {
+                    out.flush();
+                    syncer.written(log, outStream);
+                }
+                if (records >= Math.max(COMPACT_THRESHOLD, tasks.size())) {
+                    startCompaction(tasks.asList());
+                }
+                return;
+            }
+        } catch (IOException e) {
+            // fall through to a full snapshot
+        }
+
+        try {
+            startCompaction(tasks.asList());
+            awaitCompaction();
+            recover();
+            pendingError = null;
+        } catch (IOException e) {
+            throw new ChattyFileException("Failed to write the task journal.");
+        }
+        if (oldLog.exists()) {
+            throw new ChattyFileException("Failed to write the task journal.");
+        }
+    }
+
+    /**
+     * Replaces the snapshot with {@code tasks} and empties the log, waiting until both are on disk.
+     * Used when loading changed the tasks themselves, so that the change is kept without a record.
+     *
+     * @param tasks the tasks the snapshot should hold.
+     * @throws IOException if the snapshot could not be written; the log then still holds every record.
+     */
+    void snapshot(List<Task> tasks) throws IOException {
+        startCompaction(tasks);
+        awaitCompaction();
+        recover();
+        if (oldLog.exists()) {
+            throw new IOException("Could not write snapshot " + snapshot);
+        }
+    }
+
+    /**
+     * Rotates the live log and writes a snapshot of {@code tasks} on the compactor thread.
+     * The snapshot is encoded here so that it matches the rotation point exactly.
+     */
+    private void startCompaction(List<Task> tasks) throws IOException {
+        awaitCompaction();
+        recover();
+
+        byte[] contents = encoder.apply(tasks);
+
+        if (out != null) {
+            BufferedWriter w = out;
+            out = null;
+            outStream = null;
+            w.close();
+        }
+        if (!log.exists()) {
+            Files.createFile(log.toPath());
+        }
+        if (oldLog.exists()) {
+            // A previous compaction failed: keep its records and add ours behind them.
+            Files.write(oldLog.toPath(), Files.readAllBytes(log.toPath()), StandardOpenOption.APPEND);
+            Files.delete(log.toPath());
+        } else {
+            Files.move(log.toPath(), oldLog.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+        records = 0;
+
+        compaction = compactor.submit(() -> {
+            compact(contents);
+            return null;
+        });
+    }
+
+    private void compact(byte[] contents) throws IOException {
+        try (FileOutputStream fos = new FileOutputStream(next, false)) {
+            fos.write(contents);
+            fos.getChannel().force(true);
+        }
+        Files.delete(oldLog.toPath()); // commit point
+        Files.move(next.toPath(), snapshot.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        onWritten.accept(contents.length);
+    }
+
+    /** Returns the number of bytes {@code s} takes in UTF-8, without encoding it. */
+    private static int utf8Length(String s) {
+        int n = s.length();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x800) {
+                n += Character.isSurrogate(c) ? 1 : 2; // a surrogate pair takes 4 bytes for 2 chars
+            } else if (c >= 0x80) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Waits for a running compaction to finish. A failed compaction leaves the old log in place,
+     * so nothing is lost; it is folded into the next one.
+     */
+    void awaitCompaction() {
+        if (compaction == null) {
+            return;
+        }
+        try {
+            compaction.get();
+        } catch (ExecutionException ignored) {
+            // The rotated log still holds the records; see startCompaction.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compaction = null;
+    }
+
+    private BufferedWriter openLog() throws IOException {
+        outStream = new FileOutputStream(log, true);
+        return new BufferedWriter(new OutputStreamWriter(outStream, StandardCharsets.UTF_8));
+    }
+}
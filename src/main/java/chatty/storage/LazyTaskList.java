@@ -0,0 +1,398 @@
+package chatty.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import chatty.task.IdIndex;
+import chatty.task.Task;
+
+/**
+ * A list of tasks that stay in the text data file until they are read.
+ *
+ * <p>The list holds one reference per task: either the byte offset of its line in the data file, or,
+ * for tasks added or changed since the last save, a slot in an in-memory list of pinned tasks. Tasks
+ * read from the file go through a bounded LRU cache, so memory use depends on the cache size and the
+ * number of unsaved changes, not on the size of the file.</p>
+ *
+ * <p>The offsets are kept in {@code <file>.idx} together with the size and modification time of the
+ * data file they describe, so startup only has to scan the data file if it changed behind our back.
+ * Only lines that {@link Storage#parseLine(String)} accepts are indexed, so numbering matches an
+ * eager load. The index also remembers the highest task ID in the file, and whether some task lacks
+ * a unique ID, so neither needs the tasks to be read.</p>
+ *
+ * <p>A task returned by {@link #get(int)} may be dropped from the cache at any time: changes to it
+ * must be written back with {@link #set(int, Task)} to be kept.</p>
+ */
+final class LazyTaskList extends AbstractList<Task> implements RandomAccess {
+    static final int DEFAULT_CACHE_SIZE = 4096;
+
+    private static final int INDEX_MAGIC = 0x43485449; // "CHTI"
+    private static final int INDEX_VERSION = 2;
+
+    private final File file;
+    private final File indexFile;
+    private final Map<Long, Task> cache;
+    private final ArrayList<Task> pinned = new ArrayList<>();
+    private FileChannel channel;
+    /** Offset into the file if {@code >= 0}, otherwise {@code -(slot + 1)} in {@link #pinned}. */
+    private long[] refs;
+    private int size;
+    /** The highest task ID in the file and among the pinned tasks. */
+    private int highestId;
+    /** Whether a task in the file has no ID, or the ID of a task before it. */
+    private boolean isMissingIds;
+
+    private LazyTaskList(File file, Index index, int cacheSize) throws IOException {
+        this.file = file;
+        this.indexFile = indexFileFor(file);
+        this.refs = index.offsets();
+        this.size = refs.length;
+        this.highestId = index.highestId();
+        this.isMissingIds = index.isMissingIds();
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Task> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Opens a text data file without reading its tasks, using or rebuilding its offset index.
+     *
+     * @param file the text data file; must exist.
+     * @param cacheSize the maximum number of unchanged tasks kept in memory.
+     * @return the lazily loaded list.
+     * @throws IOException if the data file cannot be read.
+     */
+    static LazyTaskList open(File file, int cacheSize) throws IOException {
+        Index index = readIndex(file);
+        if (index == null) {
+            index = scan(file);
+            writeIndex(file, index);
+        }
+        return new LazyTaskList(file, index, cacheSize);
+    }
+
+    /**
+     * Returns the highest ID of a task in this list.
+     *
+     * @return the highest ID, or 0 if no task has one.
+     */
+    int highestId() {
+        return highestId;
+    }
+
+    /**
+     * Returns whether some task has no ID, or the same ID as a task before it, so that
+     * {@link chatty.task.TaskList#ensureUniqueIds(java.util.List)} has work to do.
+     *
+     * @return true if IDs have to be given out.
+     */
+    boolean isMissingIds() {
+        if (isMissingIds) {
+            return true;
+        }
+        for (Task t : pinned) {
+            if (t.getId() == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int idx) {
+        long ref = refs[checkIndex(idx, size)];
+        if (ref < 0) {
+            return pinned.get((int) (-ref - 1));
+        }
+        Task t = cache.get(ref);
+        if (t == null) {
+            t = readAt(ref);
+            cache.put(ref, t);
+        }
+        return t;
+    }
+
+    @Override
+    public Task set(int idx, Task t) {
+        Task old = get(idx);
+        refs[idx] = pin(t);
+        return old;
+    }
+
+    @Override
+    public void add(int idx, Task t) {
+        checkIndex(idx, size + 1);
+        if (size == refs.length) {
+            refs = Arrays.copyOf(refs, Math.max(16, size + (size >> 1)));
+        }
+        System.arraycopy(refs, idx, refs, idx + 1, size - idx);
+        refs[idx] = pin(t);
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int idx) {
+        Task old = get(idx);
+        System.arraycopy(refs, idx + 1, refs, idx, size - idx - 1);
+        size--;
+        modCount++;
+        return old;
+    }
+
+    @Override
+    protected void removeRange(int from, int to) {
+        System.arraycopy(refs, to, refs, from, size - to);
+        size -= to - from;
+        modCount++;
+    }
+
+    private long pin(Task t) {
+        pinned.add(t);
+        highestId = Math.max(highestId, t.getId());
+        return -pinned.size();
+    }
+
+    private static int checkIndex(int idx, int bound) {
+        if (idx < 0 || idx >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + bound);
+        }
+        return idx;
+    }
+
+    /**
+     * Writes every task to a new data file, moves it over the old one and points this list at it.
+     * The file is replaced rather than truncated because unread tasks are still read from it.
+     *
+     * @param syncer forces the new file to disk as its {@link FsyncPolicy} says.
+     * @throws IOException if the file cannot be written.
+     */
+    void save(FileSyncer syncer) throws IOException {
+        File tmp = FileSyncer.tmpFor(file);
+        long[] offsets = new long[size];
+        long pos = 0;
+        IdScan ids = new IdScan();
+        byte[] newline = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        try (FileOutputStream fos = new FileOutputStream(tmp, false);
+             BufferedOutputStream out = new BufferedOutputStream(fos)) {
+            for (int i = 0; i < size; i++) {
+                Task t = get(i);
+                ids.add(t);
+                byte[] line = t.toDataString().getBytes(StandardCharsets.UTF_8);
+                offsets[i] = pos;
+                out.write(line);
+                out.write(newline);
+                pos += line.length + newline.length;
+            }
+            out.flush();
+            syncer.forceBeforeMove(fos.getChannel());
+        }
+
+        channel.close();
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncer.moved(file);
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        refs = offsets;
+        pinned.clear();
+        cache.clear();
+        highestId = ids.highestId;
+        isMissingIds = ids.isMissingIds;
+        writeIndex(file, new Index(offsets, highestId, isMissingIds));
+    }
+
+    /** Reads and parses the line starting at {@code offset}. */
+    private Task readAt(long offset) {
+        try {
+            ByteBuffer buf = ByteBuffer.allocate(256);
+            int len = 0;
+            while (true) {
+                int n = channel.read(buf, offset + len);
+                int end = len + Math.max(n, 0);
+                for (int i = len; i < end; i++) {
+                    byte b = buf.get(i);
+                    if (b == '\n' || b == '\r') {
+                        return parse(buf.array(), i);
+                    }
+                }
+                len = end;
+                if (n < 0) {
+                    return parse(buf.array(), len); // last line without a line break
+                }
+                if (len == buf.capacity()) {
+                    ByteBuffer bigger = ByteBuffer.allocate(buf.capacity() * 2);
+                    bigger.put(buf.array(), 0, len);
+                    buf = bigger;
+                }
+                buf.position(len);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Data file became unreadable: " + file, e);
+        }
+    }
+
+    private Task parse(byte[] bytes, int len) {
+        Task t = Storage.parseLine(new String(bytes, 0, len, StandardCharsets.UTF_8));
+        if (t == null) {
+            throw new IllegalStateException("Data file changed while open: " + file);
+        }
+        t.clearDirty();
+        return t;
+    }
+
+    /** Closes the data file. The list must not be read afterwards. */
+    void close() throws IOException {
+        channel.close();
+    }
+
+    /* ----------------- offset index ----------------- */
+
+    private static File indexFileFor(File file) {
+        return new File(file.getPath() + ".idx");
+    }
+
+    /** Finds the offset of every line that parses as a task, accepting the same line breaks as readLine. */
+    private static Index scan(File file) throws IOException {
+        long[] offsets = new long[1024];
+        int count = 0;
+        IdScan ids = new IdScan();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long pos = 0;
+            long start = 0;
+            int b;
+            boolean afterCr = false;
+            while ((b = in.read()) != -1) {
+                pos++;
+                if (afterCr && b == '\n') {
+                    afterCr = false;
+                    start = pos;
+                    continue;
+                }
+                afterCr = false;
+                if (b == '\n' || b == '\r') {
+                    afterCr = b == '\r';
+                    if (isTask(line, ids)) {
+                        offsets = append(offsets, count++, start);
+                    }
+                    line.reset();
+                    start = pos;
+                } else {
+                    line.write(b);
+                }
+            }
+            if (line.size() > 0 && isTask(line, ids)) {
+                offsets = append(offsets, count++, start);
+            }
+        }
+        return new Index(Arrays.copyOf(offsets, count), ids.highestId, ids.isMissingIds);
+    }
+
+    private static boolean isTask(ByteArrayOutputStream line, IdScan ids) {
+        Task t = Storage.parseLine(line.toString(StandardCharsets.UTF_8));
+        if (t == null) {
+            return false;
+        }
+        ids.add(t);
+        return true;
+    }
+
+    private static long[] append(long[] a, int count, long value) {
+        if (count == a.length) {
+            a = Arrays.copyOf(a, count * 2);
+        }
+        a[count] = value;
+        return a;
+    }
+
+    /** Returns the stored index, or {@code null} if it is missing or describes another file. */
+    private static Index readIndex(File file) {
+        File idx = indexFileFor(file);
+        if (!idx.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(idx)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION
+                    || in.readLong() != file.length() || in.readLong() != file.lastModified()) {
+                return null;
+            }
+            int highestId = in.readInt();
+            boolean isMissingIds = in.readBoolean();
+            long[] offsets = new long[in.readInt()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = in.readLong();
+            }
+            return new Index(offsets, highestId, isMissingIds);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** Best-effort: a missing or stale index only costs a rescan on the next start. */
+    private static void writeIndex(File file, Index index) {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(indexFileFor(file), false)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeLong(file.length());
+            out.writeLong(file.lastModified());
+            out.writeInt(index.highestId());
+            out.writeBoolean(index.isMissingIds());
+            out.writeInt(index.offsets().length);
+            for (long offset : index.offsets()) {
+                out.writeLong(offset);
+            }
+        } catch (IOException ignored) {
+            // see method comment
+        }
+    }
+
+    /** The line offsets of a data file, and what is known about its task IDs. */
+    private record Index(long[] offsets, int highestId, boolean isMissingIds) {
+    }
+
+    /** Collects the highest task ID and whether any ID is missing or repeated, task by task. */
+    private static final class IdScan {
+        private final IdIndex seen = new IdIndex();
+        int highestId;
+        boolean isMissingIds;
+
+        void add(Task t) {
+            int id = t.getId();
+            if (id == 0 || seen.get(id) >= 0) {
+                isMissingIds = true;
+                return;
+            }
+            seen.put(id, 0);
+            highestId = Math.max(highestId, id);
+        }
+    }
+}
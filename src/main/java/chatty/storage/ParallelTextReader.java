@@ -0,0 +1,242 @@
+package chatty.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import chatty.task.Task;
+
+/**
+ * Parses the contents of a text data file, spreading large files over every core.
+ *
+ * <p>The bytes are cut into chunks of at least {@link #MIN_CHUNK_BYTES} that each end right after a line
+ * break, so no line and no {@code \r\n} pair is ever split. Line breaks are single bytes that never occur
+ * inside a UTF-8 character, so the cuts can be made without decoding anything. The chunks are parsed by a
+ * {@link ForkJoinPool}, each line with {@link Storage#parseLine(String)}, and the results are stitched
+ * back together in file order.</p>
+ *
+ * <p>Lines end where {@link java.io.BufferedReader#readLine()} would end them, so the same tasks are read
+ * and the same corrupted lines skipped as when reading the file one line at a time.</p>
+ */
+final class ParallelTextReader {
+    static final int MIN_CHUNK_BYTES = 1 << 20;
+    /** Chunks per thread of the pool, so that threads that finish early can take over more work. */
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final byte[] SEP = "/-/".getBytes(StandardCharsets.US_ASCII);
+
+    private ParallelTextReader() {}
+
+    /**
+     * Parses a whole text data file, in parallel on the common pool if it is large.
+     *
+     * @param bytes the contents of the file.
+     * @param isLayoutNeeded whether to find where each task's kind letter and status digit are.
+     * @return the tasks and, if asked for, their layout.
+     */
+    static Records parse(byte[] bytes, boolean isLayoutNeeded) {
+        return parse(bytes, isLayoutNeeded, ForkJoinPool.commonPool(), MIN_CHUNK_BYTES);
+    }
+
+    /**
+     * Parses a whole text data file on the given pool, with chunks of at least {@code minChunkBytes}.
+     *
+     * @param bytes the contents of the file.
+     * @param isLayoutNeeded whether to find where each task's kind letter and status digit are.
+     * @param pool the pool to parse chunks on.
+     * @param minChunkBytes the smallest chunk worth handing to another thread.
+     * @return the tasks and, if asked for, their layout.
+     */
+    static Records parse(byte[] bytes, boolean isLayoutNeeded, ForkJoinPool pool, int minChunkBytes) {
+        int maxChunks = (int) Math.min((long) pool.getParallelism() * CHUNKS_PER_THREAD, bytes.length / minChunkBytes);
+        int[] bounds = chunkBounds(bytes, maxChunks);
+        if (bounds.length == 2) {
+            return parseRange(bytes, 0, bytes.length, isLayoutNeeded);
+        }
+        return pool.invoke(new Stitch(bytes, bounds, isLayoutNeeded));
+    }
+
+    /**
+     * Returns the start of every chunk followed by the end of the file. Every start but the first is the
+     * position right after a line break.
+     */
+    static int[] chunkBounds(byte[] bytes, int maxChunks) {
+        if (maxChunks <= 1) {
+            return new int[] {0, bytes.length};
+        }
+        int[] bounds = new int[maxChunks + 1];
+        int count = 1;
+        for (int i = 1; i < maxChunks; i++) {
+            int bound = nextLineStart(bytes, (int) ((long) bytes.length * i / maxChunks));
+            if (bound > bounds[count - 1] && bound < bytes.length) {
+                bounds[count++] = bound;
+            }
+        }
+        bounds[count++] = bytes.length;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /** Returns the position right after the first line break at or after {@code from}, or the end. */
+    private static int nextLineStart(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                return i + 1;
+            }
+            if (bytes[i] == '\r') {
+                return i + 1 < bytes.length && bytes[i + 1] == '\n' ? i + 2 : i + 1;
+            }
+        }
+        return bytes.length;
+    }
+
+    /** Parses the lines between {@code from}, the start of a line, and {@code to}, the end of one. */
+    private static Records parseRange(byte[] bytes, int from, int to, boolean isLayoutNeeded) {
+        Records records = new Records(Math.max(16, (to - from) / 48), isLayoutNeeded);
+        int start = from;
+        while (start < to) {
+            int end = start;
+            while (end < to && bytes[end] != '\n' && bytes[end] != '\r') {
+                end++;
+            }
+            Task t = Storage.parseLine(new String(bytes, start, end - start, StandardCharsets.UTF_8));
+            if (t == null) {
+                records.deadLines++;
+            } else if (isLayoutNeeded) {
+                int kind = skipBlanks(bytes, start, end);
+                records.add(t, kind, statusPosition(bytes, kind, end));
+            } else {
+                records.tasks.add(t);
+            }
+            if (end < to && bytes[end] == '\r' && end + 1 < to && bytes[end + 1] == '\n') {
+                end++;
+            }
+            start = end + 1;
+        }
+        return records;
+    }
+
+    /** Returns the position of a status field that is exactly one digit, or -1. */
+    private static long statusPosition(byte[] bytes, int kind, int end) {
+        int sep = indexOf(bytes, SEP, kind, end);
+        if (sep < 0) {
+            return -1;
+        }
+        int status = skipBlanks(bytes, sep + SEP.length, end);
+        int after = skipBlanks(bytes, status + 1, end);
+        boolean isDigit = status < end && (bytes[status] == '0' || bytes[status] == '1');
+        boolean isFieldEnd = after == end || indexOf(bytes, SEP, after, end) == after;
+        return isDigit && isFieldEnd ? status : -1;
+    }
+
+    /** Returns the first position from {@code from} that {@link String#trim()} would keep, or {@code end}. */
+    private static int skipBlanks(byte[] bytes, int from, int end) {
+        while (from < end && (bytes[from] & 0xff) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int indexOf(byte[] bytes, byte[] target, int from, int end) {
+        outer:
+        for (int i = from; i + target.length <= end; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (bytes[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /* ----------------- results ----------------- */
+
+    /** The tasks read from a file or a chunk of it, in file order, and where their records are. */
+    static final class Records {
+        final ArrayList<Task> tasks;
+        /** Positions of the tasks' kind letters, or an empty array if the layout was not asked for. */
+        long[] kindAt;
+        /** Positions of the tasks' status digits, or -1 where the status field is not a single digit. */
+        long[] statusAt;
+        /** The number of lines that hold no task. */
+        int deadLines;
+
+        private Records(int capacity, boolean isLayoutNeeded) {
+            this.tasks = new ArrayList<>(capacity);
+            this.kindAt = new long[isLayoutNeeded ? capacity : 0];
+            this.statusAt = new long[isLayoutNeeded ? capacity : 0];
+        }
+
+        private void add(Task t, long kind, long status) {
+            int i = tasks.size();
+            if (i == kindAt.length) {
+                kindAt = Arrays.copyOf(kindAt, i * 2);
+                statusAt = Arrays.copyOf(statusAt, i * 2);
+            }
+            kindAt[i] = kind;
+            statusAt[i] = status;
+            tasks.add(t);
+        }
+    }
+
+    /** Parses every chunk as a task of its own, then joins the results in order. */
+    private static final class Stitch extends RecursiveTask<Records> {
+        private final byte[] bytes;
+        private final int[] bounds;
+        private final boolean isLayoutNeeded;
+
+        Stitch(byte[] bytes, int[] bounds, boolean isLayoutNeeded) {
+            this.bytes = bytes;
+            this.bounds = bounds;
+            this.isLayoutNeeded = isLayoutNeeded;
+        }
+
+        @Override
+        protected Records compute() {
+            List<Chunk> chunks = new ArrayList<>(bounds.length - 1);
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                chunks.add(new Chunk(bytes, bounds[i], bounds[i + 1], isLayoutNeeded));
+            }
+            ForkJoinTask.invokeAll(chunks);
+
+            int taskCount = 0;
+            for (Chunk chunk : chunks) {
+                taskCount += chunk.join().tasks.size();
+            }
+            Records all = new Records(taskCount, isLayoutNeeded);
+            for (Chunk chunk : chunks) {
+                Records part = chunk.join();
+                if (isLayoutNeeded) {
+                    System.arraycopy(part.kindAt, 0, all.kindAt, all.tasks.size(), part.tasks.size());
+                    System.arraycopy(part.statusAt, 0, all.statusAt, all.tasks.size(), part.tasks.size());
+                }
+                all.tasks.addAll(part.tasks);
+                all.deadLines += part.deadLines;
+            }
+            return all;
+        }
+    }
+
+    /** Parses the lines of one chunk. */
+    private static final class Chunk extends RecursiveTask<Records> {
+        private final byte[] bytes;
+        private final int from;
+        private final int to;
+        private final boolean isLayoutNeeded;
+
+        Chunk(byte[] bytes, int from, int to, boolean isLayoutNeeded) {
+            this.bytes = bytes;
+            this.from = from;
+            this.to = to;
+            this.isLayoutNeeded = isLayoutNeeded;
+        }
+
+        @Override
+        protected Records compute() {
+            return parseRange(bytes, from, to, isLayoutNeeded);
+        }
+    }
+}
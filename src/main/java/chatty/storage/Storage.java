@@ -1,36 +1,163 @@
 package chatty.storage;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
 
 import chatty.exceptions.ChattyFileException;
+import chatty.task.ConcurrentTaskList;
 import chatty.task.Deadline;
 import chatty.task.Event;
 import chatty.task.Task;
+import chatty.task.TaskList;
 import chatty.task.Todo;
 
 /**
  * Handles the loading and saving of tasks to and from a file.
  * The file is located at "data/chatty.txt" by default.
  * If the file or directory does not exist, it will be created.
- * If the file is corrupted or cannot be read, an exception will be thrown.
+ * If the file cannot be read, it is moved aside to {@code <file>.unreadable-<time>} and an empty list
+ * is loaded, so that the next save does not overwrite it.
+ *
+ * <p>Whole files are never truncated and rewritten in place: they are written to {@code <file>.tmp} and
+ * atomically moved over the data file, and forced to disk according to a {@link FsyncPolicy}.</p>
+ *
+ * <p>Files ending in {@code .bin} use the compact {@link BinaryFormat}; all others use the text format
+ * described at {@link #parseLine(String)}. Large text files are parsed on several cores by a
+ * {@link ParallelTextReader}.</p>
+ *
+ * <p>In journaled mode, changes are appended to a {@link Journal} next to the file instead of
+ * rewriting it, and the file is only rewritten when the journal is compacted.</p>
+ *
+ * <p>In write-behind mode, {@link #persist(TaskList)} hands a snapshot to a background {@link WriteBehind}
+ * thread and returns without waiting for the disk; {@link #flush()} waits for it.</p>
+ *
+ * <p>In lazy mode, {@link #loadTaskList()} only indexes the line offsets of a text file and reads
+ * tasks when they are first used, through a {@link LazyTaskList}.</p>
+ *
+ * <p>Tasks read from a file written before tasks had IDs are given IDs on load, and the file is rewritten
+ * once right away so that they keep them.</p>
+ *
+ * <p>The highest ID given out so far is kept in {@code <file>.lastid} whenever the task holding it is
+ * removed, before the removal is saved, so that a restart never gives a removed task's ID to a new one.
+ * While that task is still in the file, the file itself is the record.</p>
+ *
+ * <p>In incremental mode, a text file is never rewritten for ordinary changes: an {@link IncrementalFile}
+ * patches status digits in place and appends new tasks, and only compacts the file once it is mostly
+ * deleted lines.</p>
  */
 public class Storage {
+    public static final File DEFAULT_FILE = new File("data" + File.separator + "chatty.txt");
+    public static final File DEFAULT_BINARY_FILE = new File("data" + File.separator + "chatty.bin");
+    public static final FsyncPolicy DEFAULT_FSYNC_POLICY = FsyncPolicy.BATCHED;
+
     private final File file;
+    /** Holds the highest task ID given out, once the task with that ID has been removed. */
+    private final File lastIdFile;
+    /** The ID last read from or written to {@link #lastIdFile}, or 0 if it has none. */
+    private int savedHighestId;
+    private final boolean isBinary;
+    private final Journal journal;
+    private final boolean isLazy;
+    private final boolean isColumnar;
+    private final WriteBehind writeBehind;
+    private final IncrementalFile incremental;
+    private final FileSyncer syncer;
+    private final LongAdder bytesWritten = new LongAdder();
+    /** The store handed out by {@link #loadTaskList()} in lazy mode; {@code null} otherwise. */
+    private LazyTaskList lazyTasks;
 
     /**
-     * Constructs a new Storage object with the default file path.
+     * Constructs a new Storage object with the default file path and options.
      */
     public Storage() {
-        this.file = new File("data" + File.separator + "chatty.txt");
+        this(DEFAULT_FILE);
+    }
+
+    /**
+     * Constructs a new Storage object for the given file, with the default {@link Options}: whole-file
+     * saves on the calling thread, synced by {@link #DEFAULT_FSYNC_POLICY}.
+     *
+     * @param file the data file.
+     */
+    public Storage(File file) {
+        this(file, new Options());
+    }
+
+    /**
+     * Constructs a new Storage object for the given file.
+     *
+     * @param file the data file.
+     * @param options how tasks are loaded and saved.
+     */
+    public Storage(File file, Options options) {
+        this.file = file;
+        this.lastIdFile = lastIdFileFor(file);
+        this.isColumnar = options.isColumnar;
+        this.isBinary = file.getName().endsWith(".bin");
+        this.syncer = new FileSyncer(options.fsyncPolicy);
+        this.journal = options.isJournaled ? new Journal(file, this::encode, bytesWritten::add, syncer) : null;
+        this.isLazy = options.isLazy;
+        this.incremental = options.isIncremental && !isBinary && !options.isJournaled && !isLazy
+                ? new IncrementalFile(file, bytesWritten::add, syncer)
+                : null;
+        this.writeBehind = options.isWriteBehind && !options.isJournaled && !isLazy && incremental == null
+                ? new WriteBehind(file, bytesWritten::add, syncer)
+                : null;
+    }
+
+    /**
+     * Creates the storage configured by JVM system properties.
+     * <ul>
+     *   <li>{@code chatty.format=binary} stores tasks in {@link #DEFAULT_BINARY_FILE}.</li>
+     *   <li>{@code chatty.journal=true} enables journaled mode.</li>
+     *   <li>{@code chatty.lazy=true} enables lazy mode.</li>
+     *   <li>{@code chatty.columnar=true} keeps the loaded tasks column by column; see
+     *       {@link TaskList#columnar(List)}.</li>
+     *   <li>{@code chatty.incremental=false} rewrites the text file on every save; by default only the
+     *       changed records are written.</li>
+     *   <li>{@code chatty.writeBehind=false} saves on the calling thread; by default saves that rewrite the
+     *       whole file happen in the background.</li>
+     *   <li>{@code chatty.fsync=always}, {@code batched} or {@code never} sets the {@link FsyncPolicy};
+     *       by default it is {@link #DEFAULT_FSYNC_POLICY}.</li>
+     * </ul>
+     *
+     * @return the configured storage.
+     */
+    public static Storage fromSystemProperties() {
+        File file = "binary".equals(System.getProperty("chatty.format")) ? DEFAULT_BINARY_FILE : DEFAULT_FILE;
+        return new Storage(file, new Options()
+                .journaled(Boolean.getBoolean("chatty.journal"))
+                .lazy(Boolean.getBoolean("chatty.lazy"))
+                .columnar(Boolean.getBoolean("chatty.columnar"))
+                .incremental(!"false".equals(System.getProperty("chatty.incremental")))
+                .writeBehind(!"false".equals(System.getProperty("chatty.writeBehind")))
+                .fsync(fsyncPolicyOf(System.getProperty("chatty.fsync", DEFAULT_FSYNC_POLICY.name()))));
+    }
+
+    /**
+     * Returns the fsync policy named by a {@code chatty.fsync} value, ignoring case. An unknown name is
+     * reported and {@link #DEFAULT_FSYNC_POLICY} is used instead, so a typo does not stop Chatty starting.
+     *
+     * @param name the property value.
+     * @return the named policy, or the default one.
+     */
+    static FsyncPolicy fsyncPolicyOf(String name) {
+        try {
+            return FsyncPolicy.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown chatty.fsync value \"" + name + "\"; expected always|batched|never, using "
+                    + DEFAULT_FSYNC_POLICY.name().toLowerCase(Locale.ROOT) + ".");
+            return DEFAULT_FSYNC_POLICY;
+        }
     }
 
     /**
@@ -56,14 +183,75 @@ public class Storage {
         }
     }
 
+    /** Deletes the temporary file of a save that never finished; the data file itself is still whole. */
+    private void discardUnfinishedSave() throws IOException {
+        Files.deleteIfExists(FileSyncer.tmpFor(file).toPath());
+        Files.deleteIfExists(FileSyncer.tmpFor(lastIdFile).toPath());
+    }
+
+    /** Returns the file that holds the highest task ID given out for a data file, once it has been removed. */
+    static File lastIdFileFor(File file) {
+        return new File(file.getPath() + ".lastid");
+    }
+
+    /**
+     * Reads the highest task ID given out before the last restart. A missing or damaged file counts as 0,
+     * leaving the IDs in the data file as the only record.
+     */
+    private int readHighestId() {
+        try {
+            savedHighestId = Integer.parseInt(Files.readString(lastIdFile.toPath(), StandardCharsets.US_ASCII).trim());
+        } catch (IOException | NumberFormatException e) {
+            savedHighestId = 0;
+        }
+        return savedHighestId;
+    }
+
+    /**
+     * Saves the highest ID given to a task of the list if a removal about to be saved may have taken it out
+     * of the data file. It is written before the removal, so a crash in between only leaves a gap in the IDs.
+     */
+    private void keepHighestId(TaskList tasks) throws ChattyFileException {
+        int highestId = tasks.highestId();
+        if (!tasks.hasRemovals() || highestId <= savedHighestId) {
+            return;
+        }
+        try {
+            byte[] line = (highestId + System.lineSeparator()).getBytes(StandardCharsets.US_ASCII);
+            bytesWritten.add(syncer.replace(lastIdFile, out -> out.write(line)));
+            savedHighestId = highestId;
+        } catch (IOException e) {
+            throw new ChattyFileException("Failed to save tasks to disk.");
+        }
+    }
+
+    /**
+     * Moves a data file that could not be read out of the way, so that saving the empty list loaded in its
+     * place does not destroy it.
+     */
+    private void setAsideUnreadable() {
+        if (!file.exists()) {
+            return;
+        }
+        File aside = new File(file.getPath() + ".unreadable-" + System.currentTimeMillis());
+        try {
+            Files.move(file.toPath(), aside.toPath());
+            System.err.println("Could not read " + file + "; it was moved to " + aside + ".");
+        } catch (IOException e) {
+            System.err.println("Could not read " + file + ".");
+        }
+    }
+
     /**
      * Loads tasks from the file. If the file is missing or unreadable, returns an empty list.
+     * In journaled mode, the journal is replayed on top of the file; a journal that cannot be read is
+     * set aside instead of the file.
      *
      * @return the list of tasks loaded from the file.
      * @see Task
      * @see ArrayList
      * @see File
-     * @see BufferedReader
+     * @see ParallelTextReader
      * @see IOException
      * @see ChattyFileException
      */
@@ -71,69 +259,280 @@ public class Storage {
         ArrayList<Task> tasks = new ArrayList<>();
         try {
             ensureFile();
-            try (BufferedReader br = new BufferedReader(
-                    new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
-                String line;
-                while ((line = br.readLine()) != null) {
-                    Task t = parseLine(line);
-                    if (t != null) {
-                        tasks.add(t);
-                    }
-                }
+            discardUnfinishedSave();
+            if (journal != null) {
+                journal.recover();
+            }
+            int highestId = readHighestId();
+            tasks = incremental != null ? incremental.load() : read();
+            boolean isReplayed = journal == null || journal.replay(tasks);
+            if (TaskList.ensureUniqueIds(tasks, highestId) || !isReplayed) {
+                keepLoaded(tasks);
             }
-        } catch (ChattyFileException | IOException ignored) {
-            tasks.clear(); // If file missing/unreadable: start with empty list quietly.
+        } catch (ChattyFileException e) {
+            tasks.clear(); // If file missing: start with empty list quietly.
+        } catch (IOException e) {
+            tasks.clear();
+            setAsideUnreadable();
+        }
+        if (tasks.isEmpty() && incremental != null) {
+            incremental.forget();
         }
         return tasks;
     }
 
+    /**
+     * Loads the tasks into a TaskList. In lazy mode, a text file is opened as a {@link LazyTaskList} and
+     * only its line offsets are read; binary files are always loaded in full, as mapping them is already cheap.
+     * In columnar mode, tasks loaded in full are kept in primitive arrays rather than as objects.
+     * If the file is missing or unreadable, returns an empty list.
+     *
+     * @return the loaded task list, ready to be passed to {@link #attach(TaskList)}.
+     * @see #load()
+     */
+    public TaskList loadTaskList() {
+        if (!isLazy || isBinary) {
+            ArrayList<Task> tasks = load();
+            return isColumnar ? TaskList.columnar(tasks, savedHighestId) : new TaskList(tasks, savedHighestId);
+        }
+        try {
+            ensureFile();
+            discardUnfinishedSave();
+            if (journal != null) {
+                journal.recover();
+            }
+            int highestId = readHighestId();
+            LazyTaskList store = LazyTaskList.open(file, LazyTaskList.DEFAULT_CACHE_SIZE);
+            boolean isReplayed = journal == null || journal.replay(store);
+            lazyTasks = store;
+            boolean isMissingIds = store.isMissingIds();
+            if (isMissingIds) {
+                TaskList.ensureUniqueIds(store, highestId);
+            }
+            if (isMissingIds || !isReplayed) {
+                keepLoaded(store);
+            }
+            return TaskList.backedBy(store, Math.max(store.highestId(), highestId));
+        } catch (ChattyFileException e) {
+            return new TaskList(null); // If file missing: start with empty list quietly.
+        } catch (IOException e) {
+            setAsideUnreadable();
+            return new TaskList(null);
+        }
+    }
+
+    /**
+     * Writes the tasks as loading left them, when it changed them: IDs were just given to tasks from a file
+     * that had none, so they stay the same from now on, or records were replayed from a journal that was
+     * then set aside. Failing to do so is not fatal: the next load gives out the same IDs again, unless
+     * the file has changed in between, and the set-aside journal still holds its records.
+     */
+    private void keepLoaded(List<Task> tasks) {
+        try {
+            if (journal != null) {
+                journal.snapshot(tasks);
+            } else if (lazyTasks != null) {
+                lazyTasks.save(syncer);
+            } else {
+                save(tasks);
+            }
+        } catch (IOException | ChattyFileException e) {
+            System.err.println("Could not save the tasks loaded from " + file + ".");
+        }
+    }
+
+    /**
+     * Loads the tasks into a TaskList that many threads may use at once. The tasks are always loaded in
+     * full, even in lazy mode, since a {@link LazyTaskList} changes its cache on every read.
+     *
+     * @return the loaded task list, ready to be passed to {@link #attach(TaskList)}.
+     * @see ConcurrentTaskList
+     */
+    public TaskList loadSharedTaskList() {
+        ArrayList<Task> tasks = load();
+        return new ConcurrentTaskList(tasks, savedHighestId);
+    }
+
+    /**
+     * Reads the data file in this storage's format, without replaying the journal.
+     *
+     * @return the tasks in the file.
+     * @throws IOException if the file cannot be read.
+     */
+    ArrayList<Task> read() throws IOException {
+        return isBinary ? BinaryFormat.read(file) : readText(file);
+    }
+
+    private static ArrayList<Task> readText(File file) throws IOException {
+        return ParallelTextReader.parse(Files.readAllBytes(file.toPath()), false).tasks;
+    }
+
     /**
      * Saves the list of tasks to the file. If the file is missing or unwritable, throws an exception.
+     * The tasks are written to a temporary file that then atomically replaces the data file, so the
+     * old contents are kept in full if saving fails half-way.
      *
      * @param tasks the list of tasks to be saved.
      * @throws ChattyFileException if the file is missing or unwritable.
      * @see Task
      * @see ArrayList
      * @see File
-     * @see BufferedWriter
-     * @see IOException
+     * @see FileSyncer#replace(File, FileSyncer.Contents)
      * @see ChattyFileException
      */
-    public void save(ArrayList<Task> tasks) throws ChattyFileException {
+    public void save(List<Task> tasks) throws ChattyFileException {
         try {
             ensureFile();
-            try (BufferedWriter bw = new BufferedWriter(
-                    new OutputStreamWriter(new FileOutputStream(file, false), StandardCharsets.UTF_8))) {
+            if (incremental != null) {
+                incremental.rewrite(tasks); // keeps its record layout in step with the file
+                return;
+            }
+            bytesWritten.add(syncer.replace(file, out -> {
+                if (isBinary) {
+                    DataOutputStream data = new DataOutputStream(out);
+                    BinaryFormat.write(data, tasks);
+                    data.flush();
+                    return;
+                }
+                BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
                 for (Task t : tasks) {
                     bw.write(t.toDataString());
                     bw.newLine();
                 }
-            }
+                bw.flush();
+            }));
         } catch (IOException e) {
             throw new ChattyFileException("Failed to save tasks to disk.");
         }
     }
 
+    /**
+     * Encodes the tasks as the complete contents of the data file, in this storage's format.
+     *
+     * @param tasks the tasks to encode.
+     * @return the file contents.
+     */
+    byte[] encode(List<Task> tasks) {
+        if (isBinary) {
+            return BinaryFormat.encode(tasks);
+        }
+        StringBuilder sb = new StringBuilder(tasks.size() * 48);
+        for (Task t : tasks) {
+            sb.append(t.toDataString()).append(System.lineSeparator());
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Subscribes this storage to changes of the given task list. Only needed in journaled and incremental mode.
+     *
+     * @param tasks the task list whose changes should be journaled or written record by record.
+     */
+    public void attach(TaskList tasks) {
+        if (journal != null) {
+            tasks.addListener(journal);
+        }
+        if (incremental != null) {
+            tasks.addListener(incremental);
+        }
+    }
+
+    /**
+     * Makes the current state of the task list durable, either by flushing the journal, by writing the
+     * changed records or by rewriting the whole file. In lazy mode the file is replaced rather than truncated,
+     * since unread tasks are still read from it. In write-behind mode the list is only encoded here, on
+     * the calling thread; the file is written in the background.
+     *
+     * @param tasks the task list to persist; in lazy mode, the one returned by {@link #loadTaskList()}.
+     * @throws ChattyFileException if the data could not be written.
+     */
+    public void persist(TaskList tasks) throws ChattyFileException {
+        keepHighestId(tasks);
+        if (journal != null) {
+            journal.flush(tasks);
+        } else if (incremental != null) {
+            persistIncrementally(tasks);
+        } else if (writeBehind != null) {
+            writeBehind.submit(encode(tasks.asList())); // tasks may only be read under the list's lock
+        } else if (lazyTasks != null) {
+            try {
+                lazyTasks.save(syncer);
+                bytesWritten.add(file.length());
+            } catch (IOException e) {
+                throw new ChattyFileException("Failed to save tasks to disk.");
+            }
+        } else {
+            save(tasks.asList());
+        }
+        tasks.clearDirty();
+    }
+
+    /** Writes the changed records, or the whole file if that fails. */
+    private void persistIncrementally(TaskList tasks) throws ChattyFileException {
+        try {
+            incremental.flush(tasks);
+        } catch (IOException e) {
+            try {
+                incremental.rewrite(tasks.asList());
+            } catch (IOException again) {
+                throw new ChattyFileException("Failed to save tasks to disk.");
+            }
+        }
+    }
+
+    /**
+     * Blocks until every change handed to {@link #persist(TaskList)} is on disk, including changes
+     * whose {@link FsyncPolicy#BATCHED batched} sync is still due.
+     *
+     * @throws ChattyFileException if a background save failed and could not be repeated.
+     */
+    public void flush() throws ChattyFileException {
+        if (writeBehind != null) {
+            writeBehind.flush();
+        }
+        syncer.syncPending();
+    }
 
+    /**
+     * Returns the number of bytes written to the data file and the journal since this storage was created,
+     * including writes still made in the background.
+     *
+     * @return the number of bytes written.
+     */
+    public long bytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /** Returns the number of background saves so far, or 0 without write-behind. */
+    long backgroundWrites() {
+        return writeBehind != null ? writeBehind.writes() : 0;
+    }
+
+    /** Blocks until a background journal compaction, if any, has finished. */
+    void awaitCompaction() {
+        if (journal != null) {
+            journal.awaitCompaction();
+        }
+    }
 
     /**
      * Parses a line from the file and returns a Task object.
      *
-     * <p>Expected formats:</p>
+     * <p>Expected formats, where the trailing task ID is missing in files written before tasks had IDs:</p>
      * <pre>
-     * T / - / 0 / - / desc
-     * D / - / 1 / - / desc / - / by
-     * E / - / 0 / - / desc / - / from / - / to
+     * T / - / 0 / - / desc / - / id
+     * D / - / 1 / - / desc / - / by / - / id
+     * E / - / 0 / - / desc / - / from / - / to / - / id
      * </pre>
      *
      * @param line the line to be parsed.
-     * @return a Task object.
+     * @return a Task object, with ID 0 if the line has none.
      * @see Task
      * @see Todo
      * @see Deadline
      * @see Event
      */
-    private Task parseLine(String line) {
+    static Task parseLine(String line) {
         try {
             String[] p = line.split("/-/");
             if (p.length < 3) {
@@ -144,21 +543,25 @@ public class Storage {
             String desc = p[2].trim();
 
             Task t;
+            int idField;
             switch (kind) {
             case "T":
                 t = new Todo(desc);
+                idField = 3;
                 break;
             case "D":
                 if (p.length < 4) {
                     return null;
                 }
                 t = new Deadline(desc, p[3].trim());
+                idField = 4;
                 break;
             case "E":
                 if (p.length < 5) {
                     return null;
                 }
                 t = new Event(desc, p[3].trim(), p[4].trim());
+                idField = 5;
                 break;
             default:
                 return null;
@@ -166,9 +569,106 @@ public class Storage {
             if (isDone) {
                 t.mark();
             }
+            if (idField < p.length) {
+                int id = parseId(p[idField].trim());
+                if (id > 0) {
+                    t.setId(id);
+                }
+            }
             return t;
         } catch (Exception ex) {
             return null; // skip corrupted line
         }
     }
+
+    /** Returns the ID in a data field, or 0 if it is not one; such a task is given a new ID on load. */
+    private static int parseId(String field) {
+        try {
+            return Integer.parseInt(field);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * How a {@link Storage} loads and saves tasks. Every mode is off by default, and saved data is synced
+     * by {@link #DEFAULT_FSYNC_POLICY}. Each setter returns the options, so they can be chained.
+     */
+    public static final class Options {
+        private boolean isJournaled;
+        private boolean isLazy;
+        private boolean isWriteBehind;
+        private boolean isIncremental;
+        private boolean isColumnar;
+        private FsyncPolicy fsyncPolicy = DEFAULT_FSYNC_POLICY;
+
+        /**
+         * Sets whether changes are appended to a journal instead of rewriting the file.
+         *
+         * @param isJournaled whether to journal changes.
+         * @return these options.
+         */
+        public Options journaled(boolean isJournaled) {
+            this.isJournaled = isJournaled;
+            return this;
+        }
+
+        /**
+         * Sets whether {@link #loadTaskList()} reads text files on demand instead of up front.
+         *
+         * @param isLazy whether to read tasks on demand.
+         * @return these options.
+         */
+        public Options lazy(boolean isLazy) {
+            this.isLazy = isLazy;
+            return this;
+        }
+
+        /**
+         * Sets whether whole-file saves happen on a background thread. Ignored in journaled, lazy and
+         * incremental mode, which already avoid rewriting the file on every change.
+         *
+         * @param isWriteBehind whether to save in the background.
+         * @return these options.
+         */
+        public Options writeBehind(boolean isWriteBehind) {
+            this.isWriteBehind = isWriteBehind;
+            return this;
+        }
+
+        /**
+         * Sets whether a text file is updated record by record instead of rewritten. Ignored for binary
+         * files and in journaled and lazy mode.
+         *
+         * @param isIncremental whether to write only the changed records.
+         * @return these options.
+         */
+        public Options incremental(boolean isIncremental) {
+            this.isIncremental = isIncremental;
+            return this;
+        }
+
+        /**
+         * Sets whether {@link #loadTaskList()} keeps the tasks in primitive arrays instead of one object per
+         * task. Ignored for text files in lazy mode, which keeps them on disk instead.
+         *
+         * @param isColumnar whether to keep the tasks column by column.
+         * @return these options.
+         */
+        public Options columnar(boolean isColumnar) {
+            this.isColumnar = isColumnar;
+            return this;
+        }
+
+        /**
+         * Sets when saved data is forced to disk.
+         *
+         * @param fsyncPolicy the policy.
+         * @return these options.
+         */
+        public Options fsync(FsyncPolicy fsyncPolicy) {
+            this.fsyncPolicy = fsyncPolicy;
+            return this;
+        }
+    }
 }
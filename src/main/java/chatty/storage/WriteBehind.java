@@ -0,0 +1,165 @@
+package chatty.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.LongConsumer;
+
+import chatty.exceptions.ChattyFileException;
+
+/**
+ * Writes snapshots of the task list to the data file on a background thread, so that commands
+ * do not wait for the disk.
+ *
+ * <p>Snapshots are handed over already encoded, as the complete file contents. Tasks cache their
+ * renderings and are changed on the command thread, so encoding them here, without the list's lock,
+ * could store a record built from a status that was just changed.</p>
+ *
+ * <p>Only the newest snapshot is kept: a burst of changes submitted while a write is in progress
+ * results in a single further write. Every write goes through {@link FileSyncer#replace(File, FileSyncer.Contents)},
+ * so the file always holds a complete snapshot. A failed write is reported by
+ * the next {@link #submit(byte[])} or {@link #flush()}; the flush also retries it once.</p>
+ *
+ * <p>A JVM shutdown hook flushes the last snapshot, so changes are not lost when the application
+ * is closed right after a command.</p>
+ */
+final class WriteBehind {
+    private final File file;
+    private final LongConsumer onWritten;
+    private final FileSyncer syncer;
+    private final Object lock = new Object();
+    /** The newest snapshot that has not been written yet; guarded by {@link #lock}. */
+    private byte[] pending;
+    private boolean isWriting;
+    /** The snapshot whose write failed, and why; reported once. */
+    private byte[] failed;
+    private IOException error;
+    private long writes;
+
+    /**
+     * Starts the writer thread for the given file.
+     *
+     * @param file the data file.
+     * @param onWritten receives the size of every snapshot written.
+     * @param syncer writes the snapshots and forces them to disk.
+     */
+    WriteBehind(File file, LongConsumer onWritten, FileSyncer syncer) {
+        this.file = file;
+        this.onWritten = onWritten;
+        this.syncer = syncer;
+        Thread writer = new Thread(this::run, "chatty-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushQuietly, "chatty-write-behind-flush"));
+    }
+
+    /**
+     * Queues a snapshot to be written, replacing any snapshot that is still waiting. Returns at once.
+     *
+     * @param snapshot the complete file contents, encoded under the list's lock; must not be modified
+     *     afterwards.
+     * @throws ChattyFileException if an earlier write failed. The snapshot is queued regardless.
+     */
+    void submit(byte[] snapshot) throws ChattyFileException {
+        IOException e;
+        synchronized (lock) {
+            pending = snapshot;
+            lock.notifyAll();
+            e = takeError();
+        }
+        if (e != null) {
+            throw new ChattyFileException("Failed to save tasks to disk.");
+        }
+    }
+
+    /**
+     * Blocks until every submitted snapshot has been written.
+     *
+     * @throws ChattyFileException if the last write failed and retrying it failed too.
+     */
+    void flush() throws ChattyFileException {
+        byte[] retry;
+        synchronized (lock) {
+            while (pending != null || isWriting) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ChattyFileException("Interrupted while saving tasks to disk.");
+                }
+            }
+            retry = takeError() != null ? failed : null;
+            failed = null;
+        }
+        if (retry != null) {
+            try {
+                write(retry);
+            } catch (IOException e) {
+                throw new ChattyFileException("Failed to save tasks to disk.");
+            }
+        }
+    }
+
+    /** Returns the number of completed writes, successful or not. */
+    long writes() {
+        synchronized (lock) {
+            return writes;
+        }
+    }
+
+    private IOException takeError() {
+        IOException e = error;
+        error = null;
+        return e;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (ChattyFileException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    private void run() {
+        while (true) {
+            byte[] snapshot;
+            synchronized (lock) {
+                while (pending == null) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                snapshot = pending;
+                pending = null;
+                isWriting = true;
+            }
+
+            IOException failure = null;
+            try {
+                write(snapshot);
+            } catch (IOException | RuntimeException e) {
+                failure = e instanceof IOException io ? io : new IOException(e);
+            }
+
+            synchronized (lock) {
+                isWriting = false;
+                writes++;
+                if (failure != null) {
+                    failed = snapshot;
+                    error = failure;
+                } else {
+                    failed = null; // this newer snapshot supersedes a failed one
+                    error = null;
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /** Writes the snapshot to a temporary file and moves it over the data file. */
+    private void write(byte[] snapshot) throws IOException {
+        onWritten.accept(syncer.replace(file, out -> out.write(snapshot)));
+    }
+}
@@ -0,0 +1,99 @@
+package chatty.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * The deadlines and events of a {@link TaskList} that are not done yet, ordered by when they are due or
+ * start, for {@code agenda}.
+ *
+ * <p>Entries live in a {@link TreeSet} keyed by the epoch minute of {@link Deadline#getBy()} or
+ * {@link Event#getFrom()}, then by task ID. Adding, marking, unmarking or removing a task adds or drops a
+ * single entry in O(log n), and the next k entries from any time are found in O(log n + k), so nothing is
+ * sorted when the agenda is asked for. Unlike a heap, the set can start at any time without first taking
+ * out the entries before it, which would have to be put back for an earlier query.</p>
+ */
+final class AgendaIndex {
+    private final TreeSet<Entry> entries = new TreeSet<>();
+
+    /**
+     * Indexes a task if it is a deadline or an event that is not done. Other tasks are ignored.
+     *
+     * @param t the task that was added or unmarked.
+     */
+    void add(Task t) {
+        if (!t.getIsDone() && isTimed(t)) {
+            entries.add(new Entry(keyOf(t), t.getId(), t));
+        }
+    }
+
+    /**
+     * Drops a task, if it is indexed.
+     *
+     * @param t the task that was removed or marked.
+     */
+    void remove(Task t) {
+        if (isTimed(t)) {
+            entries.remove(new Entry(keyOf(t), t.getId(), null));
+        }
+    }
+
+    /**
+     * Returns the first tasks that are due or start at or after the given time.
+     *
+     * @param from the earliest time to include; seconds are ignored.
+     * @param count the maximum number of tasks to return.
+     * @return at most {@code count} tasks, soonest first.
+     */
+    List<Task> upcoming(LocalDateTime from, int count) {
+        ArrayList<Task> next = new ArrayList<>(Math.min(count, entries.size()));
+        for (Entry e : entries.tailSet(new Entry(TemporalCodec.toMinutes(from), 0, null), true)) {
+            if (next.size() == count) {
+                break;
+            }
+            next.add(e.task);
+        }
+        return next;
+    }
+
+    /**
+     * Hands the ID and epoch minute of every entry at or after the given minute to a visitor, soonest first.
+     *
+     * @param lo the earliest epoch minute to include.
+     * @param visitor receives each entry.
+     */
+    void forEachFrom(long lo, TaskList.UpcomingVisitor visitor) {
+        for (Entry e : entries.tailSet(new Entry(lo, 0, null), true)) {
+            visitor.visit(e.id, e.minute);
+        }
+    }
+
+    static boolean isTimed(Task t) {
+        return t instanceof Deadline || t instanceof Event;
+    }
+
+    /** Returns the epoch minute a deadline or event is ordered by. */
+    static long keyOf(Task t) {
+        return TemporalCodec.toMinutes(t instanceof Deadline d ? d.getBy() : ((Event) t).getFrom());
+    }
+
+    /** An indexed task; the task itself takes no part in the order. */
+    private record Entry(long minute, int id, Task task) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry o) {
+            return minute != o.minute ? Long.compare(minute, o.minute) : Integer.compare(id, o.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Entry e && compareTo(e) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(minute) * 31 + id;
+        }
+    }
+}
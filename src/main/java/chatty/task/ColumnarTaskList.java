@@ -0,0 +1,327 @@
+package chatty.task;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.RandomAccess;
+
+/**
+ * A list of tasks kept column by column in primitive arrays, for lists too large to hold as objects.
+ *
+ * <p>Each task is one row: a kind byte, a bit in a {@link BitSet} of done tasks, its ID, two times in
+ * epoch minutes, and where its UTF-8 description lies in one shared byte arena. That is about 30 bytes
+ * plus the description, where a task object with its strings and dates takes well over 150.</p>
+ *
+ * <p>Rows are not objects: {@link #get(int)} builds a fresh {@link Todo}, {@link Deadline} or {@link Event}
+ * view of a row on every call. As for any store behind {@link TaskList#backedBy(List, int)}, a change to
+ * a view is only kept once it is written back with {@link #set(int, Task)}.</p>
+ *
+ * <p>The done column is also what {@code list done} and {@code list pending} read: the number of set bits is
+ * kept as rows change, and positions with either status are found a word of 64 rows at a time.</p>
+ *
+ * <p>Removing a task moves the rows behind it, which for primitive columns takes a few block copies.
+ * Descriptions of removed tasks stay in the arena until they make up half of it.</p>
+ */
+final class ColumnarTaskList extends AbstractList<Task> implements RandomAccess {
+    private static final byte TODO = 'T';
+    private static final byte DEADLINE = 'D';
+    private static final byte EVENT = 'E';
+    /** The arena is never compacted below this many bytes. */
+    private static final int MIN_ARENA_COMPACT = 1 << 16;
+
+    private byte[] kinds;
+    private final BitSet done = new BitSet();
+    private int[] ids;
+    /** Epoch minutes: when a deadline is due, or when an event starts and ends; 0 for todos. */
+    private long[] starts;
+    private long[] ends;
+    private int[] descAt;
+    private int[] descLength;
+    private int size;
+    /** The number of set bits in {@link #done}. */
+    private int doneCount;
+
+    /** Descriptions in UTF-8, one after another. */
+    private byte[] arena;
+    private int arenaUsed;
+    /** Bytes of the arena that belong to no row any more. */
+    private int garbage;
+
+    /**
+     * Creates an empty list with room for the given number of tasks.
+     *
+     * @param capacity the number of tasks to make room for.
+     */
+    ColumnarTaskList(int capacity) {
+        int rows = Math.max(16, capacity);
+        kinds = new byte[rows];
+        ids = new int[rows];
+        starts = new long[rows];
+        ends = new long[rows];
+        descAt = new int[rows];
+        descLength = new int[rows];
+        arena = new byte[rows * 16];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Returns a new view of the row, which is not dirty. */
+    @Override
+    public Task get(int idx) {
+        checkIndex(idx, size);
+        String desc = new String(arena, descAt[idx], descLength[idx], StandardCharsets.UTF_8);
+        Task t;
+        switch (kinds[idx]) {
+        case DEADLINE:
+            t = new Deadline(desc, TemporalCodec.fromMinutes(starts[idx]));
+            break;
+        case EVENT:
+            t = new Event(desc, TemporalCodec.fromMinutes(starts[idx]), TemporalCodec.fromMinutes(ends[idx]));
+            break;
+        default:
+            t = new Todo(desc);
+            break;
+        }
+        if (done.get(idx)) {
+            t.mark();
+        }
+        if (ids[idx] > 0) {
+            t.setId(ids[idx]);
+        }
+        t.clearDirty();
+        return t;
+    }
+
+    @Override
+    public Task set(int idx, Task t) {
+        Task old = get(idx);
+        boolean isSameDescription = old.getDescription().equals(t.getDescription());
+        if (!isSameDescription) {
+            garbage += descLength[idx];
+        }
+        write(idx, t, !isSameDescription);
+        return old;
+    }
+
+    @Override
+    public void add(int idx, Task t) {
+        checkIndex(idx, size + 1);
+        if (size == kinds.length) {
+            grow();
+        }
+        move(idx, size, 1);
+        size++;
+        write(idx, t, true);
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int idx) {
+        Task old = get(idx);
+        removeRange(idx, idx + 1);
+        return old;
+    }
+
+    @Override
+    protected void removeRange(int from, int to) {
+        for (int i = from; i < to; i++) {
+            garbage += descLength[i];
+        }
+        doneCount -= done.get(from, to).cardinality();
+        move(to, size, from - to);
+        size -= to - from;
+        modCount++;
+        if (garbage > MIN_ARENA_COMPACT && garbage > arenaUsed / 2) {
+            compactArena();
+        }
+    }
+
+    /**
+     * Returns the position of the task with the given ID, scanning the ID column.
+     *
+     * @param id the task ID.
+     * @return its 0-based position, or -1 if no task has that ID.
+     */
+    int indexOfId(int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of tasks that are done.
+     *
+     * @return the number of done tasks.
+     */
+    int countDone() {
+        return doneCount;
+    }
+
+    /**
+     * Returns the positions of the tasks that are done, or of those that are not, from the done column.
+     *
+     * @param isDone whether to return the done tasks rather than the pending ones.
+     * @return the 0-based positions, in ascending order.
+     */
+    int[] positionsWithStatus(boolean isDone) {
+        int[] positions = new int[isDone ? doneCount : size - doneCount];
+        int n = 0;
+        for (int i = isDone ? done.nextSetBit(0) : done.nextClearBit(0); i >= 0 && i < size;
+                i = isDone ? done.nextSetBit(i + 1) : done.nextClearBit(i + 1)) {
+            positions[n++] = i;
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the deadlines and events whose time overlaps {@code [lo, hi]}, scanning the time columns
+     * and only building views of the tasks that overlap.
+     *
+     * @param lo the start of the window in epoch minutes, inclusive.
+     * @param hi the end of the window in epoch minutes, inclusive.
+     * @return the overlapping tasks, in list order.
+     */
+    List<Task> overlapping(long lo, long hi) {
+        ArrayList<Task> hits = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (kinds[i] != TODO && starts[i] <= hi && ends[i] >= lo) {
+                hits.add(get(i));
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Returns the next deadlines and events that are not done, soonest first, scanning the columns and only
+     * building views of the tasks returned.
+     *
+     * @param lo the earliest epoch minute to include.
+     * @param count the maximum number of tasks to return.
+     * @return at most {@code count} tasks that are due or start at or after {@code lo}, by time and then ID.
+     */
+    List<Task> upcoming(long lo, int count) {
+        Comparator<Integer> soonestFirst = Comparator.<Integer>comparingLong(i -> starts[i])
+                .thenComparingInt(i -> ids[i]);
+        PriorityQueue<Integer> next = new PriorityQueue<>(Math.min(count, size) + 1, soonestFirst.reversed());
+        for (int i = done.nextClearBit(0); i < size; i = done.nextClearBit(i + 1)) {
+            if (kinds[i] != TODO && starts[i] >= lo) {
+                next.add(i);
+                if (next.size() > count) {
+                    next.poll();
+                }
+            }
+        }
+        ArrayList<Integer> rows = new ArrayList<>(next);
+        rows.sort(soonestFirst);
+        ArrayList<Task> result = new ArrayList<>(rows.size());
+        for (int row : rows) {
+            result.add(get(row));
+        }
+        return result;
+    }
+
+    /**
+     * Hands the ID and start of every deadline and event that is not done to a visitor, in row order,
+     * reading only the columns.
+     *
+     * @param lo the earliest epoch minute to include.
+     * @param visitor receives each row's ID and start.
+     */
+    void forEachUpcoming(long lo, TaskList.UpcomingVisitor visitor) {
+        for (int i = done.nextClearBit(0); i < size; i = done.nextClearBit(i + 1)) {
+            if (kinds[i] != TODO && starts[i] >= lo) {
+                visitor.visit(ids[i], starts[i]);
+            }
+        }
+    }
+
+    /** Fills a row from a task, appending its description to the arena if asked to. */
+    private void write(int idx, Task t, boolean isNewDescription) {
+        if (t instanceof Deadline d) {
+            kinds[idx] = DEADLINE;
+            starts[idx] = TemporalCodec.toMinutes(d.getBy());
+            ends[idx] = starts[idx];
+        } else if (t instanceof Event e) {
+            kinds[idx] = EVENT;
+            starts[idx] = TemporalCodec.toMinutes(e.getFrom());
+            ends[idx] = TemporalCodec.toMinutes(e.getTo());
+        } else {
+            kinds[idx] = TODO;
+            starts[idx] = 0;
+            ends[idx] = 0;
+        }
+        if (done.get(idx) != t.getIsDone()) {
+            doneCount += t.getIsDone() ? 1 : -1;
+        }
+        done.set(idx, t.getIsDone());
+        ids[idx] = t.getId();
+        if (isNewDescription) {
+            byte[] desc = t.getDescription().getBytes(StandardCharsets.UTF_8);
+            if (arenaUsed + desc.length > arena.length) {
+                arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaUsed + desc.length));
+            }
+            System.arraycopy(desc, 0, arena, arenaUsed, desc.length);
+            descAt[idx] = arenaUsed;
+            descLength[idx] = desc.length;
+            arenaUsed += desc.length;
+        }
+    }
+
+    /** Moves the rows {@code [from, to)} by {@code by} rows, towards the end if positive. */
+    private void move(int from, int to, int by) {
+        int count = to - from;
+        System.arraycopy(kinds, from, kinds, from + by, count);
+        System.arraycopy(ids, from, ids, from + by, count);
+        System.arraycopy(starts, from, starts, from + by, count);
+        System.arraycopy(ends, from, ends, from + by, count);
+        System.arraycopy(descAt, from, descAt, from + by, count);
+        System.arraycopy(descLength, from, descLength, from + by, count);
+
+        BitSet moved = done.get(from, to);
+        done.clear(Math.min(from, from + by), to);
+        for (int b = moved.nextSetBit(0); b >= 0; b = moved.nextSetBit(b + 1)) {
+            done.set(from + by + b);
+        }
+    }
+
+    private void grow() {
+        int capacity = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        descAt = Arrays.copyOf(descAt, capacity);
+        descLength = Arrays.copyOf(descLength, capacity);
+    }
+
+    /** Copies the descriptions that rows still point to into a fresh arena, in row order. */
+    private void compactArena() {
+        byte[] fresh = new byte[Math.max(16, (arenaUsed - garbage) * 2)];
+        int used = 0;
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(arena, descAt[i], fresh, used, descLength[i]);
+            descAt[i] = used;
+            used += descLength[i];
+        }
+        arena = fresh;
+        arenaUsed = used;
+        garbage = 0;
+    }
+
+    private static void checkIndex(int idx, int bound) {
+        if (idx < 0 || idx >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + bound);
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package chatty.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import chatty.exceptions.ChattyException;
+
+/**
+ * A TaskList that many threads may use at once, such as the sessions of several clients.
+ *
+ * <p>Changes take a lock, one at a time. Reads take no lock at all: every change that is finished
+ * publishes a copy of the list, tasks included, that nobody changes again, and reads go to the latest
+ * copy. So {@code list}, {@code find} and {@code view} never wait for a change in progress; they see
+ * the list as it was before it. Copying the list costs time in proportion to its size on every change,
+ * which pays off for a list that is read far more often than it is changed.</p>
+ *
+ * <p>Single calls are atomic, but a command that checks a task number and then uses it must do both
+ * inside {@link #read(Action)} or {@link #write(Action)}, or another thread may renumber the tasks in
+ * between. {@link #read(Action)} keeps to the copy that was latest when it started, so all its calls see
+ * the same list. Calls made from inside {@link #write(Action)} see the changes made so far. A change may
+ * not be made from inside {@link #read(Action)}; batches must run inside {@link #write(Action)}.</p>
+ *
+ * <p>Tasks must only be changed through the list. Tasks read outside {@link #write(Action)} are copies,
+ * and changing them changes nothing.</p>
+ */
+public final class ConcurrentTaskList extends TaskList {
+    private final ReentrantLock lock = new ReentrantLock();
+    /** The latest copy of the list; replaced, never changed, when a change is finished. */
+    private volatile Snapshot published;
+    /** The copy a {@link #read(Action)} on this thread keeps to, or {@code null} outside one. */
+    private final ThreadLocal<Snapshot> pinned = new ThreadLocal<>();
+    /** Whether the change in progress may have changed what readers see; guarded by {@link #lock}. */
+    private boolean isChanged;
+
+    /**
+     * Constructs a ConcurrentTaskList holding the given tasks, which are assumed to be persisted already.
+     *
+     * @param seed the tasks to start with; may be {@code null}.
+     */
+    public ConcurrentTaskList(ArrayList<Task> seed) {
+        this(seed, 0);
+    }
+
+    /**
+     * Constructs a ConcurrentTaskList holding the given tasks, which are assumed to be persisted already,
+     * that gives new tasks IDs above {@code highestId}.
+     *
+     * @param seed the tasks to start with; may be {@code null}.
+     * @param highestId the highest ID given to a task so far, including removed ones, or 0 if unknown.
+     */
+    public ConcurrentTaskList(ArrayList<Task> seed, int highestId) {
+        super(seed, highestId);
+        published = takeSnapshot();
+    }
+
+    @Override
+    public <T> T read(Action<T> action) throws ChattyException {
+        if (lock.isHeldByCurrentThread() || pinned.get() != null) {
+            return action.run();
+        }
+        pinned.set(published);
+        try {
+            return action.run();
+        } finally {
+            pinned.remove();
+        }
+    }
+
+    @Override
+    public <T> T write(Action<T> action) throws ChattyException {
+        lockWrite();
+        try {
+            return action.run();
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /* ----------------- reads ----------------- */
+
+    @Override
+    public int size() {
+        Snapshot s = snapshot();
+        return s == null ? super.size() : s.tasks.size();
+    }
+
+    @Override
+    public Task get(int idx) {
+        Snapshot s = snapshot();
+        return s == null ? super.get(idx) : s.tasks.get(idx);
+    }
+
+    @Override
+    public int indexOfId(int id) {
+        Snapshot s = snapshot();
+        return s == null ? super.indexOfId(id) : s.tasks.indexOfId(id);
+    }
+
+    @Override
+    public int countDone() {
+        Snapshot s = snapshot();
+        return s == null ? super.countDone() : s.tasks.countDone();
+    }
+
+    @Override
+    public int[] positionsWithStatus(boolean isDone) {
+        Snapshot s = snapshot();
+        return s == null ? super.positionsWithStatus(isDone) : s.tasks.positionsWithStatus(isDone);
+    }
+
+    /**
+     * Returns a read-only copy of the tasks. Unlike a plain TaskList, the copy does not follow later
+     * changes, since those may be made by other threads while the caller reads it.
+     *
+     * @return the tasks at the time of the call.
+     */
+    @Override
+    public List<Task> asList() {
+        Snapshot s = snapshot();
+        return s == null
+                ? Collections.unmodifiableList(new ArrayList<>(super.asList()))
+                : s.tasks.asList();
+    }
+
+    @Override
+    public List<Task> find(String keyword) {
+        Snapshot s = snapshot();
+        return s == null ? super.find(keyword) : s.tasks.find(keyword);
+    }
+
+    @Override
+    public List<Task> findTimed(LocalDateTime from, LocalDateTime to) {
+        Snapshot s = snapshot();
+        return s == null ? super.findTimed(from, to) : s.tasks.findTimed(from, to);
+    }
+
+    @Override
+    public List<Task> upcoming(LocalDateTime from, int count) {
+        Snapshot s = snapshot();
+        return s == null ? super.upcoming(from, count) : s.tasks.upcoming(from, count);
+    }
+
+    @Override
+    public void forEachUpcoming(LocalDateTime from, UpcomingVisitor visitor) {
+        Snapshot s = snapshot();
+        if (s == null) {
+            super.forEachUpcoming(from, visitor);
+        } else {
+            s.tasks.forEachUpcoming(from, visitor);
+        }
+    }
+
+    @Override
+    public boolean isDirty() {
+        Snapshot s = snapshot();
+        return s == null ? super.isDirty() : s.isDirty;
+    }
+
+    @Override
+    public boolean hasRemovals() {
+        Snapshot s = snapshot();
+        return s == null ? super.hasRemovals() : s.hasRemovals;
+    }
+
+    @Override
+    public int highestId() {
+        Snapshot s = snapshot();
+        return s == null ? super.highestId() : s.tasks.highestId();
+    }
+
+
+    @Override
+    public void add(Task t) {
+        lockChange();
+        try {
+            super.add(t);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public Task remove(int idx) {
+        lockChange();
+        try {
+            return super.remove(idx);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public List<Task> removeAll(int[] indices) {
+        lockChange();
+        try {
+            return super.removeAll(indices);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public Task mark(int idx) {
+        lockChange();
+        try {
+            return super.mark(idx);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public Task unmark(int idx) {
+        lockChange();
+        try {
+            return super.unmark(idx);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public void beginBatch() {
+        lockChange();
+        try {
+            super.beginBatch();
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public void commitBatch() {
+        lockChange();
+        try {
+            super.commitBatch();
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public void rollbackBatch() {
+        lockChange();
+        try {
+            super.rollbackBatch();
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public void clearDirty() {
+        lockChange();
+        try {
+            super.clearDirty();
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    @Override
+    public void addListener(Listener l) {
+        lockWrite();
+        try {
+            super.addListener(l);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /* ----------------- locking ----------------- */
+
+    /** Returns the copy this thread reads, or {@code null} if it is changing the list and reads it directly. */
+    private Snapshot snapshot() {
+        if (lock.isHeldByCurrentThread()) {
+            return null;
+        }
+        Snapshot s = pinned.get();
+        return s != null ? s : published;
+    }
+
+    private void lockWrite() {
+        if (pinned.get() != null) {
+            throw new IllegalStateException("Cannot change the task list while reading it");
+        }
+        lock.lock();
+    }
+
+    private void lockChange() {
+        lockWrite();
+        isChanged = true;
+    }
+
+    private void unlockWrite() {
+        try {
+            if (lock.getHoldCount() == 1 && isChanged) {
+                isChanged = false;
+                published = takeSnapshot();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Copies the list as it is now; called with the lock held, or before the list is shared. */
+    private Snapshot takeSnapshot() {
+        List<Task> live = super.asList();
+        ArrayList<Task> copies = new ArrayList<>(live.size());
+        for (Task t : live) {
+            copies.add(copyOf(t));
+        }
+        return new Snapshot(new TaskList(copies, super.highestId()), super.isDirty(), super.hasRemovals());
+    }
+
+    private static Task copyOf(Task t) {
+        Task copy;
+        if (t instanceof Deadline d) {
+            copy = new Deadline(d.getDescription(), d.getBy());
+        } else if (t instanceof Event e) {
+            copy = new Event(e.getDescription(), e.getFrom(), e.getTo());
+        } else if (t instanceof Todo) {
+            copy = new Todo(t.getDescription());
+        } else {
+            copy = new Task(t.getDescription());
+        }
+        if (t.getIsDone()) {
+            copy.mark();
+        }
+        if (t.getId() > 0) {
+            copy.setId(t.getId());
+        }
+        return copy;
+    }
+
+    /** The list as a finished change left it, with the status the copied list does not keep. */
+    private record Snapshot(TaskList tasks, boolean isDirty, boolean hasRemovals) {
+    }
+}
@@ -1,10 +1,7 @@
 package chatty.task;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.DateTimeParseException;
-import java.time.format.ResolverStyle;
 
 import chatty.exceptions.ChattyException;
 import chatty.exceptions.MalformedArgumentsException;
@@ -14,13 +11,9 @@ import chatty.exceptions.MalformedArgumentsException;
  * The deadline is stored as a LocalDateTime object.
  */
 public class Deadline extends Task {
-    private static final DateTimeFormatter FMT = new DateTimeFormatterBuilder()
-            .parseCaseInsensitive()
-            .appendPattern("dd-MM-uuuu HHmm")
-            .toFormatter()
-            .withResolverStyle(ResolverStyle.STRICT);
-
     private final LocalDateTime by;
+    /** The deadline as {@code dd-MM-yyyy HHmm}, formatted when first needed. */
+    private String byText;
 
     /**
      * Constructs a new Deadline object with the specified description and deadline.
@@ -31,19 +24,30 @@ public class Deadline extends Task {
      * @param by the deadline in the format "dd-MM-yyyy HHmm".
      * @throws MalformedArgumentsException if the deadline is not in the correct format.
      * @see MalformedArgumentsException
-     * @see DateTimeFormatter
+     * @see TemporalCodec#parseDateTime(CharSequence)
      * @see LocalDateTime
      */
     public Deadline(String description, String by) throws ChattyException {
         super(description);
         try {
-            this.by = LocalDateTime.parse(by, FMT);
+            this.by = TemporalCodec.parseDateTime(by);
         } catch (DateTimeParseException e) {
             throw new MalformedArgumentsException(
                     "deadline <desc> /by dd-MM-yyyy HHmm");
         }
     }
 
+    /**
+     * Constructs a new Deadline object with an already parsed deadline.
+     *
+     * @param description the description of the deadline.
+     * @param by the deadline.
+     */
+    public Deadline(String description, LocalDateTime by) {
+        super(description);
+        this.by = by;
+    }
+
     /**
      * Returns the deadline of the task.
      *
@@ -54,12 +58,19 @@ public class Deadline extends Task {
     }
 
     @Override
-    public String toString() {
-        return "[D]" + super.toString() + " (by: " + by.format(FMT) + ")";
+    protected String buildDisplayString() {
+        return "[D]" + super.buildDisplayString() + " (by: " + byText() + ")";
     }
 
     @Override
-    public String toDataString() {
-        return "D" + super.toDataString() + "/-/" + by.format(FMT);
+    protected String buildDataString() {
+        return "D" + super.buildDataString() + "/-/" + byText();
+    }
+
+    private String byText() {
+        if (byText == null) {
+            byText = TemporalCodec.formatDateTime(by);
+        }
+        return byText;
     }
 }
@@ -1,10 +1,7 @@
 package chatty.task;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.DateTimeParseException;
-import java.time.format.ResolverStyle;
 
 import chatty.exceptions.ChattyException;
 import chatty.exceptions.MalformedArgumentsException;
@@ -16,24 +13,21 @@ import chatty.exceptions.MalformedArgumentsException;
  * The Event class extends the Task class.
  */
 public class Event extends Task {
-    private static final DateTimeFormatter FMT = new DateTimeFormatterBuilder()
-            .parseCaseInsensitive()
-            .appendPattern("dd-MM-uuuu HHmm")
-            .toFormatter()
-            .withResolverStyle(ResolverStyle.STRICT);
-
     private final LocalDateTime from;
     private final LocalDateTime to;
+    /** The start and end times as {@code dd-MM-yyyy HHmm}, formatted when first needed. */
+    private String fromText;
+    private String toText;
 
     /**
      * Constructs a new Event object with the specified description, start time, and end time.
-     * The start time and end time are parsed from the specified strings using the FMT formatter.
+     * The start time and end time are parsed from the specified strings by the {@link TemporalCodec}.
      *
      * @param description the description of the event.
      * @param from the start time of the event.
      * @param to the end time of the event.
      * @throws MalformedArgumentsException if the start time or end time cannot be parsed.
-     * @see DateTimeFormatter
+     * @see TemporalCodec#parseDateTime(CharSequence)
      * @see LocalDateTime
      * @see MalformedArgumentsException
      * @see Task
@@ -42,8 +36,8 @@ public class Event extends Task {
     public Event(String description, String from, String to) throws ChattyException {
         super(description);
         try {
-            LocalDateTime start = LocalDateTime.parse(from, FMT);
-            LocalDateTime end = LocalDateTime.parse(to, FMT);
+            LocalDateTime start = TemporalCodec.parseDateTime(from);
+            LocalDateTime end = TemporalCodec.parseDateTime(to);
 
             // Enforce ordering only: end must NOT be before start (equal allowed).
             if (end.isBefore(start)) {
@@ -59,6 +53,20 @@ public class Event extends Task {
         }
     }
 
+    /**
+     * Constructs a new Event object with already parsed start and end times.
+     *
+     * @param description the description of the event.
+     * @param from the start time of the event.
+     * @param to the end time of the event, not before {@code from}.
+     */
+    public Event(String description, LocalDateTime from, LocalDateTime to) {
+        super(description);
+        assert !to.isBefore(from) : "Event must not end before it starts";
+        this.from = from;
+        this.to = to;
+    }
+
     /**
      * Returns the start time of the event.
      *
@@ -78,16 +86,30 @@ public class Event extends Task {
     }
 
     @Override
-    public String toString() {
-        return "[E]" + super.toString()
-                + " (from: " + from.format(FMT)
-                + " to: " + to.format(FMT) + ")";
+    protected String buildDisplayString() {
+        return "[E]" + super.buildDisplayString()
+                + " (from: " + fromText()
+                + " to: " + toText() + ")";
     }
 
     @Override
-    public String toDataString() {
-        return "E" + super.toDataString()
-                + "/-/" + from.format(FMT)
-                + "/-/" + to.format(FMT);
+    protected String buildDataString() {
+        return "E" + super.buildDataString()
+                + "/-/" + fromText()
+                + "/-/" + toText();
+    }
+
+    private String fromText() {
+        if (fromText == null) {
+            fromText = TemporalCodec.formatDateTime(from);
+        }
+        return fromText;
+    }
+
+    private String toText() {
+        if (toText == null) {
+            toText = TemporalCodec.formatDateTime(to);
+        }
+        return toText;
     }
 }
@@ -0,0 +1,133 @@
+package chatty.task;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from task IDs to {@code int} slots, without boxing either.
+ *
+ * <p>Keys live in one open-addressing table with linear probing; {@code 0}, which is never a task ID,
+ * marks a free cell. Removals shift later cells of the same probe run back instead of leaving
+ * markers behind, so lookups never slow down however many tasks come and go. The table is kept at
+ * most half full, so a lookup inspects one or two cells on average.</p>
+ */
+public final class IdIndex {
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys = new int[MIN_CAPACITY];
+    private int[] values = new int[MIN_CAPACITY];
+    private int size;
+
+    /**
+     * Returns the slot of a task ID.
+     *
+     * @param id the task ID.
+     * @return the slot, or -1 if the ID is not in the index.
+     */
+    public int get(int id) {
+        int mask = keys.length - 1;
+        for (int i = mix(id) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == id) {
+                return values[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Maps a task ID to a slot, replacing its previous slot.
+     *
+     * @param id the task ID; must be positive.
+     * @param slot the slot, at least 0.
+     */
+    public void put(int id, int slot) {
+        assert id > 0 && slot >= 0 : "IDs are positive and slots are not negative";
+        if (2 * (size + 1) > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int i = mix(id) & mask;
+        while (keys[i] != 0 && keys[i] != id) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == 0) {
+            keys[i] = id;
+            size++;
+        }
+        values[i] = slot;
+    }
+
+    /**
+     * Removes a task ID.
+     *
+     * @param id the task ID.
+     * @return its slot, or -1 if the ID was not in the index.
+     */
+    public int remove(int id) {
+        int mask = keys.length - 1;
+        int i = mix(id) & mask;
+        while (keys[i] != id) {
+            if (keys[i] == 0) {
+                return -1;
+            }
+            i = (i + 1) & mask;
+        }
+        int slot = values[i];
+        size--;
+        // Move later cells of the probe run into the gap if the gap lies on their way from their home cell.
+        int gap = i;
+        for (int j = (gap + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            int home = mix(keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = 0;
+        return slot;
+    }
+
+    /**
+     * Returns the number of IDs in the index.
+     *
+     * @return the number of IDs.
+     */
+    public int size() {
+        return size;
+    }
+
+    /** Removes every ID. */
+    public void clear() {
+        if (keys.length > MIN_CAPACITY) {
+            keys = new int[MIN_CAPACITY];
+            values = new int[MIN_CAPACITY];
+        } else {
+            Arrays.fill(keys, 0);
+        }
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = mix(oldKeys[j]) & mask;
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /** Spreads consecutive IDs over the table. */
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,171 @@
+package chatty.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Trigram index over the lower-cased display strings of the tasks in a {@link TaskList}, as cached by
+ * {@link Task#toSearchString()}.
+ *
+ * <p>Trigrams containing {@code 'x'} or {@code ' '} are never indexed. Marking or unmarking only
+ * flips the status character between those two, so the indexed trigrams of a task never change
+ * and status changes need no update here. A query can use any of its own trigrams that
+ * avoid those characters: such a trigram cannot overlap the status character of a matching task,
+ * so every match appears in its posting list. Candidates are then verified with
+ * {@link String#contains}, which keeps the results identical to a plain scan. Queries without a
+ * usable trigram fall back to scanning the search strings.</p>
+ *
+ * <p>Removed tasks leave stale ids in the posting lists; they are skipped on lookup and dropped
+ * when the index is rebuilt after more than half of its ids have gone stale. Entries are found by
+ * the {@link Task#getId() task ID}, so removing one does not shift the others.</p>
+ */
+final class KeywordIndex {
+    private static final int MIN_REBUILD = 1024;
+
+    /** Posting lists keyed by packed trigram, holding ids in ascending (that is, list) order. */
+    private final HashMap<Long, Postings> postings = new HashMap<>();
+    /** Entries by id, in list order; {@code null} once removed. */
+    private Entry[] byId = new Entry[16];
+    private int nextId;
+    /** Entry ids by task ID. */
+    private final IdIndex byTaskId = new IdIndex();
+
+    /**
+     * Indexes a task appended at the end of the list.
+     *
+     * @param t the task that was added.
+     */
+    void add(Task t) {
+        Entry e = new Entry(nextId++, t);
+        if (e.id == byId.length) {
+            byId = Arrays.copyOf(byId, byId.length * 2);
+        }
+        byId[e.id] = e;
+        byTaskId.put(t.getId(), e.id);
+
+        String text = t.toSearchString();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            if (isIndexable(text, i)) {
+                postings.computeIfAbsent(key(text, i), k -> new Postings()).add(e.id);
+            }
+        }
+    }
+
+    /**
+     * Drops a removed task.
+     *
+     * @param t the removed task.
+     */
+    void remove(Task t) {
+        int id = byTaskId.remove(t.getId());
+        assert id >= 0 : "Only indexed tasks can be removed";
+        byId[id] = null;
+        if (nextId > MIN_REBUILD && byTaskId.size() < nextId / 2) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Returns the tasks whose lower-cased display string contains the lower-cased keyword,
+     * in list order.
+     *
+     * @param keyword the keyword to search for.
+     * @return the matching tasks.
+     */
+    List<Task> find(String keyword) {
+        String k = keyword.toLowerCase();
+        ArrayList<Task> matches = new ArrayList<>();
+
+        Postings best = null;
+        for (int i = 0; i + 3 <= k.length(); i++) {
+            if (!isIndexable(k, i)) {
+                continue;
+            }
+            Postings p = postings.get(key(k, i));
+            if (p == null) {
+                return matches; // a required trigram occurs nowhere
+            }
+            if (best == null || p.size < best.size) {
+                best = p;
+            }
+        }
+
+        if (best == null) {
+            for (int id = 0; id < nextId; id++) {
+                Entry e = byId[id];
+                if (e != null && e.task.toSearchString().contains(k)) {
+                    matches.add(e.task);
+                }
+            }
+            return matches;
+        }
+
+        for (int i = 0; i < best.size; i++) {
+            Entry e = byId[best.ids[i]];
+            if (e != null && e.task.toSearchString().contains(k)) {
+                matches.add(e.task);
+            }
+        }
+        return matches;
+    }
+
+    /** Renumbers the live entries and rebuilds every posting list without stale ids. */
+    private void rebuild() {
+        ArrayList<Task> live = new ArrayList<>(byTaskId.size());
+        for (int id = 0; id < nextId; id++) {
+            if (byId[id] != null) {
+                live.add(byId[id].task);
+            }
+        }
+        postings.clear();
+        byTaskId.clear();
+        byId = new Entry[Math.max(16, live.size() * 2)];
+        nextId = 0;
+        for (Task t : live) {
+            add(t);
+        }
+    }
+
+    private static boolean isIndexable(String s, int i) {
+        for (int j = i; j < i + 3; j++) {
+            char c = s.charAt(j);
+            if (c == 'x' || c == ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long key(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    /** An indexed task and its id in the posting lists. */
+    private static final class Entry {
+        final int id;
+        final Task task;
+
+        Entry(int id, Task task) {
+            this.id = id;
+            this.task = task;
+        }
+    }
+
+    /** Growable, ascending list of entry ids. */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return; // trigram repeats within the same task
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
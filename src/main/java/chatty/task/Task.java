@@ -7,6 +7,13 @@ package chatty.task;
 public class Task {
     protected final String description;
     protected boolean isDone;
+    private boolean isDirty;
+    /** Unique among the tasks of a list and never reused for another task; 0 until the task has one. */
+    private int id;
+    /* Cached renderings, or null until next needed; cleared whenever the status changes. */
+    private String dataString;
+    private String displayString;
+    private String searchString;
 
     /**
      * Constructs a new Task object with the specified description.
@@ -19,6 +26,7 @@ public class Task {
     public Task(String description) {
         this.description = description;
         this.isDone = false;
+        this.isDirty = true;
     }
 
     /**
@@ -39,6 +47,29 @@ public class Task {
         return description;
     }
 
+    /**
+     * Returns the ID of the task, which stays the same however the list around it changes.
+     *
+     * @return the ID, or 0 if the task has not been given one yet.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gives the task its ID. A {@link TaskList} does this when the task is added; storage does it when
+     * reading a task back, and {@link TaskList#ensureUniqueIds(java.util.List)} when a file had none.
+     *
+     * @param id the ID, a positive number.
+     */
+    public void setId(int id) {
+        assert id > 0 : "Task IDs are positive";
+        if (this.id != id) {
+            this.id = id;
+            dataString = null;
+        }
+    }
+
     /**
      * Marks the task as done.
      *
@@ -46,7 +77,11 @@ public class Task {
      * @see Boolean
      */
     public void mark() {
-        this.isDone = true;
+        if (!isDone) {
+            this.isDone = true;
+            this.isDirty = true;
+            forgetRenderings();
+        }
     }
 
     /**
@@ -56,7 +91,27 @@ public class Task {
      * @see Boolean
      */
     public void unmark() {
-        this.isDone = false;
+        if (isDone) {
+            this.isDone = false;
+            this.isDirty = true;
+            forgetRenderings();
+        }
+    }
+
+    /**
+     * Returns whether the task was created or changed since it was last persisted.
+     *
+     * @return true if the task has unsaved changes.
+     */
+    public boolean isDirty() {
+        return isDirty;
+    }
+
+    /**
+     * Records that the current state of the task has been persisted.
+     */
+    public void clearDirty() {
+        this.isDirty = false;
     }
 
     /**
@@ -74,6 +129,24 @@ public class Task {
 
     /**
      * Converts the task to a string representation that can be stored in a file.
+     * The string is built by {@link #buildDataString()}, followed by {@code /-/} and the ID if the task
+     * has one, and kept until the task is marked or unmarked, so saving an unchanged task again does not
+     * format its dates again.
+     *
+     * @return a string representation of the task that can be stored in a file.
+     * @see #buildDataString()
+     */
+    public final String toDataString() {
+        String s = dataString;
+        if (s == null) {
+            s = id > 0 ? buildDataString() + "/-/" + id : buildDataString();
+            dataString = s;
+        }
+        return s;
+    }
+
+    /**
+     * Builds the string representation of the task that can be stored in a file.
      * The string is formatted as follows: "/-/{isDone}/-/{description}".
      * The isDone field is represented by a "1" if the task is done, and a "0" otherwise.
      * The description field is represented by the description of the task.
@@ -81,15 +154,58 @@ public class Task {
      * @return a string representation of the task that can be stored in a file.
      * @see Task#isDone
      * @see Task#description
-     * @see String#format(String, Object...)
-     * @see String#valueOf(boolean)
      */
-    public String toDataString() {
+    protected String buildDataString() {
         return "/-/" + (isDone ? "1" : "0") + "/-/" + description;
     }
 
+    /**
+     * Returns the task as shown to the user, such as {@code [T][X] read book}.
+     * The string is built by {@link #buildDisplayString()} and kept until the task is marked or unmarked,
+     * so listing and searching an unchanged task reuse it.
+     *
+     * @return the display string of the task.
+     * @see #buildDisplayString()
+     */
     @Override
-    public String toString() {
+    public final String toString() {
+        String s = displayString;
+        if (s == null) {
+            s = buildDisplayString();
+            displayString = s;
+        }
+        return s;
+    }
+
+    /**
+     * Returns the lower-cased {@link #toString()}, which {@code find} matches keywords against.
+     * It is kept until the task is marked or unmarked, like the display string.
+     *
+     * @return the lower-cased display string of the task.
+     */
+    public final String toSearchString() {
+        String s = searchString;
+        if (s == null) {
+            s = toString().toLowerCase();
+            searchString = s;
+        }
+        return s;
+    }
+
+    /**
+     * Builds the string representation of the task shown to the user.
+     * The string is formatted as follows: "[{status}] {description}".
+     *
+     * @return the display string of the task.
+     * @see #getStatus()
+     */
+    protected String buildDisplayString() {
         return "[" + getStatus() + "] " + description;
     }
+
+    private void forgetRenderings() {
+        dataString = null;
+        displayString = null;
+        searchString = null;
+    }
 }
@@ -1,28 +1,177 @@
 package chatty.task;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+
+import chatty.exceptions.ChattyException;
 
 /**
  * Represents a list of tasks. A TaskList object contains an ArrayList of Task objects.
  * The TaskList class provides methods to add, remove, and retrieve tasks from the list.
+ *
+ * <p>Besides its position, which changes as tasks before it are removed, every task has an ID that never
+ * changes. Tasks get one when they are added, and {@link #indexOfId(int)} finds a task by it. In memory,
+ * the tasks are kept in {@link TaskSlots}, which looks IDs up by hash and removes tasks without shifting
+ * the ones behind them.</p>
  */
 public class TaskList {
-    private final ArrayList<Task> tasks = new ArrayList<>();
+    private final List<Task> tasks;
+    private final ArrayList<Listener> listeners = new ArrayList<>();
+    /** Search indexes; all {@code null} when the tasks are not all held in memory. */
+    private KeywordIndex keywords;
+    private TimeIndex times;
+    private AgendaIndex agenda;
+    /** The ID the next task added without one gets. */
+    private int nextId;
+    /** Tasks that became dirty since the last {@link #clearDirty()}; may include removed tasks. */
+    private final ArrayList<Task> dirtyTasks = new ArrayList<>();
+    private boolean hasRemovals;
+    /** Changes made since {@link #beginBatch()}, oldest first; {@code null} outside a batch. */
+    private ArrayList<Change> batch;
+    private int batchDirtyMark;
+    private boolean batchHadRemovals;
 
     /**
      * Constructs a new TaskList object with the specified seed.
      * If the seed is null, the TaskList is initialized with an empty ArrayList.
-     * Otherwise, the TaskList is initialized with the seed.
+     * Otherwise, the TaskList is initialized with the seed, which is assumed to be persisted already.
      *
      * @param seed the seed to initialize the TaskList with.
      * @see ArrayList
      * @see Task
      */
     public TaskList(ArrayList<Task> seed) {
+        this(seed, 0);
+    }
+
+    /**
+     * Constructs a new TaskList object with the specified seed, which is assumed to be persisted already.
+     * New tasks get IDs above {@code highestId} as well as above every ID in the seed, so the ID of a task
+     * removed before the seed was saved is not given out again.
+     *
+     * @param seed the seed to initialize the TaskList with; may be {@code null}.
+     * @param highestId the highest ID given to a task so far, including removed ones, or 0 if unknown.
+     */
+    public TaskList(ArrayList<Task> seed, int highestId) {
+        tasks = new TaskSlots();
+        keywords = new KeywordIndex();
+        times = new TimeIndex();
+        agenda = new AgendaIndex();
         if (seed != null) {
+            ensureUniqueIds(seed, highestId);
             tasks.addAll(seed);
         }
+        nextId = highestId;
+        for (Task t : tasks) {
+            t.clearDirty();
+            keywords.add(t);
+            times.add(t);
+            agenda.add(t);
+            nextId = Math.max(nextId, t.getId());
+        }
+        nextId++;
+    }
+
+    private TaskList(List<Task> store, int highestId) {
+        tasks = store;
+        keywords = null;
+        times = null;
+        agenda = null;
+        nextId = highestId + 1;
+    }
+
+    /**
+     * Returns a TaskList that works directly on the given store, which is assumed to be persisted already.
+     * No search indexes are built, so the store is never read in full up front; {@link #find(String)},
+     * {@link #findTimed(LocalDateTime, LocalDateTime)} and {@link #indexOfId(int)} scan it instead.
+     *
+     * <p>The store may hand out a fresh copy of a task on every {@link List#get(int)}: status changes are
+     * written back with {@link List#set(int, Object)}.</p>
+     *
+     * @param store the tasks, such as a list that reads them from disk on demand. Every task must have
+     *     a unique ID.
+     * @param highestId the highest ID given to a task so far, including removed ones, or 0 if none was.
+     * @return a TaskList over {@code store}.
+     */
+    public static TaskList backedBy(List<Task> store, int highestId) {
+        return new TaskList(store, highestId);
+    }
+
+    /**
+     * Returns a TaskList that keeps its tasks in a {@link ColumnarTaskList}: in primitive arrays instead of one
+     * object per task, which takes a fraction of the memory for large lists. Like {@link #backedBy(List, int)},
+     * it builds no search indexes, so {@link #find(String)} scans the tasks; {@link #findTimed(LocalDateTime,
+     * LocalDateTime)} and {@link #indexOfId(int)} scan single columns without building the tasks.
+     *
+     * @param seed the tasks, which are copied and assumed to be persisted already.
+     * @return a TaskList holding the tasks column by column.
+     */
+    public static TaskList columnar(List<Task> seed) {
+        return columnar(seed, 0);
+    }
+
+    /**
+     * Returns a TaskList that keeps its tasks column by column, like {@link #columnar(List)}, and gives new
+     * tasks IDs above {@code highestId} as well as above every ID in the seed.
+     *
+     * @param seed the tasks, which are copied and assumed to be persisted already.
+     * @param highestId the highest ID given to a task so far, including removed ones, or 0 if unknown.
+     * @return a TaskList holding the tasks column by column.
+     */
+    public static TaskList columnar(List<Task> seed, int highestId) {
+        ensureUniqueIds(seed, highestId);
+        ColumnarTaskList store = new ColumnarTaskList(seed.size());
+        int highest = highestId;
+        for (Task t : seed) {
+            store.add(t);
+            highest = Math.max(highest, t.getId());
+        }
+        return new TaskList(store, highest);
+    }
+
+    /**
+     * Gives every task without an ID, or with the ID of a task before it, a new ID above all others,
+     * in list order. Tasks that get an ID are written back with {@link List#set(int, Object)}.
+     * Storage calls this for files written before tasks had IDs.
+     *
+     * @param tasks the tasks to check.
+     * @return true if any task was given a new ID.
+     */
+    public static boolean ensureUniqueIds(List<Task> tasks) {
+        return ensureUniqueIds(tasks, 0);
+    }
+
+    /**
+     * Gives every task without an ID, or with the ID of a task before it, a new ID above all others and
+     * above {@code highestId}, in list order, like {@link #ensureUniqueIds(List)}.
+     *
+     * @param tasks the tasks to check.
+     * @param highestId the highest ID given to a task so far, including removed ones, or 0 if unknown.
+     * @return true if any task was given a new ID.
+     */
+    public static boolean ensureUniqueIds(List<Task> tasks, int highestId) {
+        int highest = highestId;
+        for (Task t : tasks) {
+            highest = Math.max(highest, t.getId());
+        }
+        IdIndex seen = new IdIndex();
+        boolean isChanged = false;
+        for (int i = 0; i < tasks.size(); i++) {
+            Task t = tasks.get(i);
+            if (t.getId() > 0 && seen.get(t.getId()) < 0) {
+                seen.put(t.getId(), i);
+                continue;
+            }
+            t.setId(++highest);
+            tasks.set(i, t);
+            isChanged = true;
+        }
+        return isChanged;
     }
 
     /**
@@ -47,7 +196,80 @@ public class TaskList {
     }
 
     /**
-     * Adds the specified task to the TaskList.
+     * Returns the position of the task with the given ID. In memory this is a hash lookup, plus
+     * O(log n) to count the tasks before it while removed tasks are still waiting to be compacted away.
+     *
+     * @param id the ID of the task.
+     * @return the 0-based position of the task, or -1 if no task has that ID.
+     * @see Task#getId()
+     */
+    public int indexOfId(int id) {
+        if (tasks instanceof TaskSlots slots) {
+            return slots.indexOfId(id);
+        }
+        if (tasks instanceof ColumnarTaskList columns) {
+            return columns.indexOfId(id);
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).getId() == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of tasks that are done. In memory this is a counter kept next to the bitmap of done
+     * tasks, which {@link #mark(int)} and {@link #unmark(int)} keep up to date; a task marked directly with
+     * {@link Task#mark()} is only counted once it is written back through this TaskList.
+     *
+     * @return the number of done tasks.
+     */
+    public int countDone() {
+        if (tasks instanceof TaskSlots slots) {
+            return slots.countDone();
+        }
+        if (tasks instanceof ColumnarTaskList columns) {
+            return columns.countDone();
+        }
+        int count = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).getIsDone()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the positions of the tasks that are done, or of those that are not yet done. In memory they are
+     * read from a bitmap, so the cost grows with the number of matching tasks rather than with the list.
+     *
+     * @param isDone whether to return the done tasks rather than the pending ones.
+     * @return the 0-based positions of the matching tasks, in ascending order.
+     */
+    public int[] positionsWithStatus(boolean isDone) {
+        if (tasks instanceof TaskSlots slots) {
+            return slots.positionsWithStatus(isDone);
+        }
+        if (tasks instanceof ColumnarTaskList columns) {
+            return columns.positionsWithStatus(isDone);
+        }
+        int[] positions = new int[16];
+        int count = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).getIsDone() == isDone) {
+                if (count == positions.length) {
+                    positions = Arrays.copyOf(positions, count * 2);
+                }
+                positions[count++] = i;
+            }
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    /**
+     * Adds the specified task to the TaskList, giving it the next free ID if it has none.
      *
      * @param t the task to be added to the TaskList.
      * @see ArrayList#add(Object)
@@ -55,7 +277,20 @@ public class TaskList {
      * @see TaskList#tasks
      */
     public void add(Task t) {
+        if (t.getId() == 0) {
+            t.setId(nextId++);
+        } else {
+            assert indexOfId(t.getId()) < 0 : "Task IDs must be unique";
+            nextId = Math.max(nextId, t.getId() + 1);
+        }
         tasks.add(t);
+        if (keywords != null) {
+            keywords.add(t);
+            times.add(t);
+            agenda.add(t);
+        }
+        dirtyTasks.add(t);
+        changed(new Change(Change.Kind.ADD, tasks.size() - 1, t));
     }
 
     /**
@@ -69,38 +304,498 @@ public class TaskList {
      */
     public Task remove(int idx) {
         assert idx >= 0 && idx < tasks.size() : "Index out of bounds in TaskList#remove";
-        return tasks.remove(idx);
+        Task removed = tasks.remove(idx);
+        if (keywords != null) {
+            keywords.remove(removed);
+            times.remove(removed);
+            agenda.remove(removed);
+        }
+        hasRemovals = true;
+        changed(new Change(Change.Kind.REMOVE, idx, removed));
+        return removed;
     }
 
     /**
-     * Returns the TaskList as an ArrayList of Task objects.
+     * Removes the tasks at the given positions in a single pass, instead of shifting the
+     * remaining tasks once per removal. Listeners are notified of each removal from the
+     * highest position down, so every reported position is valid at that point.
      *
-     * @return the TaskList as an ArrayList of Task objects.
-     * @see ArrayList
+     * @param indices the 0-based positions to remove, in strictly ascending order.
+     * @return the removed tasks, in list order.
+     * @see #remove(int)
+     */
+    public List<Task> removeAll(int[] indices) {
+        ArrayList<Task> removed = new ArrayList<>(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            assert i == 0 || indices[i - 1] < indices[i] : "Positions must be strictly ascending";
+            removed.add(tasks.get(indices[i]));
+        }
+        if (indices.length == 0) {
+            return removed;
+        }
+        removePositions(tasks, indices);
+        if (keywords != null) {
+            for (Task t : removed) {
+                keywords.remove(t);
+                times.remove(t);
+                agenda.remove(t);
+            }
+        }
+        hasRemovals = true;
+        for (int i = indices.length - 1; i >= 0; i--) {
+            changed(new Change(Change.Kind.REMOVE, indices[i], removed.get(i)));
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the elements at the given strictly ascending positions. Array lists are compacted in one
+     * pass, and {@link TaskSlots} leave a tombstone per position; other lists lose one range per run of
+     * adjacent positions, starting from the back.
+     */
+    static <T> void removePositions(List<T> list, int[] sorted) {
+        if (list instanceof TaskSlots) {
+            for (int i = sorted.length - 1; i >= 0; i--) {
+                list.remove(sorted[i]);
+            }
+            return;
+        }
+        if (list instanceof ArrayList) {
+            int write = sorted[0];
+            int next = 0;
+            for (int read = sorted[0]; read < list.size(); read++) {
+                if (next < sorted.length && sorted[next] == read) {
+                    next++;
+                } else {
+                    list.set(write++, list.get(read));
+                }
+            }
+            list.subList(write, list.size()).clear();
+            return;
+        }
+        int end = sorted.length;
+        while (end > 0) {
+            int start = end - 1;
+            while (start > 0 && sorted[start - 1] == sorted[start] - 1) {
+                start--;
+            }
+            list.subList(sorted[start], sorted[end - 1] + 1).clear();
+            end = start;
+        }
+    }
+
+    /**
+     * Marks the task at the specified index as done. Listeners are only notified if its status changed.
+     *
+     * @param idx the index of the task to mark.
+     * @return the task that was marked.
+     * @see Task#mark()
+     */
+    public Task mark(int idx) {
+        Task t = tasks.get(idx);
+        boolean wasDirty = t.isDirty();
+        boolean wasDone = t.getIsDone();
+        t.mark();
+        if (t.getIsDone() != wasDone) {
+            statusChanged(idx, t, wasDirty);
+        }
+        return t;
+    }
+
+    /**
+     * Marks the task at the specified index as not done. Listeners are only notified if its status changed.
+     *
+     * @param idx the index of the task to unmark.
+     * @return the task that was unmarked.
+     * @see Task#unmark()
+     */
+    public Task unmark(int idx) {
+        Task t = tasks.get(idx);
+        boolean wasDirty = t.isDirty();
+        boolean wasDone = t.getIsDone();
+        t.unmark();
+        if (t.getIsDone() != wasDone) {
+            statusChanged(idx, t, wasDirty);
+        }
+        return t;
+    }
+
+    private void statusChanged(int idx, Task t, boolean wasDirty) {
+        tasks.set(idx, t);
+        if (agenda != null) {
+            if (t.getIsDone()) {
+                agenda.remove(t);
+            } else {
+                agenda.add(t);
+            }
+        }
+        if (!wasDirty) {
+            dirtyTasks.add(t);
+        }
+        changed(new Change(Change.Kind.STATUS, idx, t));
+    }
+
+    /** Notifies the listeners of a change, or holds it back until the current batch is committed. */
+    private void changed(Change c) {
+        if (batch != null) {
+            batch.add(c);
+        } else {
+            notifyListeners(c);
+        }
+    }
+
+    private void notifyListeners(Change c) {
+        for (Listener l : listeners) {
+            switch (c.kind()) {
+            case ADD:
+                l.onAdd(c.idx(), c.task());
+                break;
+            case REMOVE:
+                l.onRemove(c.idx(), c.task());
+                break;
+            default:
+                l.onStatusChange(c.idx(), c.task());
+                break;
+            }
+        }
+    }
+
+    /**
+     * Starts a batch of changes that is either committed or rolled back as a whole.
+     * Until then, listeners are not notified, so nothing of the batch reaches a journal.
+     * Batches cannot be nested.
+     *
+     * @see #commitBatch()
+     * @see #rollbackBatch()
+     */
+    public void beginBatch() {
+        assert batch == null : "Batch already in progress";
+        batch = new ArrayList<>();
+        batchDirtyMark = dirtyTasks.size();
+        batchHadRemovals = hasRemovals;
+    }
+
+    /**
+     * Keeps the changes made since {@link #beginBatch()} and notifies the listeners of them, in order.
+     */
+    public void commitBatch() {
+        assert batch != null : "No batch in progress";
+        ArrayList<Change> done = batch;
+        batch = null;
+        for (Change c : done) {
+            notifyListeners(c);
+        }
+    }
+
+    /**
+     * Undoes the changes made since {@link #beginBatch()}, newest first, including their effect on
+     * {@link #isDirty()}. Listeners never hear of them.
+     */
+    public void rollbackBatch() {
+        assert batch != null : "No batch in progress";
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            Change c = batch.get(i);
+            Task t = c.task();
+            switch (c.kind()) {
+            case ADD:
+                tasks.remove(c.idx());
+                break;
+            case REMOVE:
+                tasks.add(c.idx(), t);
+                break;
+            default:
+                if (t.getIsDone()) {
+                    t.unmark();
+                } else {
+                    t.mark();
+                }
+                tasks.set(c.idx(), t);
+                break;
+            }
+        }
+        batch = null;
+
+        for (int i = batchDirtyMark; i < dirtyTasks.size(); i++) {
+            dirtyTasks.get(i).clearDirty(); // back to the state it had before the batch
+        }
+        dirtyTasks.subList(batchDirtyMark, dirtyTasks.size()).clear();
+        hasRemovals = batchHadRemovals;
+
+        if (keywords != null) {
+            keywords = new KeywordIndex();
+            times = new TimeIndex();
+            agenda = new AgendaIndex();
+            for (Task t : tasks) {
+                keywords.add(t);
+                times.add(t);
+                agenda.add(t);
+            }
+        }
+    }
+
+    /**
+     * Returns whether any task was added, removed or changed since the last {@link #clearDirty()}.
+     *
+     * @return true if the TaskList has unsaved changes.
+     */
+    public boolean isDirty() {
+        return hasRemovals || !dirtyTasks.isEmpty();
+    }
+
+    /**
+     * Returns whether any task was removed since the last {@link #clearDirty()}.
+     *
+     * @return true if a removal has not been persisted yet.
+     */
+    public boolean hasRemovals() {
+        return hasRemovals;
+    }
+
+    /**
+     * Returns the highest ID given to a task in this list, including tasks since removed. It never
+     * goes down, so that a saved high-water mark keeps IDs from being given out twice.
+     *
+     * @return the highest ID given so far, or 0 if none was.
+     */
+    public int highestId() {
+        return nextId - 1;
+    }
+
+    /**
+     * Records that the current state of every task has been persisted.
+     */
+    public void clearDirty() {
+        for (Task t : dirtyTasks) {
+            t.clearDirty();
+        }
+        dirtyTasks.clear();
+        hasRemovals = false;
+    }
+
+    /**
+     * Registers a listener that is notified after every change made through this TaskList,
+     * or, for changes made in a batch, when the batch is committed.
+     *
+     * @param l the listener to register.
+     */
+    public void addListener(Listener l) {
+        listeners.add(l);
+    }
+
+    /**
+     * Returns a read-only view of the tasks in the TaskList.
+     * Changes must go through the TaskList so that its index stays in sync.
+     *
+     * @return a read-only view of the tasks in the TaskList.
      * @see Task
      * @see TaskList#tasks
      */
-    public ArrayList<Task> asList() {
-        return tasks;
+    public List<Task> asList() {
+        return Collections.unmodifiableList(tasks);
     }
 
     /**
      * Finds and returns a list of tasks that match the given keyword.
+     * A task matches if its lower-cased display string contains the lower-cased keyword.
+     * Lookups go through a {@link KeywordIndex} where there is one, and compare against the search
+     * string each task caches, so repeated searches do not render and lower-case every task again.
      *
      * @param keyword the keyword to search for in the tasks.
-     * @return a list of tasks that match the keyword.
-     * @see ArrayList
-     * @see Task
+     * @return a list of tasks that match the keyword, in list order.
+     * @see KeywordIndex
+     * @see Task#toSearchString()
      */
     public List<Task> find(String keyword) {
         assert keyword != null && !keyword.isEmpty() : "Search keyword should be non-null and non-empty";
-        ArrayList<Task> matches = new ArrayList<>();
+        if (keywords != null) {
+            return keywords.find(keyword);
+        }
         String k = keyword.toLowerCase();
-        for (Task t : tasks) {
-            if (t.toString().toLowerCase().contains(k)) {
+        ArrayList<Task> matches = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            Task t = tasks.get(i);
+            if (t.toSearchString().contains(k)) {
                 matches.add(t);
             }
         }
         return matches;
     }
+
+    /**
+     * Returns the deadlines and events whose time overlaps the given window.
+     * A deadline overlaps if its due time lies in the window; an event overlaps if any part of it does.
+     *
+     * @param from the start of the window, inclusive.
+     * @param to the end of the window, inclusive.
+     * @return the overlapping deadlines and events, in list order.
+     * @see TimeIndex
+     */
+    public List<Task> findTimed(LocalDateTime from, LocalDateTime to) {
+        assert !to.isBefore(from) : "Window must not end before it starts";
+        if (times != null) {
+            return times.overlapping(from, to);
+        }
+        long lo = TemporalCodec.toMinutes(from);
+        long hi = TemporalCodec.toMinutes(to);
+        if (tasks instanceof ColumnarTaskList columns) {
+            return columns.overlapping(lo, hi);
+        }
+        ArrayList<Task> hits = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            Task t = tasks.get(i);
+            if (t instanceof Deadline d && overlaps(d.getBy(), d.getBy(), lo, hi)
+                    || t instanceof Event e && overlaps(e.getFrom(), e.getTo(), lo, hi)) {
+                hits.add(t);
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Returns the next deadlines and events that are not done yet, soonest first: deadlines by when they are
+     * due and events by when they start, at the minute. Tasks due or starting at the same minute come in
+     * the order of their IDs. In memory they are read from an {@link AgendaIndex}, so the cost depends on
+     * {@code count} rather than on the size of the list.
+     *
+     * @param from the earliest time to include, such as now.
+     * @param count the maximum number of tasks to return; must be positive.
+     * @return at most {@code count} tasks that are due or start at or after {@code from}.
+     */
+    public List<Task> upcoming(LocalDateTime from, int count) {
+        assert count > 0 : "Count must be positive";
+        if (agenda != null) {
+            return agenda.upcoming(from, count);
+        }
+        long lo = TemporalCodec.toMinutes(from);
+        if (tasks instanceof ColumnarTaskList columns) {
+            return columns.upcoming(lo, count);
+        }
+        // Keep the soonest tasks seen so far in a heap whose head is the latest of them
+        Comparator<Task> soonestFirst = Comparator.comparingLong(AgendaIndex::keyOf).thenComparingInt(Task::getId);
+        PriorityQueue<Task> next = new PriorityQueue<>(Math.min(count, tasks.size()) + 1, soonestFirst.reversed());
+        for (int i = 0; i < tasks.size(); i++) {
+            Task t = tasks.get(i);
+            if (!t.getIsDone() && AgendaIndex.isTimed(t) && AgendaIndex.keyOf(t) >= lo) {
+                next.add(t);
+                if (next.size() > count) {
+                    next.poll();
+                }
+            }
+        }
+        ArrayList<Task> result = new ArrayList<>(next);
+        result.sort(soonestFirst);
+        return result;
+    }
+
+    /**
+     * Hands the ID and time of every deadline and event that is not done and is due or starts at or after the
+     * given time to a visitor, in no particular order, without keeping any task. In memory the agenda index
+     * is walked and in a {@link ColumnarTaskList} the columns are, so no task is built; other stores are read
+     * one task at a time.
+     *
+     * @param from the earliest time to include; seconds are ignored.
+     * @param visitor receives each task's ID and the epoch minute it is due or starts, on the wall clock.
+     */
+    public void forEachUpcoming(LocalDateTime from, UpcomingVisitor visitor) {
+        long lo = TemporalCodec.toMinutes(from);
+        if (agenda != null) {
+            agenda.forEachFrom(lo, visitor);
+            return;
+        }
+        if (tasks instanceof ColumnarTaskList columns) {
+            columns.forEachUpcoming(lo, visitor);
+            return;
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            Task t = tasks.get(i);
+            if (!t.getIsDone() && AgendaIndex.isTimed(t) && AgendaIndex.keyOf(t) >= lo) {
+                visitor.visit(t.getId(), AgendaIndex.keyOf(t));
+            }
+        }
+    }
+
+    private static boolean overlaps(LocalDateTime start, LocalDateTime end, long lo, long hi) {
+        return TemporalCodec.toMinutes(start) <= hi && TemporalCodec.toMinutes(end) >= lo;
+    }
+
+    /**
+     * Runs work that only reads this TaskList, such as listing or searching, as one consistent step.
+     * A plain TaskList runs it holding its monitor, like {@link #write(Action)}, so that a helper thread
+     * such as the reminder thread never sees a change half made; for lists shared by many threads, see
+     * {@link ConcurrentTaskList}.
+     *
+     * @param action the work to run.
+     * @param <T> the type of its result.
+     * @return the result of {@code action}.
+     * @throws ChattyException if {@code action} does.
+     */
+    public <T> T read(Action<T> action) throws ChattyException {
+        synchronized (this) {
+            return action.run();
+        }
+    }
+
+    /**
+     * Runs work that changes this TaskList as one step, so that task numbers checked at the start
+     * still refer to the same tasks when the change is made.
+     * A plain TaskList runs it holding its monitor; see {@link #read(Action)}.
+     *
+     * @param action the work to run.
+     * @param <T> the type of its result.
+     * @return the result of {@code action}.
+     * @throws ChattyException if {@code action} does.
+     */
+    public <T> T write(Action<T> action) throws ChattyException {
+        synchronized (this) {
+            return action.run();
+        }
+    }
+
+    /** A change made through this TaskList, kept for listeners and for undo while a batch is open. */
+    private record Change(Kind kind, int idx, Task task) {
+        enum Kind { ADD, REMOVE, STATUS }
+    }
+
+    /**
+     * Work run by {@link #read(Action)} or {@link #write(Action)}.
+     *
+     * @param <T> the type of its result.
+     */
+    @FunctionalInterface
+    public interface Action<T> {
+        /** Runs the work. */
+        T run() throws ChattyException;
+    }
+
+    /**
+     * Receives the deadlines and events found by {@link #forEachUpcoming(LocalDateTime, UpcomingVisitor)}.
+     */
+    @FunctionalInterface
+    public interface UpcomingVisitor {
+        /**
+         * Visits one task.
+         *
+         * @param id the task's ID.
+         * @param minute the epoch minute the task is due or starts, on the wall clock.
+         */
+        void visit(int id, long minute);
+    }
+
+    /**
+     * Receives notifications about changes made through a TaskList.
+     * Indices passed to the callbacks are the 0-based positions at the time of the change.
+     */
+    public interface Listener {
+        /** Called after a task has been appended at {@code idx}. */
+        default void onAdd(int idx, Task t) {
+        }
+
+        /** Called after the task at {@code idx} has been removed. */
+        default void onRemove(int idx, Task t) {
+        }
+
+        /** Called after the task at {@code idx} has been marked or unmarked. */
+        default void onStatusChange(int idx, Task t) {
+        }
+    }
 }
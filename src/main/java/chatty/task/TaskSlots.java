@@ -0,0 +1,300 @@
+package chatty.task;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * The tasks of an in-memory {@link TaskList}, in list order, where removing a task does not move the ones
+ * behind it.
+ *
+ * <p>Every task gets a slot when it is appended. Removing it leaves a tombstone in its slot, so a removal
+ * costs O(log n) instead of shifting every later task. A Fenwick tree over the slots counts the live ones,
+ * which turns a position into a slot and back in O(log n) while there are tombstones, and not at all while
+ * there are none. Once tombstones make up a fifth of the slots (and there are at least
+ * {@link #MIN_COMPACT}), the live tasks are moved together in one pass.</p>
+ *
+ * <p>An {@link IdIndex} maps every task's ID to its slot, so {@link #indexOfId(int)} needs no scan.</p>
+ *
+ * <p>Two bitmaps over the slots mark the live tasks that are done and those that are not, and follow every
+ * {@link #set(int, Task)}. Counting either kind takes O(1), and {@link #positionsWithStatus(boolean)} only visits
+ * the set bits, 64 slots per word.</p>
+ */
+final class TaskSlots extends AbstractList<Task> implements RandomAccess {
+    static final int MIN_COMPACT = 64;
+
+    /** Tasks by slot; {@code null} for tombstones. */
+    private Task[] slots = new Task[16];
+    /** Fenwick tree over the slots, 1-based: node {@code i} counts the live slots in {@code (i - lowbit(i), i]}. */
+    private int[] tree = new int[17];
+    /** The number of slots handed out, live or not. */
+    private int used;
+    private int size;
+    private final IdIndex ids = new IdIndex();
+    /** Live slots whose task is done, and live slots whose task is not. */
+    private final BitSet done = new BitSet();
+    private final BitSet pending = new BitSet();
+    private int doneCount;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int idx) {
+        return slots[slotOf(idx)];
+    }
+
+    @Override
+    public Task set(int idx, Task t) {
+        int slot = slotOf(idx);
+        Task old = slots[slot];
+        slots[slot] = t;
+        setStatus(slot, t.getIsDone());
+        if (old.getId() != t.getId()) {
+            ids.remove(old.getId());
+            ids.put(t.getId(), slot);
+        }
+        return old;
+    }
+
+    @Override
+    public boolean add(Task t) {
+        append(t);
+        size++;
+        modCount++;
+        return true;
+    }
+
+    /** Inserts a task before the end, which only undoing a removal does; costs a full pass. */
+    @Override
+    public void add(int idx, Task t) {
+        if (idx == size) {
+            add(t);
+            return;
+        }
+        checkIndex(idx, size);
+        compact();
+        if (used == slots.length) {
+            grow();
+        }
+        System.arraycopy(slots, idx, slots, idx + 1, used - idx);
+        slots[idx] = t;
+        used++;
+        size++;
+        rebuild();
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int idx) {
+        int slot = slotOf(idx);
+        Task old = slots[slot];
+        slots[slot] = null;
+        for (int i = slot + 1; i <= used; i += i & -i) {
+            tree[i]--;
+        }
+        ids.remove(old.getId());
+        if (done.get(slot)) {
+            done.clear(slot);
+            doneCount--;
+        } else {
+            pending.clear(slot);
+        }
+        size--;
+        modCount++;
+        int dead = used - size;
+        if (dead >= MIN_COMPACT && dead > used / 5) {
+            compact();
+        }
+        return old;
+    }
+
+    @Override
+    protected void removeRange(int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            remove(i);
+        }
+    }
+
+    /**
+     * Returns the position of the task with the given ID.
+     *
+     * @param id the task ID.
+     * @return its 0-based position, or -1 if no task has that ID.
+     */
+    int indexOfId(int id) {
+        int slot = ids.get(id);
+        if (slot < 0 || used == size) {
+            return slot;
+        }
+        return liveBefore(slot);
+    }
+
+    /**
+     * Returns the number of tasks that are done.
+     *
+     * @return the number of done tasks.
+     */
+    int countDone() {
+        return doneCount;
+    }
+
+    /**
+     * Returns the positions of the tasks that are done, or of those that are not, reading one bitmap.
+     *
+     * @param isDone whether to return the done tasks rather than the pending ones.
+     * @return the 0-based positions, in ascending order.
+     */
+    int[] positionsWithStatus(boolean isDone) {
+        BitSet matching = isDone ? done : pending;
+        int[] positions = new int[isDone ? doneCount : size - doneCount];
+        int n = 0;
+        for (int slot = matching.nextSetBit(0); slot >= 0; slot = matching.nextSetBit(slot + 1)) {
+            positions[n++] = used == size ? slot : liveBefore(slot);
+        }
+        return positions;
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+            private final int expectedModCount = modCount;
+            private int next = skipTombstones(0);
+
+            @Override
+            public boolean hasNext() {
+                return next < used;
+            }
+
+            @Override
+            public Task next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next >= used) {
+                    throw new NoSuchElementException();
+                }
+                Task t = slots[next];
+                next = skipTombstones(next + 1);
+                return t;
+            }
+        };
+    }
+
+    private int skipTombstones(int slot) {
+        while (slot < used && slots[slot] == null) {
+            slot++;
+        }
+        return slot;
+    }
+
+    /** Returns the number of live slots before a slot, which is the position of the task in it. */
+    private int liveBefore(int slot) {
+        int count = 0;
+        for (int i = slot; i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    /** Records whether the task in a live slot is done. */
+    private void setStatus(int slot, boolean isDone) {
+        if (done.get(slot) != isDone) {
+            doneCount += isDone ? 1 : -1;
+        }
+        done.set(slot, isDone);
+        pending.set(slot, !isDone);
+    }
+
+    /** Returns the slot of the task at a position, walking down the Fenwick tree if there are tombstones. */
+    private int slotOf(int idx) {
+        checkIndex(idx, size);
+        if (used == size) {
+            return idx;
+        }
+        int[] t = tree;
+        int node = 0;
+        int remaining = idx + 1;
+        for (int step = Integer.highestOneBit(used); step > 0; step >>= 1) {
+            int next = node + step;
+            if (next <= used && t[next] < remaining) {
+                node = next;
+                remaining -= t[next];
+            }
+        }
+        return node; // node + 1 is the slot's own node, as nodes are 1-based
+    }
+
+    private void append(Task t) {
+        if (used == slots.length) {
+            grow();
+        }
+        int slot = used++;
+        slots[slot] = t;
+        ids.put(t.getId(), slot);
+        setStatus(slot, t.getIsDone());
+        // The new node counts this slot plus the live slots in (used - lowbit(used), used - 1],
+        // which the nodes below it split into exactly.
+        int count = 1;
+        int low = used - (used & -used);
+        for (int i = used - 1; i > low; i -= i & -i) {
+            count += tree[i];
+        }
+        tree[used] = count;
+    }
+
+    private void grow() {
+        int capacity = slots.length * 2;
+        slots = Arrays.copyOf(slots, capacity);
+        tree = Arrays.copyOf(tree, capacity + 1);
+    }
+
+    /** Moves the live tasks together, dropping every tombstone. */
+    private void compact() {
+        if (used == size) {
+            return;
+        }
+        int write = 0;
+        for (int read = 0; read < used; read++) {
+            if (slots[read] != null) {
+                slots[write++] = slots[read];
+            }
+        }
+        Arrays.fill(slots, write, used, null);
+        used = write;
+        rebuild();
+    }
+
+    /** Rebuilds the Fenwick tree, the ID index and the status bitmaps from the slots. */
+    private void rebuild() {
+        Arrays.fill(tree, 0);
+        ids.clear();
+        done.clear();
+        pending.clear();
+        doneCount = 0;
+        for (int slot = 0; slot < used; slot++) {
+            int node = slot + 1;
+            if (slots[slot] != null) {
+                tree[node]++;
+                ids.put(slots[slot].getId(), slot);
+                setStatus(slot, slots[slot].getIsDone());
+            }
+            int parent = node + (node & -node);
+            if (parent <= used) {
+                tree[parent] += tree[node];
+            }
+        }
+    }
+
+    private static void checkIndex(int idx, int bound) {
+        if (idx < 0 || idx >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + bound);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package chatty.task;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+
+/**
+ * Reads and writes the dates and times users type and the data file stores: {@code dd-MM-yyyy HHmm}
+ * for a moment and {@code dd-MM-yyyy} for a day. Indexes and binary files keep moments as whole
+ * minutes since the epoch instead.
+ *
+ * <p>Almost every value has exactly that fixed width with a four-digit year, so it is read and written
+ * digit by digit. Anything else, such as a year beyond 9999 or input that is not valid, goes through the
+ * strict {@link DateTimeFormatter}s below, so results and errors are the same as theirs.</p>
+ */
+public final class TemporalCodec {
+    private static final DateTimeFormatter DATE_TIME_FMT = new DateTimeFormatterBuilder()
+            .parseCaseInsensitive()
+            .appendPattern("dd-MM-uuuu HHmm")
+            .toFormatter()
+            .withResolverStyle(ResolverStyle.STRICT);
+    private static final DateTimeFormatter DATE_FMT = new DateTimeFormatterBuilder()
+            .parseCaseInsensitive()
+            .appendPattern("dd-MM-uuuu")
+            .toFormatter()
+            .withResolverStyle(ResolverStyle.STRICT);
+    private static final int DATE_LENGTH = 10;
+    private static final int DATE_TIME_LENGTH = 15;
+    private static final long MIN_MINUTES = toMinutes(LocalDateTime.MIN);
+    private static final long MAX_MINUTES = toMinutes(LocalDateTime.MAX);
+
+    private TemporalCodec() {}
+
+    /* ----------------- parsing ----------------- */
+
+    /**
+     * Parses a moment written as {@code dd-MM-yyyy HHmm}.
+     *
+     * @param s the text to parse.
+     * @return the date and time.
+     * @throws DateTimeParseException if the text is not a valid date and time in that format.
+     */
+    public static LocalDateTime parseDateTime(CharSequence s) {
+        if (s.length() == DATE_TIME_LENGTH && s.charAt(DATE_LENGTH) == ' ') {
+            int hour = twoDigits(s, 11);
+            int minute = twoDigits(s, 13);
+            LocalDate date = fastDate(s);
+            if (date != null && hour >= 0 && hour < 24 && minute >= 0 && minute < 60) {
+                return date.atTime(hour, minute);
+            }
+        }
+        return LocalDateTime.parse(s, DATE_TIME_FMT);
+    }
+
+    /**
+     * Parses a day written as {@code dd-MM-yyyy}.
+     *
+     * @param s the text to parse.
+     * @return the date.
+     * @throws DateTimeParseException if the text is not a valid date in that format.
+     */
+    public static LocalDate parseDate(CharSequence s) {
+        if (s.length() == DATE_LENGTH) {
+            LocalDate date = fastDate(s);
+            if (date != null) {
+                return date;
+            }
+        }
+        return LocalDate.parse(s, DATE_FMT);
+    }
+
+    /** Reads {@code dd-MM-yyyy} from the start of {@code s}, or returns null if it is not a valid date. */
+    private static LocalDate fastDate(CharSequence s) {
+        if (s.charAt(2) != '-' || s.charAt(5) != '-') {
+            return null;
+        }
+        int day = twoDigits(s, 0);
+        int month = twoDigits(s, 3);
+        int century = twoDigits(s, 6);
+        int yearOfCentury = twoDigits(s, 8);
+        if (day < 1 || month < 1 || month > 12 || century < 0 || yearOfCentury < 0) {
+            return null;
+        }
+        int year = century * 100 + yearOfCentury;
+        int lastDay = Month.of(month).length(Year.isLeap(year));
+        return day <= lastDay ? LocalDate.of(year, month, day) : null;
+    }
+
+    /** Returns the two ASCII digits at {@code at} as a number, or a negative number if they are not digits. */
+    private static int twoDigits(CharSequence s, int at) {
+        int tens = s.charAt(at) - '0';
+        int ones = s.charAt(at + 1) - '0';
+        if (tens < 0 || tens > 9 || ones < 0 || ones > 9) {
+            return -1;
+        }
+        return tens * 10 + ones;
+    }
+
+    /* ----------------- formatting ----------------- */
+
+    /**
+     * Formats a moment as {@code dd-MM-yyyy HHmm}.
+     *
+     * @param t the date and time.
+     * @return the formatted text.
+     */
+    public static String formatDateTime(LocalDateTime t) {
+        return appendDateTime(new StringBuilder(DATE_TIME_LENGTH), t).toString();
+    }
+
+    /**
+     * Formats a day as {@code dd-MM-yyyy}.
+     *
+     * @param d the date.
+     * @return the formatted text.
+     */
+    public static String formatDate(LocalDate d) {
+        return appendDate(new StringBuilder(DATE_LENGTH), d).toString();
+    }
+
+    /**
+     * Appends a moment as {@code dd-MM-yyyy HHmm}.
+     *
+     * @param sb where to append the text.
+     * @param t the date and time.
+     * @return {@code sb}.
+     */
+    public static StringBuilder appendDateTime(StringBuilder sb, LocalDateTime t) {
+        appendDate(sb, t.toLocalDate()).append(' ');
+        return appendTime(sb, t);
+    }
+
+    /**
+     * Appends a day as {@code dd-MM-yyyy}.
+     *
+     * @param sb where to append the text.
+     * @param d the date.
+     * @return {@code sb}.
+     */
+    public static StringBuilder appendDate(StringBuilder sb, LocalDate d) {
+        int year = d.getYear();
+        if (year < 0 || year > 9999) {
+            return sb.append(DATE_FMT.format(d));
+        }
+        appendTwoDigits(sb, d.getDayOfMonth()).append('-');
+        appendTwoDigits(sb, d.getMonthValue()).append('-');
+        appendTwoDigits(sb, year / 100);
+        return appendTwoDigits(sb, year % 100);
+    }
+
+    /**
+     * Appends the time of day of a moment as {@code HHmm}.
+     *
+     * @param sb where to append the text.
+     * @param t the date and time.
+     * @return {@code sb}.
+     */
+    public static StringBuilder appendTime(StringBuilder sb, LocalDateTime t) {
+        appendTwoDigits(sb, t.getHour());
+        return appendTwoDigits(sb, t.getMinute());
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder sb, int n) {
+        return sb.append((char) ('0' + n / 10)).append((char) ('0' + n % 10));
+    }
+
+    /* ----------------- epoch minutes ----------------- */
+
+    /**
+     * Converts a time to whole minutes since the epoch, ignoring seconds.
+     *
+     * @param t the time to convert.
+     * @return the epoch minute of {@code t}.
+     */
+    public static long toMinutes(LocalDateTime t) {
+        return Math.floorDiv(t.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * Converts whole minutes since the epoch back to a time.
+     *
+     * @param minutes the epoch minute, as returned by {@link #toMinutes(LocalDateTime)}.
+     * @return the time at the start of that minute.
+     * @throws DateTimeException if no {@link LocalDateTime} falls in that minute, as when the value was
+     *     read from a damaged file.
+     */
+    public static LocalDateTime fromMinutes(long minutes) {
+        if (minutes < MIN_MINUTES || minutes > MAX_MINUTES) {
+            throw new DateTimeException("Epoch minute out of range: " + minutes);
+        }
+        return LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,214 @@
+package chatty.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Interval tree over the deadlines and events of a {@link TaskList}.
+ *
+ * <p>A deadline is the instant {@code [by, by]} and an event the interval {@code [from, to]}, both in
+ * epoch minutes. Intervals live in a treap ordered by start (then by insertion order), where every
+ * node also stores the latest end in its subtree. Subtrees that end before a query window can
+ * therefore be skipped, so an overlap query costs O(log n + k) for k results. A removed task's node
+ * is found by its {@link Task#getId() ID}.</p>
+ */
+final class TimeIndex {
+    /** Insertion numbers of the indexed deadlines and events, by task ID. */
+    private final IdIndex seqByTaskId = new IdIndex();
+    private final Random priorities = new Random();
+    private Node root;
+    private int nextSeq;
+
+    /**
+     * Indexes a task appended at the end of the list. Tasks without a time are ignored.
+     *
+     * @param t the task that was added.
+     */
+    void add(Task t) {
+        Node n;
+        if (t instanceof Deadline d) {
+            long by = TemporalCodec.toMinutes(d.getBy());
+            n = new Node(t, by, by, nextSeq++, priorities.nextInt());
+        } else if (t instanceof Event e) {
+            long from = TemporalCodec.toMinutes(e.getFrom());
+            n = new Node(t, from, TemporalCodec.toMinutes(e.getTo()), nextSeq++, priorities.nextInt());
+        } else {
+            return;
+        }
+        root = insert(root, n);
+        seqByTaskId.put(t.getId(), n.seq);
+    }
+
+    /**
+     * Drops a removed task.
+     *
+     * @param t the removed task.
+     */
+    void remove(Task t) {
+        long start;
+        if (t instanceof Deadline d) {
+            start = TemporalCodec.toMinutes(d.getBy());
+        } else if (t instanceof Event e) {
+            start = TemporalCodec.toMinutes(e.getFrom());
+        } else {
+            return;
+        }
+        int seq = seqByTaskId.remove(t.getId());
+        assert seq >= 0 : "Only indexed tasks can be removed";
+        root = delete(root, start, seq);
+    }
+
+    /**
+     * Returns the timed tasks whose interval overlaps {@code [from, to]}, in list order.
+     *
+     * @param from the start of the window, inclusive.
+     * @param to the end of the window, inclusive.
+     * @return the overlapping deadlines and events.
+     */
+    List<Task> overlapping(LocalDateTime from, LocalDateTime to) {
+        ArrayList<Node> hits = new ArrayList<>();
+        collect(root, TemporalCodec.toMinutes(from), TemporalCodec.toMinutes(to), hits);
+        hits.sort(Comparator.comparingInt(n -> n.seq));
+
+        ArrayList<Task> result = new ArrayList<>(hits.size());
+        for (Node n : hits) {
+            result.add(n.task);
+        }
+        return result;
+    }
+
+    private static void collect(Node n, long lo, long hi, List<Node> out) {
+        if (n == null || n.maxEnd < lo) {
+            return;
+        }
+        collect(n.left, lo, hi, out);
+        if (n.start > hi) {
+            return; // everything to the right starts even later
+        }
+        if (n.end >= lo) {
+            out.add(n);
+        }
+        collect(n.right, lo, hi, out);
+    }
+
+    /* ----------------- treap operations ----------------- */
+
+    private static int compare(Node a, Node b) {
+        return compare(a.start, a.seq, b);
+    }
+
+    private static int compare(long start, int seq, Node b) {
+        if (start != b.start) {
+            return Long.compare(start, b.start);
+        }
+        return Integer.compare(seq, b.seq);
+    }
+
+    private static Node insert(Node root, Node n) {
+        if (root == null) {
+            return n;
+        }
+        if (compare(n, root) < 0) {
+            root.left = insert(root.left, n);
+            if (root.left.priority > root.priority) {
+                root = rotateRight(root);
+            }
+        } else {
+            root.right = insert(root.right, n);
+            if (root.right.priority > root.priority) {
+                root = rotateLeft(root);
+            }
+        }
+        update(root);
+        return root;
+    }
+
+    /** Removes the node with the given start and insertion number. */
+    private static Node delete(Node root, long start, int seq) {
+        if (root == null) {
+            return null;
+        }
+        int c = compare(start, seq, root);
+        if (c == 0) {
+            return merge(root.left, root.right);
+        }
+        if (c < 0) {
+            root.left = delete(root.left, start, seq);
+        } else {
+            root.right = delete(root.right, start, seq);
+        }
+        update(root);
+        return root;
+    }
+
+    /** Joins two treaps where every node of {@code a} sorts before every node of {@code b}. */
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static Node rotateRight(Node y) {
+        Node x = y.left;
+        y.left = x.right;
+        x.right = y;
+        update(y);
+        update(x);
+        return x;
+    }
+
+    private static Node rotateLeft(Node x) {
+        Node y = x.right;
+        x.right = y.left;
+        y.left = x;
+        update(x);
+        update(y);
+        return y;
+    }
+
+    private static void update(Node n) {
+        long max = n.end;
+        if (n.left != null && n.left.maxEnd > max) {
+            max = n.left.maxEnd;
+        }
+        if (n.right != null && n.right.maxEnd > max) {
+            max = n.right.maxEnd;
+        }
+        n.maxEnd = max;
+    }
+
+    /** A timed task in the treap. */
+    private static final class Node {
+        final Task task;
+        final long start;
+        final long end;
+        final int seq;
+        final int priority;
+        long maxEnd;
+        Node left;
+        Node right;
+
+        Node(Task task, long start, long end, int seq, int priority) {
+            this.task = task;
+            this.start = start;
+            this.end = end;
+            this.seq = seq;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+    }
+}
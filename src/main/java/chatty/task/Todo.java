@@ -9,12 +9,12 @@ public class Todo extends Task {
     }
 
     @Override
-    public String toString() {
-        return "[T]" + super.toString();
+    protected String buildDisplayString() {
+        return "[T]" + super.buildDisplayString();
     }
 
     @Override
-    public String toDataString() {
-        return "T" + super.toDataString();
+    protected String buildDataString() {
+        return "T" + super.buildDataString();
     }
 }
@@ -10,14 +10,20 @@ import javafx.fxml.FXMLLoader;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
 
 /**
  * A dialog bubble (text + avatar). Uses fx:root to load its view from FXML.
  */
 public class DialogBox extends HBox {
+    /** Height of the scrollable list in a list reply; only the visible rows are rendered. */
+    private static final double LIST_HEIGHT = 320.0;
+
     @FXML private Label dialog;
     @FXML private ImageView displayPicture;
 
@@ -57,4 +63,30 @@ public class DialogBox extends HBox {
         db.flip();
         return db;
     }
+
+    /** Returns a bot dialog for a reminder, which stands out from the replies. */
+    public static DialogBox getReminderDialog(String text, Image img) {
+        var db = getBotDialog(text, img);
+        db.dialog.getStyleClass().add("reminder-label");
+        return db;
+    }
+
+    /**
+     * Returns a bot dialog for a long reply: the header as text, followed by the remaining lines
+     * in a {@link ListView}, which only creates cells for the rows that are visible.
+     */
+    public static DialogBox getBotListDialog(String header, ObservableList<String> rows, Image img) {
+        var db = new DialogBox(header, img);
+        ListView<String> list = new ListView<>(rows);
+        list.setPrefHeight(LIST_HEIGHT);
+        list.setFocusTraversable(false);
+        list.getStyleClass().add("reply-list");
+
+        db.getChildren().remove(db.dialog);
+        VBox bubble = new VBox(6.0, db.dialog, list);
+        HBox.setHgrow(bubble, Priority.ALWAYS);
+        db.getChildren().add(0, bubble);
+        db.flip();
+        return db;
+    }
 }
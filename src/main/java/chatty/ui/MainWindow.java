@@ -1,8 +1,15 @@
 package chatty.ui;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import chatty.app.ChattyEngine;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.ScrollPane;
@@ -15,6 +22,8 @@ public class MainWindow {
 
     private static final String BOT_PHOTO = "/images/DaDuke.png";
     private static final String USER_PHOTO = "/images/DaUser.png";
+    /** Replies longer than this many lines are shown in a scrollable list instead of a single label. */
+    private static final int INLINE_LINES = 30;
 
     @FXML private ScrollPane scrollPane;
     @FXML private VBox dialogContainer;
@@ -22,6 +31,12 @@ public class MainWindow {
     @FXML private Button sendButton;
 
     private ChattyEngine engine;
+    /** Runs commands off the JavaFX thread, one at a time, so the window stays live while a reply streams in. */
+    private final ExecutorService commands = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "chatty-commands");
+        t.setDaemon(true);
+        return t;
+    });
 
     private final Image userImage =
             new Image(Objects.requireNonNull(this.getClass().getResourceAsStream(USER_PHOTO)));
@@ -43,6 +58,12 @@ public class MainWindow {
                 DialogBox.getBotDialog(engine.getGreeting(), botImage)
         );
         userInput.requestFocus();
+        engine.startReminders(reminder -> Platform.runLater(() -> showReminder(reminder)));
+    }
+
+    /** Shows a reminder as a highlighted bot message; runs on the JavaFX thread. */
+    private void showReminder(String reminder) {
+        dialogContainer.getChildren().add(DialogBox.getReminderDialog(reminder, botImage));
     }
 
     /** Handles send-button click or Enter key. */
@@ -54,10 +75,57 @@ public class MainWindow {
         }
 
         dialogContainer.getChildren().add(DialogBox.getUserDialog(input, userImage));
+        userInput.clear();
+        setInputDisabled(true);
 
-        String response = engine.handleInput(input);
-        dialogContainer.getChildren().add(DialogBox.getBotDialog(response, botImage));
+        Reply reply = new Reply();
+        commands.execute(() -> {
+            try {
+                engine.handleInput(input, chunk -> {
+                    String[] lines = chunk.split("\n");
+                    Platform.runLater(() -> reply.add(lines));
+                });
+            } finally {
+                Platform.runLater(reply::finish);
+            }
+        });
+    }
 
-        userInput.clear();
+    private void setInputDisabled(boolean isDisabled) {
+        userInput.setDisable(isDisabled);
+        sendButton.setDisable(isDisabled);
+        if (!isDisabled) {
+            userInput.requestFocus();
+        }
+    }
+
+    /**
+     * A bot reply shown as its chunks arrive; only used on the JavaFX thread. Up to {@link #INLINE_LINES}
+     * lines are held back and shown as one label at the end. Past that, the reply moves into a list dialog
+     * at once, and every later chunk is appended to the list's rows as it comes.
+     */
+    private final class Reply {
+        private final ArrayList<String> lines = new ArrayList<>();
+        /** The rows of the list dialog, or {@code null} while the reply is short enough to show inline. */
+        private ObservableList<String> rows;
+
+        void add(String[] chunk) {
+            if (rows != null) {
+                rows.addAll(chunk);
+                return;
+            }
+            Collections.addAll(lines, chunk);
+            if (lines.size() > INLINE_LINES) {
+                rows = FXCollections.observableArrayList(lines.subList(1, lines.size()));
+                dialogContainer.getChildren().add(DialogBox.getBotListDialog(lines.get(0), rows, botImage));
+            }
+        }
+
+        void finish() {
+            if (rows == null) {
+                dialogContainer.getChildren().add(DialogBox.getBotDialog(String.join("\n", lines), botImage));
+            }
+            setInputDisabled(false);
+        }
     }
 }
@@ -2,7 +2,10 @@ package chatty.ui;
 
 import java.util.List;
 import java.util.Scanner;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
 
+import chatty.task.Event;
 import chatty.task.Task;
 import chatty.task.TaskList;
 
@@ -16,6 +19,9 @@ import chatty.task.TaskList;
  * </p>
  */
 public class Ui {
+    /** Number of task lines handed over per chunk by the streaming list methods. */
+    private static final int CHUNK_ROWS = 256;
+
     private final Scanner sc;
 
     /**
@@ -54,30 +60,103 @@ public class Ui {
     }
 
     /**
-     * Returns a formatted message indicating a task has been added.
+     * Returns a formatted message indicating a task has been added, including the ID it was given.
      *
      * @param t     the task that was added
      * @param count the total number of tasks after the addition
      * @return the add-task message, boxed with divider lines
      */
     public String showAdded(Task t, int count) {
-        return " Got it. I've added this task:\n" + "   " + t + "\n"
+        return " Got it. I've added this task:\n" + "   " + t + idSuffix(t) + "\n"
                 + " Now you have " + count + " tasks in the list.";
     }
 
     /**
-     * Returns a formatted list of tasks.
+     * Returns a formatted list of tasks, numbered by position and followed by their IDs.
      *
      * @param tasks the tasks to display
      * @return the list message, boxed with divider lines
+     * @see #streamList(TaskList, Consumer)
      */
     public String showList(TaskList tasks) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(" Here are the tasks in your list:\n");
-        for (int i = 0; i < tasks.size(); i++) {
-            sb.append(" ").append(i + 1).append(". ").append(tasks.get(i)).append("\n");
+        StringJoiner sj = new StringJoiner("\n");
+        streamList(tasks, sj::add);
+        return trimEnd(sj.toString());
+    }
+
+    /**
+     * Formats the whole list like {@link #showList(TaskList)}, but hands it over in chunks of
+     * at most a few hundred lines so that long lists are never held in memory as one string.
+     * Joining the chunks with line breaks gives the text of {@link #showList(TaskList)}.
+     *
+     * @param tasks the tasks to display
+     * @param out   receives the chunks, header first
+     */
+    public void streamList(TaskList tasks, Consumer<String> out) {
+        streamRows(" Here are the tasks in your list:", tasks, 0, tasks.size(), out);
+    }
+
+    /**
+     * Formats part of the list in chunks, numbering tasks by their position in the whole list.
+     *
+     * @param tasks the tasks to display
+     * @param from  the 0-based position of the first task to show, inclusive
+     * @param to    the 0-based position of the last task to show, exclusive
+     * @param out   receives the chunks, header first
+     * @see #streamList(TaskList, Consumer)
+     */
+    public void streamPage(TaskList tasks, int from, int to, Consumer<String> out) {
+        assert 0 <= from && from <= to && to <= tasks.size() : "Page must lie within the list";
+        if (from == to) {
+            out.accept(" There are no tasks in this part of your list.");
+            return;
         }
-        return trimEnd(sb);
+        String header = " Here are tasks " + (from + 1) + "-" + to + " of " + tasks.size() + " in your list:";
+        streamRows(header, tasks, from, to, out);
+    }
+
+    /**
+     * Formats the tasks at the given positions in chunks, such as every task that is done, numbering
+     * them by their position in the whole list.
+     *
+     * @param tasks     the tasks to display
+     * @param positions the 0-based positions of the tasks to show, in ascending order
+     * @param isDone    whether the tasks are the done ones rather than the pending ones
+     * @param out       receives the chunks, header first
+     */
+    public void streamWithStatus(TaskList tasks, int[] positions, boolean isDone, Consumer<String> out) {
+        String status = isDone ? "done" : "pending";
+        if (positions.length == 0) {
+            out.accept(" You have no " + status + " tasks.");
+            return;
+        }
+        String header = " Here are the " + status + " tasks in your list (" + positions.length + "):";
+        StringBuilder sb = new StringBuilder(header);
+        for (int n = 0; n < positions.length; n++) {
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            appendRow(sb, positions[n], tasks.get(positions[n]));
+            if ((n + 1) % CHUNK_ROWS == 0) {
+                out.accept(sb.toString());
+                sb.setLength(0);
+            }
+        }
+        if (sb.length() > 0) {
+            out.accept(sb.toString());
+        }
+    }
+
+    /**
+     * Returns how many tasks there are, split into pending and done ones.
+     *
+     * @param total the number of tasks
+     * @param done  the number of tasks that are done
+     * @return the count message
+     */
+    public String showCount(int total, int done) {
+        return " You have " + countTasks(total) + " in the list: " + (total - done) + " pending and "
+                + done + " done.";
     }
 
     /**
@@ -112,6 +191,41 @@ public class Ui {
                 + removed + "\n" + " Now you have " + remaining + " tasks in the list.";
     }
 
+    /**
+     * Returns a formatted message indicating several tasks have been marked as done.
+     *
+     * @param tasks the tasks that were marked done
+     * @return the mark message
+     */
+    public String showMarkedAll(List<Task> tasks) {
+        return listTasks(" Nice! I've marked " + countTasks(tasks.size()) + " as done:", tasks);
+    }
+
+    /**
+     * Returns a formatted message indicating several tasks have been marked as not done.
+     *
+     * @param tasks the tasks that were unmarked
+     * @return the unmark message
+     */
+    public String showUnmarkedAll(List<Task> tasks) {
+        return listTasks(" OK, I've marked " + countTasks(tasks.size()) + " as not done yet:", tasks);
+    }
+
+    /**
+     * Returns a formatted message indicating several tasks have been deleted.
+     *
+     * @param removed   the deleted tasks
+     * @param remaining the number of remaining tasks
+     * @return the delete message
+     */
+    public String showDeletedAll(List<Task> removed, int remaining) {
+        if (removed.isEmpty()) {
+            return " There were no matching tasks to remove.\n Now you have " + remaining + " tasks in the list.";
+        }
+        return listTasks(" Noted. I've removed " + countTasks(removed.size()) + ":", removed)
+                + "\n Now you have " + remaining + " tasks in the list.";
+    }
+
     /**
      * Returns a formatted list of tasks that match a query.
      *
@@ -125,12 +239,76 @@ public class Ui {
             sb.append(" (none)\n");
         } else {
             for (int i = 0; i < matches.size(); i++) {
-                sb.append(" ").append(i + 1).append(". ").append(matches.get(i)).append("\n");
+                Task t = matches.get(i);
+                sb.append(" ").append(i + 1).append(". ").append(t).append(idSuffix(t)).append("\n");
             }
         }
         return trimEnd(sb);
     }
 
+    /**
+     * Returns the next deadlines and events, soonest first, each followed by its ID.
+     *
+     * @param upcoming the tasks, in the order to show them
+     * @return the agenda message
+     */
+    public String showAgenda(List<Task> upcoming) {
+        if (upcoming.isEmpty()) {
+            return " Nothing coming up: there are no pending deadlines or events ahead.";
+        }
+        StringBuilder sb = new StringBuilder(" Here is what's coming up next:");
+        for (int i = 0; i < upcoming.size(); i++) {
+            Task t = upcoming.get(i);
+            sb.append("\n ").append(i + 1).append(". ").append(t).append(idSuffix(t));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns a reminder that a deadline is due or an event starts now.
+     *
+     * @param t the deadline or event
+     * @return the reminder message
+     */
+    public String showReminder(Task t) {
+        String header = t instanceof Event ? " Reminder! This event is starting now:\n"
+                : " Reminder! This task is due now:\n";
+        return header + "   " + t + idSuffix(t);
+    }
+
+    /**
+     * Returns a formatted message showing the per-command statistics.
+     *
+     * @param report the statistics table
+     * @return the statistics message
+     */
+    public String showStats(String report) {
+        return " Here is how long each command took since startup:\n" + report;
+    }
+
+    /**
+     * Returns a formatted message for a batch that ran to completion.
+     *
+     * @param count the number of commands that were run
+     * @return the batch summary
+     */
+    public String showBatchDone(int count) {
+        return " Done! Ran " + count + (count == 1 ? " command." : " commands.");
+    }
+
+    /**
+     * Returns a formatted message for a batch that was stopped by a failing command.
+     *
+     * @param lineNo  the 1-based line number of the failing command
+     * @param input   the failing command
+     * @param message the error details
+     * @return the error message
+     */
+    public String showBatchFailed(int lineNo, String input, String message) {
+        return showError("Line " + lineNo + " (" + input + "): " + message) + "\n"
+                + " No changes were made; the list is as it was before the batch.";
+    }
+
     /**
      * Reads a command from standard input (CLI).
      *
@@ -168,6 +346,50 @@ public class Ui {
         return line() + "\n" + body + "\n" + line();
     }
 
+    private static String countTasks(int n) {
+        return n == 1 ? "1 task" : n + " tasks";
+    }
+
+    /** Returns the ID of a task as shown after it, such as {@code " (#42)"}, for use in {@code mark #42}. */
+    private static String idSuffix(Task t) {
+        return " (#" + t.getId() + ")";
+    }
+
+    /** Returns the header followed by one indented line per task. */
+    private static String listTasks(String header, List<Task> tasks) {
+        StringBuilder sb = new StringBuilder(header);
+        for (Task t : tasks) {
+            sb.append("\n   ").append(t.toString());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Hands the header and the numbered tasks in {@code [from, to)} to {@code out},
+     * {@link #CHUNK_ROWS} tasks at a time.
+     */
+    private static void streamRows(String header, TaskList tasks, int from, int to, Consumer<String> out) {
+        StringBuilder sb = new StringBuilder(header);
+        for (int i = from; i < to; i++) {
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            appendRow(sb, i, tasks.get(i));
+            if ((i - from + 1) % CHUNK_ROWS == 0) {
+                out.accept(sb.toString());
+                sb.setLength(0);
+            }
+        }
+        if (sb.length() > 0) {
+            out.accept(sb.toString());
+        }
+    }
+
+    /** Appends the row of the task at a 0-based position, numbered and followed by its ID. */
+    private static void appendRow(StringBuilder sb, int idx, Task t) {
+        sb.append(' ').append(idx + 1).append(". ").append(t.toString()).append(idSuffix(t));
+    }
+
     /**
      * Trims the end of the given string.
      *
@@ -0,0 +1,145 @@
+package chatty.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+import chatty.exceptions.ChattyFileException;
+import chatty.metrics.Metrics;
+import chatty.parser.Parser;
+import chatty.storage.Storage;
+import chatty.task.TaskList;
+
+public class ChattyCoreTest {
+
+    /** Storage that counts how often it is asked to persist. */
+    private static final class CountingStorage extends Storage {
+        int persists;
+
+        CountingStorage(File file) {
+            super(file);
+        }
+
+        @Override
+        public void persist(TaskList tasks) throws ChattyFileException {
+            persists++;
+            super.persist(tasks);
+        }
+    }
+
+    private static File newDataFile() throws IOException {
+        File dir = Files.createTempDirectory("chatty-core").toFile();
+        dir.deleteOnExit();
+        return new File(dir, "chatty.txt");
+    }
+
+    @Test
+    void batch_persistsOnceAtTheEnd() throws Exception {
+        File file = newDataFile();
+        CountingStorage storage = new CountingStorage(file);
+        ChattyCore core = new ChattyCore(storage);
+        List<String> script = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            script.add("todo task " + i);
+        }
+        script.add("# marks are applied to the tasks above");
+        script.add("mark 1");
+        script.add("");
+
+        assertTrue(core.processBatch(script, reply -> { }));
+        assertEquals(1, storage.persists);
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(500, lines.size());
+        assertEquals("T/-/1/-/task 0/-/1", lines.get(0));
+    }
+
+    @Test
+    void batch_failingLine_undoesEverything() throws Exception {
+        File file = newDataFile();
+        CountingStorage storage = new CountingStorage(file);
+        ChattyCore core = new ChattyCore(storage);
+        core.process("todo keep me");
+        List<String> replies = new ArrayList<>();
+
+        assertFalse(core.processBatch(List.of("todo a", "mark 1", "delete 1", "mark 99", "todo b"), replies::add));
+        assertTrue(replies.get(replies.size() - 1).contains("Line 4 (mark 99)"));
+        assertEquals(1, storage.persists);
+        assertEquals(List.of("T/-/0/-/keep me/-/1"), Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+        assertTrue(core.process("list").endsWith(" 1. [T][ ] keep me (#1)"));
+    }
+
+    @Test
+    void shared_concurrentDeletes_eachRemoveOneTask() throws Exception {
+        File file = newDataFile();
+        ChattyCore core = new ChattyCore(new Storage(file), true);
+        int clients = 8;
+        int perClient = 50;
+        for (int i = 0; i < clients * perClient; i++) {
+            core.process("todo task " + i);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        for (int c = 0; c < clients; c++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perClient; i++) {
+                    String reply = core.process("delete 1");
+                    if (!reply.contains("Noted. I've removed this task")) {
+                        errors.add(reply);
+                    }
+                    core.process("list");
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertEquals(List.of(), errors);
+        assertEquals(" Here are the tasks in your list:", core.process("list"));
+    }
+
+    @Test
+    void stats_reportsEachCommandAndBytesWritten() throws Exception {
+        Storage storage = new Storage(newDataFile());
+        ChattyCore core = new ChattyCore(storage);
+        core.process("todo read book");
+        core.process("find book");
+        core.process("find book");
+        core.process("mark 9");
+        core.process("nonsense");
+
+        assertEquals(2, core.getMetrics().histogram(Parser.Command.FIND, Metrics.Phase.EXECUTE).getCount());
+        assertEquals(0, core.getMetrics().histogram(Parser.Command.FIND, Metrics.Phase.PERSIST).getCount());
+        assertEquals(1, core.getMetrics().histogram(Parser.Command.TODO, Metrics.Phase.PERSIST).getCount());
+        assertEquals(5, core.getMetrics().getCommands());
+        assertEquals(2, core.getMetrics().getErrors());
+        assertEquals("T/-/0/-/read book/-/1".length() + System.lineSeparator().length(), storage.bytesWritten());
+
+        String[] report = core.process("stats").split("\n");
+        assertTrue(report[0].contains("how long each command took"));
+        assertTrue(report[2].startsWith(" mark           1       1"), report[2]);
+        assertTrue(report[3].startsWith(" todo           1       0"), report[3]);
+        assertTrue(report[4].startsWith(" find           2       0"), report[4]);
+        assertTrue(report[5].contains("Unrecognised input: 1. Written to disk: " + storage.bytesWritten() + " B."));
+    }
+}
@@ -0,0 +1,210 @@
+package chatty.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import chatty.exceptions.ChattyException;
+import chatty.exceptions.MalformedArgumentsException;
+import chatty.parser.Parser;
+import chatty.task.Deadline;
+import chatty.task.Event;
+import chatty.task.Task;
+import chatty.task.TaskList;
+import chatty.task.Todo;
+import chatty.ui.Ui;
+
+public class CommandTest {
+    private static final List<String> READS = List.of(
+            "list", "list pending", "list done", "count", "agenda", "agenda 3", "find book", "view 12-08-2025", "bye");
+    private static final List<String> WRITES = List.of(
+            "todo buy milk", "deadline return book /by 12-08-2025 1800",
+            "event meeting /from 12-08-2025 1000 /to 12-08-2025 1200", "mark 2", "unmark 1", "delete 1");
+
+    private static TaskList cleanList() throws ChattyException {
+        ArrayList<Task> seed = new ArrayList<>();
+        seed.add(new Todo("read book"));
+        seed.add(new Deadline("return book", "12-08-2025 1800"));
+        return new TaskList(seed);
+    }
+
+    private static Command build(String input, TaskList tasks) throws ChattyException {
+        return CommandFactory.from(Parser.parse(input), tasks);
+    }
+
+    @Test
+    void command_isEitherReadOnlyOrMutating() {
+        assertEquals(Set.of(ReadOnlyCommand.class, MutatingCommand.class),
+                Set.of(Command.class.getPermittedSubclasses()));
+    }
+
+    @Test
+    void readCommands_areReadOnly_andLeaveListClean() throws ChattyException {
+        for (String input : READS) {
+            TaskList tasks = cleanList();
+            Command cmd = build(input, tasks);
+            assertFalse(cmd.isMutating(), input);
+            assertFalse(Parser.parse(input).cmd().isMutating(), input);
+            cmd.execute(tasks, new Ui());
+            assertFalse(tasks.isDirty(), input);
+        }
+    }
+
+    @Test
+    void writeCommands_areMutating_andDirtyTheList() throws ChattyException {
+        for (String input : WRITES) {
+            TaskList tasks = cleanList();
+            tasks.mark(0); // so that "unmark 1" has something to change
+            tasks.clearDirty();
+            Command cmd = build(input, tasks);
+            assertTrue(cmd.isMutating(), input);
+            assertTrue(Parser.parse(input).cmd().isMutating(), input);
+            cmd.execute(tasks, new Ui());
+            assertTrue(tasks.isDirty(), input);
+        }
+    }
+
+    @Test
+    void markingAlreadyDoneTask_leavesListClean() throws ChattyException {
+        TaskList tasks = cleanList();
+        tasks.mark(0);
+        tasks.clearDirty();
+
+        build("mark 1", tasks).execute(tasks, new Ui());
+        assertFalse(tasks.isDirty());
+        assertFalse(tasks.get(0).isDirty());
+
+        build("unmark 2", tasks).execute(tasks, new Ui());
+        assertFalse(tasks.isDirty());
+    }
+
+    @Test
+    void dirtyState_isTrackedPerTask() throws ChattyException {
+        TaskList tasks = cleanList();
+        build("mark 2", tasks).execute(tasks, new Ui());
+
+        assertFalse(tasks.get(0).isDirty());
+        assertTrue(tasks.get(1).isDirty());
+
+        tasks.clearDirty();
+        assertFalse(tasks.get(1).isDirty());
+        assertFalse(tasks.isDirty());
+    }
+
+    @Test
+    void view_range_listsEntriesAcrossDays() throws ChattyException {
+        TaskList tasks = cleanList();
+        build("event camp /from 11-08-2025 0900 /to 14-08-2025 1700", tasks).execute(tasks, new Ui());
+
+        String reply = build("view 12-08-2025 13-08-2025", tasks).execute(tasks, new Ui());
+
+        String nl = System.lineSeparator();
+        assertEquals("Schedule for 12-08-2025 to 13-08-2025" + nl
+                + "[ ] 12-08-2025 0000-13-08-2025 2359  [E] camp" + nl
+                + "[ ] 12-08-2025 1800  [D] return book (by 12-08-2025 1800)" + nl, reply);
+    }
+
+    @Test
+    void view_rangeEndingBeforeStart_throws() {
+        assertThrows(MalformedArgumentsException.class, () -> build("view 13-08-2025 12-08-2025", cleanList()));
+        assertThrows(MalformedArgumentsException.class, () -> build("view 12-08-2025 a b", cleanList()));
+    }
+
+    @Test
+    void list_pagesAndRanges_numberTasksByPosition() throws ChattyException {
+        TaskList tasks = new TaskList(null);
+        for (int i = 1; i <= 45; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+
+        String page = build("list 3", tasks).execute(tasks, new Ui());
+        assertEquals(" Here are tasks 41-45 of 45 in your list:\n 41. [T][ ] task 41 (#41)\n"
+                + " 42. [T][ ] task 42 (#42)\n 43. [T][ ] task 43 (#43)\n 44. [T][ ] task 44 (#44)\n"
+                + " 45. [T][ ] task 45 (#45)", page);
+        assertEquals(" Here are tasks 10-11 of 45 in your list:\n 10. [T][ ] task 10 (#10)\n"
+                + " 11. [T][ ] task 11 (#11)",
+                build("list --from 10 --limit 2", tasks).execute(tasks, new Ui()));
+        assertThrows(ChattyException.class, () -> build("list 4", tasks));
+        assertThrows(MalformedArgumentsException.class, () -> build("list --limit", tasks));
+    }
+
+    @Test
+    void list_streamedChunks_joinToFullReply() throws ChattyException {
+        TaskList tasks = new TaskList(null);
+        for (int i = 1; i <= 1000; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        List<String> chunks = new ArrayList<>();
+        build("list", tasks).stream(tasks, new Ui(), chunks::add);
+
+        assertTrue(chunks.size() > 1, "a long list should arrive in several chunks");
+        assertEquals(new Ui().showList(tasks), String.join("\n", chunks));
+    }
+
+    @Test
+    void listByStatusAndCount_followMarksAndDeletes() throws ChattyException {
+        TaskList tasks = cleanList();
+        tasks.add(new Todo("buy milk"));
+        tasks.add(new Todo("walk dog"));
+        build("mark 2,4", tasks).execute(tasks, new Ui());
+        build("delete 1", tasks).execute(tasks, new Ui());
+
+        assertEquals(" Here are the done tasks in your list (2):\n 1. [D][X] return book (by: 12-08-2025 1800) (#2)\n"
+                + " 3. [T][X] walk dog (#4)", build("list done", tasks).execute(tasks, new Ui()));
+        assertEquals(" Here are the pending tasks in your list (1):\n 2. [T][ ] buy milk (#3)",
+                build("list PENDING", tasks).execute(tasks, new Ui()));
+        assertEquals(" You have 3 tasks in the list: 1 pending and 2 done.",
+                build("count", tasks).execute(tasks, new Ui()));
+
+        build("delete done", tasks).execute(tasks, new Ui());
+        assertEquals(" You have no done tasks.", build("list done", tasks).execute(tasks, new Ui()));
+        assertThrows(MalformedArgumentsException.class, () -> build("count 2", tasks));
+    }
+
+    @Test
+    void agenda_showsNextPendingTimedTasksFromNow() throws ChattyException {
+        TaskList tasks = cleanList();
+        tasks.add(new Deadline("pay rent", "01-08-2025 0900"));
+        tasks.add(new Event("team lunch", "12-08-2025 1200", "12-08-2025 1300"));
+        tasks.add(new Deadline("file taxes", "20-08-2025 1800"));
+        Ui ui = new Ui();
+        LocalDateTime now = LocalDateTime.of(2025, 8, 10, 8, 0);
+
+        assertEquals(" Here is what's coming up next:\n"
+                + " 1. [E][ ] team lunch (from: 12-08-2025 1200 to: 12-08-2025 1300) (#4)\n"
+                + " 2. [D][ ] return book (by: 12-08-2025 1800) (#2)", new AgendaCommand(2, now).execute(tasks, ui));
+        build("mark 4", tasks).execute(tasks, ui);
+        build("delete 2", tasks).execute(tasks, ui);
+        assertEquals(" Here is what's coming up next:\n 1. [D][ ] file taxes (by: 20-08-2025 1800) (#5)",
+                new AgendaCommand(5, now).execute(tasks, ui));
+        assertEquals(" Nothing coming up: there are no pending deadlines or events ahead.",
+                new AgendaCommand(5, now.plusMonths(1)).execute(tasks, ui));
+        assertThrows(MalformedArgumentsException.class, () -> build("agenda 0", tasks));
+        assertThrows(MalformedArgumentsException.class, () -> build("agenda soon", tasks));
+    }
+
+    @Test
+    void markAndDelete_byId_findTheTaskWhereverItMoved() throws ChattyException {
+        TaskList tasks = cleanList();
+        tasks.add(new Todo("buy milk"));
+        build("delete 1", tasks).execute(tasks, new Ui());
+
+        build("mark #3", tasks).execute(tasks, new Ui());
+        assertTrue(tasks.get(1).getIsDone());
+        build("unmark #3", tasks).execute(tasks, new Ui());
+        assertFalse(tasks.get(1).getIsDone());
+        assertTrue(build("delete #2", tasks).execute(tasks, new Ui()).contains("return book"));
+        assertEquals(1, tasks.size());
+
+        assertThrows(ChattyException.class, () -> build("mark #2", tasks));
+        assertThrows(MalformedArgumentsException.class, () -> build("delete #two", tasks));
+    }
+}
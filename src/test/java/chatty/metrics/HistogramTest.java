@@ -0,0 +1,43 @@
+package chatty.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class HistogramTest {
+
+    @Test
+    void buckets_coverEveryValueWithinOnePointSixPercent() {
+        long previousHigh = -1;
+        for (long v = 0; v < 1L << 20; v += 1 + v / 97) {
+            int b = Histogram.bucketOf(v);
+            long high = Histogram.highestValueIn(b);
+            assertTrue(high >= v, "bucket of " + v + " ends at " + high);
+            assertTrue(high - v <= Math.max(1, v / 64), "bucket of " + v + " is too wide");
+            assertTrue(high >= previousHigh, "buckets must be ordered");
+            previousHigh = high;
+        }
+        assertEquals(Histogram.bucketOf(Long.MAX_VALUE), Histogram.bucketOf(1L << 50));
+    }
+
+    @Test
+    void percentiles_matchRecordedValues() {
+        Histogram h = new Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            h.record(i * 1000L); // 1 us to 1 ms
+        }
+        assertEquals(1000, h.getCount());
+        assertEquals(1_000_000, h.getMax());
+        assertEquals(500_500, h.getMean(), 0.001);
+        long p50 = h.getValueAtPercentile(50);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 1.016, "p50 was " + p50);
+        long p99 = h.getValueAtPercentile(99);
+        assertTrue(p99 >= 990_000 && p99 <= 990_000 * 1.016, "p99 was " + p99);
+        assertEquals(1_000_000, h.getValueAtPercentile(100));
+
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getValueAtPercentile(99));
+    }
+}
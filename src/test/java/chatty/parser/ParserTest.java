@@ -2,12 +2,15 @@ package chatty.parser;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
 import chatty.exceptions.ChattyException;
 import chatty.exceptions.MalformedArgumentsException;
+import chatty.exceptions.UnknownCommandException;
 
 public class ParserTest {
 
@@ -54,6 +57,17 @@ public class ParserTest {
         assertEquals(2, Parser.parseIndexOrThrow("3", 3));
     }
 
+    @Test
+    void parseIdOrThrow_acceptsOnlyHashAndPositiveNumber() throws ChattyException {
+        assertEquals(42, Parser.parseIdOrThrow(" #42 "));
+        assertEquals(true, Parser.isTaskId("#7"));
+        assertEquals(false, Parser.isTaskId("7"));
+        assertThrows(MalformedArgumentsException.class, () -> Parser.parseIdOrThrow("#"));
+        assertThrows(MalformedArgumentsException.class, () -> Parser.parseIdOrThrow("#0"));
+        assertThrows(MalformedArgumentsException.class, () -> Parser.parseIdOrThrow("#4 2"));
+        assertThrows(MalformedArgumentsException.class, () -> Parser.parseIdOrThrow("42"));
+    }
+
     @Test
     void parseIndexOrThrow_invalidVariants_throwChattyException() {
         assertThrows(ChattyException.class, () -> Parser.parseIndexOrThrow("", 3)); // missing
@@ -61,4 +75,66 @@ public class ParserTest {
         assertThrows(ChattyException.class, () -> Parser.parseIndexOrThrow("0", 3)); // < 1
         assertThrows(ChattyException.class, () -> Parser.parseIndexOrThrow("4", 3)); // > size
     }
+
+    @Test
+    void parseIndicesOrThrow_listsAndRanges_returnSortedDistinctZeroBased() throws ChattyException {
+        assertArrayEquals(new int[]{0, 4, 8}, Parser.parseIndicesOrThrow("9,1, 5", 10));
+        assertArrayEquals(new int[]{2, 3, 4, 5}, Parser.parseIndicesOrThrow("3-6", 10));
+        assertArrayEquals(new int[]{0, 1, 2, 6}, Parser.parseIndicesOrThrow("1..3,7,2-3", 10));
+        assertThrows(ChattyException.class, () -> Parser.parseIndicesOrThrow("3-11", 10));
+        assertThrows(MalformedArgumentsException.class, () -> Parser.parseIndicesOrThrow("6-3", 10));
+        assertThrows(MalformedArgumentsException.class, () -> Parser.parseIndicesOrThrow("1,,2", 10));
+    }
+
+    @Test
+    void isIndexList_dashMakesARangeOnlyBetweenDigits() {
+        assertTrue(Parser.isIndexList("3-40"));
+        assertTrue(Parser.isIndexList("1, 5"));
+        assertTrue(Parser.isIndexList("2 .. 4"));
+        assertFalse(Parser.isIndexList("2"));
+        assertFalse(Parser.isIndexList("-2"));
+        assertFalse(Parser.isIndexList("1 -2"));
+        assertFalse(Parser.isIndexList("1- 2"));
+        assertFalse(Parser.isIndexList("1-"));
+        assertEquals("Invalid or missing arguments.\nUsage: Provide exactly one task number (e.g., mark 2)",
+                assertThrows(ChattyException.class, () -> Parser.parseIndexOrThrow("1 -2", 3)).getMessage());
+    }
+
+    @Test
+    void parse_keywordAndArgs_splitAtFirstSpaceAndTrimmed() throws ChattyException {
+        assertEquals(new Parser.Parsed(Parser.Command.TODO, "read  book"), Parser.parse("todo   read  book \t"));
+        assertEquals(new Parser.Parsed(Parser.Command.LIST, ""), Parser.parse("list"));
+        assertEquals(new Parser.Parsed(Parser.Command.LIST, ""), Parser.parse("list   "));
+        assertEquals(new Parser.Parsed(Parser.Command.STATS, ""), Parser.parse("stats"));
+        assertEquals(new Parser.Parsed(Parser.Command.COUNT, ""), Parser.parse("count"));
+    }
+
+    @Test
+    void parse_unknownKeyword_reportsWholeInput() {
+        assertEquals(new UnknownCommandException("lists 2").getMessage(),
+                assertThrows(UnknownCommandException.class, () -> Parser.parse("lists 2")).getMessage());
+        assertThrows(UnknownCommandException.class, () -> Parser.parse(" list")); // keyword must come first
+        assertThrows(UnknownCommandException.class, () -> Parser.parse("LIST"));
+        assertThrows(UnknownCommandException.class, () -> Parser.parse("lis"));
+        assertThrows(UnknownCommandException.class, () -> Parser.parse(""));
+    }
+
+    @Test
+    void parseIndexOrThrow_errorMessages_unchanged() throws ChattyException {
+        assertEquals(1, Parser.parseIndexOrThrow(" +2 ", 3));
+        assertEquals("Invalid or missing arguments.\nUsage: Provide exactly one task number (e.g., mark 2)",
+                assertThrows(ChattyException.class, () -> Parser.parseIndexOrThrow("1\t2", 3)).getMessage());
+        assertEquals("Invalid or missing arguments.\nUsage: Task number must be an integer (e.g., mark 2)",
+                assertThrows(ChattyException.class, () -> Parser.parseIndexOrThrow("99999999999", 3)).getMessage());
+        assertEquals("Task number out of range.",
+                assertThrows(ChattyException.class, () -> Parser.parseIndexOrThrow("-1", 3)).getMessage());
+    }
+
+    @Test
+    void parseIndicesOrThrow_trailingCommasIgnored_blankItemsRejected() throws ChattyException {
+        assertArrayEquals(new int[]{0, 1}, Parser.parseIndicesOrThrow("1,2,,", 10));
+        assertArrayEquals(new int[]{1, 2, 3}, Parser.parseIndicesOrThrow(" 2 .. 4 ", 10));
+        assertThrows(MalformedArgumentsException.class, () -> Parser.parseIndicesOrThrow("1, ", 10));
+        assertThrows(MalformedArgumentsException.class, () -> Parser.parseIndicesOrThrow(",1", 10));
+    }
 }
@@ -0,0 +1,133 @@
+package chatty.reminder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import chatty.task.Deadline;
+import chatty.task.Event;
+import chatty.task.Task;
+import chatty.task.TaskList;
+import chatty.task.Todo;
+
+public class ReminderSchedulerTest {
+
+    @Test
+    void timingWheel_firesEveryTimerAtItsTickAcrossAllWheels() {
+        Random rnd = new Random(25);
+        long start = 29_000_000L; // about the year 2025, in epoch minutes
+        TimingWheel wheel = new TimingWheel(start);
+        Map<Integer, Long> expected = new HashMap<>();
+        List<long[]> fired = new ArrayList<>();
+
+        for (int round = 0; round < 3000; round++) {
+            int key = 1 + rnd.nextInt(500);
+            int op = rnd.nextInt(10);
+            if (op < 6) {
+                // from the next tick to several turns of the fourth wheel ahead
+                long ahead = 1 + (long) Math.pow(64, rnd.nextDouble() * 4.5);
+                long due = wheel.now() + ahead;
+                assertTrue(wheel.schedule(key, due));
+                expected.put(key, due);
+            } else if (op < 8) {
+                assertEquals(expected.remove(key) != null, wheel.cancel(key));
+            } else {
+                long to = wheel.now() + rnd.nextInt(op == 8 ? 100 : 100_000);
+                wheel.advanceTo(to, k -> fired.add(new long[] {k, wheel.now()}));
+                for (long[] f : fired) {
+                    long due = expected.remove((int) f[0]);
+                    assertEquals(due, f[1], "timer " + f[0] + " fired at the wrong tick");
+                }
+                fired.clear();
+                expected.values().forEach(due -> assertTrue(due > to, "a timer due by " + to + " did not fire"));
+            }
+            assertEquals(expected.size(), wheel.size());
+        }
+        assertFalse(wheel.schedule(1, wheel.now()), "a timer must lie ahead");
+        assertFalse(wheel.schedule(1, wheel.now() + (1L << 40)), "a timer must lie within the wheels");
+    }
+
+    @Test
+    void scheduler_followsStartingTasksAndLaterChanges() throws Exception {
+        LocalDateTime now = LocalDateTime.of(2025, 8, 12, 9, 0, 30);
+        AtomicReference<LocalDateTime> clock = new AtomicReference<>(now);
+        ArrayList<Task> seed = new ArrayList<>();
+        seed.add(new Deadline("pay rent", now.minusDays(1)));
+        seed.add(new Deadline("return book", now.plusMinutes(5)));
+        seed.add(new Event("team lunch", now.plusMinutes(10), now.plusMinutes(70)));
+        seed.add(new Todo("read book"));
+        Deadline done = new Deadline("file taxes", now.plusMinutes(3));
+        done.mark();
+        seed.add(done);
+        TaskList tasks = new TaskList(seed);
+        List<String> alerts = new CopyOnWriteArrayList<>();
+
+        try (ReminderScheduler reminders = new ReminderScheduler(Task::getDescription, alerts::add, clock::get)) {
+            reminders.start(tasks);
+            assertEquals(2, reminders.pending());
+
+            tasks.add(new Deadline("call bank", now.plusMinutes(7)));
+            tasks.mark(2); // the event no longer needs a reminder
+            tasks.unmark(4);
+            tasks.beginBatch();
+            tasks.add(new Deadline("never added", now.plusMinutes(4)));
+            tasks.rollbackBatch();
+            assertEquals(3, reminders.pending());
+
+            clock.set(now.plusMinutes(4));
+            reminders.tick();
+            assertEquals(List.of("file taxes"), alerts);
+
+            tasks.remove(tasks.indexOfId(6)); // call bank
+            clock.set(now.plusHours(2));
+            reminders.tick();
+            assertEquals(List.of("file taxes", "return book"), alerts);
+            assertEquals(0, reminders.pending());
+        }
+    }
+
+    @Test
+    void scheduler_looksTasksUpWhenTheyComeDueInEveryLayout() throws Exception {
+        LocalDateTime now = LocalDateTime.of(2025, 8, 12, 9, 0);
+        AtomicReference<LocalDateTime> clock = new AtomicReference<>(now);
+        List<TaskList> lists = List.of(new TaskList(seed(now)), TaskList.columnar(seed(now)),
+                TaskList.backedBy(seed(now), 3));
+        for (TaskList tasks : lists) {
+            List<String> alerts = new CopyOnWriteArrayList<>();
+            try (ReminderScheduler reminders = new ReminderScheduler(Task::getDescription, alerts::add,
+                    clock::get)) {
+                clock.set(now);
+                reminders.start(tasks);
+                assertEquals(2, reminders.pending());
+
+                tasks.mark(tasks.indexOfId(2));
+                clock.set(now.plusHours(1));
+                reminders.tick();
+                assertEquals(List.of("team lunch"), alerts);
+            }
+        }
+    }
+
+    /** Returns a deadline and an event that lie ahead and one that is past, with IDs 1 to 3. */
+    private static ArrayList<Task> seed(LocalDateTime now) {
+        ArrayList<Task> seed = new ArrayList<>();
+        seed.add(new Deadline("pay rent", now.minusDays(1)));
+        seed.add(new Deadline("return book", now.plusMinutes(5)));
+        seed.add(new Event("team lunch", now.plusMinutes(10), now.plusMinutes(70)));
+        for (int i = 0; i < seed.size(); i++) {
+            seed.get(i).setId(i + 1);
+        }
+        return seed;
+    }
+}
@@ -0,0 +1,112 @@
+package chatty.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.StringJoiner;
+
+import org.junit.jupiter.api.Test;
+
+import chatty.app.ChattyCore;
+import chatty.app.ChattyEngine;
+import chatty.storage.Storage;
+
+public class ChattyServerTest {
+
+    /** A line-based client that strips the reply terminator and dot-stuffing. */
+    private static final class Client implements AutoCloseable {
+        final Socket socket;
+        final BufferedReader in;
+        final PrintWriter out;
+
+        Client(int port) throws IOException {
+            socket = new Socket("localhost", port);
+            socket.setSoTimeout(5000);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        }
+
+        String readReply() throws IOException {
+            StringJoiner reply = new StringJoiner("\n");
+            String line;
+            while (!".".equals(line = in.readLine())) {
+                if (line == null) {
+                    throw new IOException("Connection closed mid-reply");
+                }
+                reply.add(line.startsWith(".") ? line.substring(1) : line);
+            }
+            return reply.toString();
+        }
+
+        String send(String command) throws IOException {
+            out.println(command);
+            return readReply();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    private static ChattyServer startServer(int maxConnections) throws IOException {
+        File dir = Files.createTempDirectory("chatty-server").toFile();
+        dir.deleteOnExit();
+        ChattyEngine engine = new ChattyEngine(new ChattyCore(new Storage(new File(dir, "chatty.txt")), true));
+        ChattyServer server = new ChattyServer(engine, 0, maxConnections);
+        Thread acceptor = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return server;
+    }
+
+    @Test
+    void sessionsShareOneTaskList() throws Exception {
+        try (ChattyServer server = startServer(8);
+             Client a = new Client(server.getPort());
+             Client b = new Client(server.getPort())) {
+            assertTrue(a.readReply().contains("Chatty"));
+            b.readReply();
+
+            assertTrue(a.send("todo shared task").contains("shared task"));
+            assertTrue(b.send("list").endsWith(" 1. [T][ ] shared task (#1)"));
+
+            assertTrue(a.send("bye").contains("Bye"));
+            assertNull(a.in.readLine());
+            assertEquals(" 1. [T][ ] shared task (#1)", b.send("find shared").split("\n")[1]);
+        }
+    }
+
+    @Test
+    void connectionsBeyondTheLimit_waitForAFreeSlot() throws Exception {
+        try (ChattyServer server = startServer(1);
+             Client a = new Client(server.getPort());
+             Client b = new Client(server.getPort())) {
+            a.readReply();
+            b.socket.setSoTimeout(300);
+            assertThrows(SocketTimeoutException.class, b::readReply);
+
+            a.send("bye");
+            b.socket.setSoTimeout(5000);
+            assertTrue(b.readReply().contains("Chatty"));
+            assertEquals(1, server.activeSessions());
+        }
+    }
+}
@@ -0,0 +1,680 @@
+package chatty.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import chatty.exceptions.ChattyException;
+import chatty.task.Deadline;
+import chatty.task.Task;
+import chatty.task.TaskList;
+import chatty.task.Todo;
+
+public class StorageTest {
+
+    private static File newDataFile() throws IOException {
+        File dir = Files.createTempDirectory("chatty-storage").toFile();
+        dir.deleteOnExit();
+        return new File(dir, "chatty.txt");
+    }
+
+    private static List<String> render(List<Task> tasks) {
+        ArrayList<String> out = new ArrayList<>();
+        for (Task t : tasks) {
+            out.add(t.toDataString());
+        }
+        return out;
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        ArrayList<Integer> out = new ArrayList<>();
+        for (Task t : tasks) {
+            out.add(t.getId());
+        }
+        return out;
+    }
+
+    @Test
+    void ids_givenOnceToOldFilesAndKeptInEveryMode() throws Exception {
+        boolean[][] modes = {{false, false, false}, {true, false, false}, {false, true, false}, {true, true, false},
+            {false, false, true}};
+        for (boolean[] m : modes) {
+            String mode = "journaled=" + m[0] + " lazy=" + m[1] + " incremental=" + m[2];
+            File file = newDataFile();
+            Files.write(file.toPath(), List.of("T/-/0/-/a", "T/-/0/-/b/-/7", "T/-/0/-/c/-/7"), StandardCharsets.UTF_8);
+            Storage.Options options = new Storage.Options().journaled(m[0]).lazy(m[1]).incremental(m[2]);
+            Storage storage = new Storage(file, options);
+            TaskList tasks = storage.loadTaskList();
+            storage.attach(tasks);
+            assertEquals(List.of(8, 7, 9), ids(tasks.asList()), mode);
+            assertTrue(Files.readString(file.toPath()).contains("T/-/0/-/a/-/8"), mode);
+
+            tasks.add(new Todo("d"));
+            tasks.remove(0);
+            tasks.mark(tasks.indexOfId(9));
+            storage.persist(tasks);
+            storage.flush();
+
+            TaskList again = new Storage(file, options).loadTaskList();
+            assertEquals(List.of(7, 9, 10), ids(again.asList()), mode);
+            assertEquals(render(tasks.asList()), render(again.asList()), mode);
+            assertEquals(1, again.indexOfId(9), mode);
+        }
+    }
+
+    @Test
+    void ids_ofRemovedHighestTaskNotReusedAfterReloadInEveryMode() throws Exception {
+        List<Storage.Options> modes = List.of(new Storage.Options(), new Storage.Options().journaled(true),
+                new Storage.Options().lazy(true), new Storage.Options().journaled(true).lazy(true),
+                new Storage.Options().incremental(true), new Storage.Options().writeBehind(true),
+                new Storage.Options().columnar(true));
+        for (int m = 0; m < modes.size() * 2; m++) {
+            String name = m < modes.size() ? "chatty.txt" : "chatty.bin";
+            Storage.Options options = modes.get(m % modes.size());
+            File file = new File(newDataFile().getParentFile(), name);
+            Storage storage = new Storage(file, options);
+            TaskList tasks = storage.loadTaskList();
+            storage.attach(tasks);
+            tasks.add(new Todo("a"));
+            tasks.add(new Todo("b"));
+            storage.persist(tasks);
+            tasks.remove(tasks.indexOfId(2));
+            storage.persist(tasks);
+            storage.flush();
+
+            String mode = "mode " + m;
+            for (int id = 3; id <= 4; id++) {
+                storage = new Storage(file, options);
+                tasks = storage.loadTaskList();
+                storage.attach(tasks);
+                tasks.add(new Todo("c"));
+                assertEquals(List.of(1, id), ids(tasks.asList()), mode);
+                tasks.remove(1);
+                storage.persist(tasks);
+                storage.flush();
+            }
+            assertEquals(List.of(1), ids(new Storage(file, options).loadSharedTaskList().asList()), mode);
+            TaskList shared = new Storage(file, options).loadSharedTaskList();
+            shared.add(new Todo("d"));
+            assertEquals(5, shared.get(1).getId(), mode);
+        }
+    }
+
+    @Test
+    void columnar_changesSurviveReloadInEveryWriteMode() throws Exception {
+        for (boolean isJournaled : new boolean[]{false, true}) {
+            File file = newDataFile();
+            Files.write(file.toPath(), List.of("T/-/0/-/read book", "D/-/0/-/return book/-/12-08-2025 1800"),
+                    StandardCharsets.UTF_8);
+            Storage storage = new Storage(file, new Storage.Options().journaled(isJournaled).incremental(true)
+                    .fsync(FsyncPolicy.NEVER).columnar(true));
+            TaskList tasks = storage.loadTaskList();
+            storage.attach(tasks);
+
+            tasks.mark(1);
+            tasks.add(new Todo("buy milk"));
+            tasks.remove(0);
+            storage.persist(tasks);
+
+            String mode = "journaled=" + isJournaled;
+            assertEquals(List.of("D/-/1/-/return book/-/12-08-2025 1800/-/2", "T/-/0/-/buy milk/-/3"),
+                    render(tasks.asList()), mode);
+            Storage reopened = new Storage(file, new Storage.Options().journaled(isJournaled));
+            assertEquals(render(tasks.asList()), render(reopened.load()), mode);
+        }
+    }
+
+    @Test
+    void binaryFormat_readsVersionWithoutIdsAndUpgradesIt() throws Exception {
+        File bin = new File(newDataFile().getParentFile(), "chatty.bin");
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(bin))) {
+            out.writeInt(BinaryFormat.MAGIC);
+            out.writeShort(BinaryFormat.VERSION_WITHOUT_IDS);
+            out.writeShort(0);
+            out.writeInt(1);
+            out.writeInt(0);
+            out.writeByte('T');
+            out.writeByte(1);
+            out.writeInt(4);
+            out.write("read".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(List.of("T/-/1/-/read/-/1"), render(new Storage(bin).load()));
+        assertEquals(BinaryFormat.VERSION, ByteBuffer.wrap(Files.readAllBytes(bin.toPath())).getShort(4));
+        assertEquals(List.of("T/-/1/-/read/-/1"), render(new Storage(bin).load()));
+    }
+
+    @Test
+    void binaryFormat_stopsAtCorruptedCountOrLength() throws Exception {
+        File bin = new File(newDataFile().getParentFile(), "chatty.bin");
+        for (int badLength : new int[]{Integer.MAX_VALUE, -1, 5}) {
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(bin))) {
+                out.writeInt(BinaryFormat.MAGIC);
+                out.writeShort(BinaryFormat.VERSION);
+                out.writeShort(0);
+                out.writeInt(Integer.MAX_VALUE);
+                out.writeInt(0);
+                for (int len : new int[]{4, badLength}) {
+                    out.writeByte('T');
+                    out.writeByte(0);
+                    out.writeInt(len == 4 ? 1 : 2);
+                    out.writeInt(len);
+                    out.write("read".getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            assertEquals(List.of("T/-/0/-/read/-/1"), render(BinaryFormat.read(bin)), "length " + badLength);
+        }
+    }
+
+    @Test
+    void binaryFormat_stopsAtTimeOutOfRange() throws Exception {
+        File bin = new File(newDataFile().getParentFile(), "chatty.bin");
+        for (long badMinutes : new long[]{Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE / 60 + 1}) {
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(bin))) {
+                out.writeInt(BinaryFormat.MAGIC);
+                out.writeShort(BinaryFormat.VERSION);
+                out.writeShort(0);
+                out.writeInt(3);
+                out.writeInt(0);
+                out.writeByte('T');
+                out.writeByte(0);
+                out.writeInt(1);
+                out.writeInt(4);
+                out.write("read".getBytes(StandardCharsets.UTF_8));
+                out.writeByte('D');
+                out.writeByte(0);
+                out.writeInt(2);
+                out.writeInt(6);
+                out.write("return".getBytes(StandardCharsets.UTF_8));
+                out.writeLong(badMinutes);
+                out.writeByte('E');
+                out.writeByte(0);
+                out.writeInt(3);
+                out.writeInt(4);
+                out.write("meet".getBytes(StandardCharsets.UTF_8));
+                out.writeLong(0);
+                out.writeLong(badMinutes);
+            }
+
+            assertEquals(List.of("T/-/0/-/read/-/1"), render(BinaryFormat.read(bin)), "minutes " + badMinutes);
+            assertEquals(List.of("T/-/0/-/read/-/1"), render(new Storage(bin).load()), "minutes " + badMinutes);
+        }
+    }
+
+    @Test
+    void journaled_changesSurviveReload() throws Exception {
+        File file = newDataFile();
+        Storage storage = new Storage(file, new Storage.Options().journaled(true));
+        TaskList tasks = new TaskList(storage.load());
+        storage.attach(tasks);
+
+        tasks.add(new Todo("read book"));
+        tasks.add(new Deadline("return book", "12-08-2025 1800"));
+        tasks.add(new Todo("buy milk"));
+        tasks.mark(1);
+        tasks.remove(0);
+        storage.persist(tasks);
+
+        assertEquals(0, Files.size(file.toPath()), "snapshot should not be rewritten");
+        List<Task> reloaded = new Storage(file, new Storage.Options().journaled(true)).load();
+        assertEquals(render(tasks.asList()), render(reloaded));
+    }
+
+    @Test
+    void journaled_compactsIntoSnapshot() throws Exception {
+        File file = newDataFile();
+        Storage storage = new Storage(file, new Storage.Options().journaled(true));
+        TaskList tasks = new TaskList(storage.load());
+        storage.attach(tasks);
+
+        for (int i = 0; i < Journal.COMPACT_THRESHOLD + 10; i++) {
+            tasks.add(new Todo("task " + i));
+            if (i % 3 == 0) {
+                tasks.mark(i);
+            }
+            storage.persist(tasks);
+        }
+        storage.awaitCompaction();
+
+        List<String> snapshot = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertFalse(snapshot.isEmpty());
+        assertFalse(new File(file.getPath() + ".journal.old").exists());
+        assertEquals(render(tasks.asList()), render(new Storage(file, new Storage.Options().journaled(true)).load()));
+    }
+
+    @Test
+    void journaled_recoversInterruptedCompaction() throws Exception {
+        File file = newDataFile();
+        Files.write(file.toPath(), List.of("T/-/0/-/a"), StandardCharsets.UTF_8);
+        Files.write(new File(file.getPath() + ".journal.old").toPath(),
+                List.of("A/-/T/-/0/-/b", "M/-/0"), StandardCharsets.UTF_8);
+        Files.write(new File(file.getPath() + ".journal").toPath(),
+                List.of("A/-/T/-/0/-/c", "X/-/1"), StandardCharsets.UTF_8);
+        // Half-written snapshot from a compaction that never committed.
+        Files.write(new File(file.getPath() + ".next").toPath(),
+                List.of("T/-/1/-/a"), StandardCharsets.UTF_8);
+
+        List<Task> loaded = new Storage(file, new Storage.Options().journaled(true)).load();
+
+        assertEquals(List.of("T/-/1/-/a/-/1", "T/-/0/-/c/-/2"), render(loaded));
+        assertFalse(new File(file.getPath() + ".next").exists());
+    }
+
+    @Test
+    void journaled_unreadableLogIsSetAsideInsteadOfTheFile() throws Exception {
+        for (boolean isLazy : new boolean[]{false, true}) {
+            File file = newDataFile();
+            Files.write(file.toPath(), List.of("T/-/0/-/a/-/1"), StandardCharsets.UTF_8);
+            Files.write(new File(file.getPath() + ".journal.old").toPath(),
+                    List.of("A/-/T/-/0/-/b"), StandardCharsets.UTF_8);
+            // A directory where the live log should be cannot be read as one.
+            Files.createDirectory(new File(file.getPath() + ".journal").toPath());
+            Storage.Options options = new Storage.Options().journaled(true).lazy(isLazy);
+            String mode = "lazy=" + isLazy;
+
+            List<Task> loaded = new Storage(file, options).loadTaskList().asList();
+
+            assertEquals(List.of("T/-/0/-/a/-/1", "T/-/0/-/b/-/2"), render(loaded), mode);
+            File[] aside = file.getParentFile().listFiles((dir, name) -> name.contains(".unreadable-"));
+            assertEquals(1, aside.length, mode);
+            assertTrue(aside[0].getName().startsWith(file.getName() + ".journal.unreadable-"), mode);
+            assertEquals(render(loaded), render(new Storage(file, options).loadTaskList().asList()), mode);
+        }
+    }
+
+    @Test
+    void snapshotMode_rewritesFile() throws ChattyException, IOException {
+        File file = newDataFile();
+        Storage storage = new Storage(file);
+        TaskList tasks = new TaskList(storage.load());
+        storage.attach(tasks);
+
+        tasks.add(new Todo("read book"));
+        storage.persist(tasks);
+
+        assertTrue(Files.readAllLines(file.toPath()).contains("T/-/0/-/read book/-/1"));
+        assertFalse(new File(file.getPath() + ".journal").exists());
+    }
+
+    @Test
+    void binaryFormat_roundTripsThroughText() throws Exception {
+        File text = newDataFile();
+        List<String> lines = List.of(
+                "T/-/0/-/read book",
+                "D/-/1/-/return book/-/12-08-2025 1800",
+                "E/-/0/-/camp ünïcödé/-/11-08-2025 0900/-/14-08-2025 1700",
+                "T/-/1/-/buy milk");
+        Files.write(text.toPath(), lines, StandardCharsets.UTF_8);
+        File bin = new File(text.getParentFile(), "chatty.bin");
+        File back = new File(text.getParentFile(), "back.txt");
+
+        assertEquals(4, FormatConverter.convert(text, bin));
+        assertEquals(BinaryFormat.MAGIC, ByteBuffer.wrap(Files.readAllBytes(bin.toPath())).getInt());
+        assertEquals(4, FormatConverter.convert(bin, back));
+
+        assertEquals(lines, Files.readAllLines(back.toPath(), StandardCharsets.UTF_8));
+        assertEquals(render(new Storage(text).load()), render(new Storage(bin).load()));
+    }
+
+    @Test
+    void binaryFormat_journaledChangesSurviveReload() throws Exception {
+        File bin = new File(newDataFile().getParentFile(), "chatty.bin");
+        Storage storage = new Storage(bin, new Storage.Options().journaled(true));
+        TaskList tasks = new TaskList(storage.load());
+        storage.attach(tasks);
+
+        for (int i = 0; i < Journal.COMPACT_THRESHOLD + 1; i++) {
+            tasks.add(new Deadline("task " + i, "12-08-2025 1800"));
+            storage.persist(tasks);
+        }
+        tasks.mark(3);
+        storage.persist(tasks);
+        storage.awaitCompaction();
+
+        assertTrue(Files.size(bin.toPath()) > BinaryFormat.HEADER_BYTES);
+        assertEquals(render(tasks.asList()), render(new Storage(bin, new Storage.Options().journaled(true)).load()));
+    }
+
+    @Test
+    void lazy_matchesEagerLoadAcrossChanges() throws Exception {
+        File file = newDataFile();
+        ArrayList<String> lines = new ArrayList<>();
+        for (int i = 0; i < 3 * LazyTaskList.DEFAULT_CACHE_SIZE; i++) {
+            lines.add(i % 3 == 0 ? "D/-/0/-/task " + i + "/-/12-08-2025 1800" : "T/-/" + (i % 2) + "/-/task " + i);
+            if (i == 10) {
+                lines.add("corrupted line");
+            }
+        }
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+
+        Storage storage = new Storage(file, new Storage.Options().lazy(true));
+        TaskList tasks = storage.loadTaskList();
+        storage.attach(tasks);
+        assertTrue(new File(file.getPath() + ".idx").isFile(), "offset index should be written");
+        assertEquals(render(new Storage(file).load()), render(tasks.asList()));
+
+        tasks.mark(12);
+        tasks.unmark(1);
+        tasks.remove(0);
+        tasks.add(new Todo("new task"));
+        assertEquals(1, tasks.find("task 4242").size());
+        storage.persist(tasks);
+        assertFalse(tasks.isDirty());
+
+        List<Task> reloaded = new Storage(file).load();
+        assertEquals(render(tasks.asList()), render(reloaded));
+        Storage lazy = new Storage(file, new Storage.Options().lazy(true));
+        assertEquals(render(reloaded), render(lazy.loadTaskList().asList()));
+    }
+
+    @Test
+    void lazy_journaledChangesSurviveReload() throws Exception {
+        File file = newDataFile();
+        Files.write(file.toPath(), List.of("T/-/0/-/read book", "T/-/0/-/buy milk"), StandardCharsets.UTF_8);
+        Storage storage = new Storage(file, new Storage.Options().journaled(true).lazy(true));
+        TaskList tasks = storage.loadTaskList();
+        storage.attach(tasks);
+
+        tasks.mark(1);
+        tasks.add(new Deadline("return book", "12-08-2025 1800"));
+        storage.persist(tasks);
+
+        TaskList reloaded = new Storage(file, new Storage.Options().journaled(true).lazy(true)).loadTaskList();
+        assertEquals(render(tasks.asList()), render(reloaded.asList()));
+        assertTrue(reloaded.get(1).getIsDone());
+    }
+
+    @Test
+    void bulkRemoval_survivesReloadInEveryMode() throws Exception {
+        for (boolean isJournaled : new boolean[]{false, true}) {
+            for (boolean isLazy : new boolean[]{false, true}) {
+                File file = newDataFile();
+                Storage storage = new Storage(file, new Storage.Options().journaled(isJournaled).lazy(isLazy));
+                TaskList tasks = storage.loadTaskList();
+                storage.attach(tasks);
+                for (int i = 0; i < 10; i++) {
+                    tasks.add(new Todo("task " + i));
+                }
+                storage.persist(tasks);
+
+                tasks.removeAll(new int[]{0, 3, 4, 5, 9});
+                storage.persist(tasks);
+
+                String mode = "journaled=" + isJournaled + " lazy=" + isLazy;
+                assertEquals(List.of("T/-/0/-/task 1/-/2", "T/-/0/-/task 2/-/3", "T/-/0/-/task 6/-/7",
+                        "T/-/0/-/task 7/-/8", "T/-/0/-/task 8/-/9"), render(tasks.asList()), mode);
+                Storage reopened = new Storage(file, new Storage.Options().journaled(isJournaled));
+                assertEquals(render(tasks.asList()), render(reopened.load()), mode);
+            }
+        }
+    }
+
+    @Test
+    void writeBehind_coalescesBurstsAndFlushesLatestSnapshot() throws Exception {
+        File file = newDataFile();
+        Storage format = new Storage(file);
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WriteBehind writer = new WriteBehind(file, bytes -> {
+            firstWriteStarted.countDown();
+            try {
+                release.await(); // holds the first write open while the burst arrives
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, new FileSyncer(FsyncPolicy.NEVER));
+
+        List<Task> snapshot = new ArrayList<>();
+        writer.submit(format.encode(snapshot));
+        firstWriteStarted.await();
+        for (int i = 0; i < 50; i++) {
+            snapshot.add(new Todo("task " + i));
+            writer.submit(format.encode(snapshot));
+        }
+        release.countDown();
+        writer.flush();
+
+        assertEquals(2, writer.writes(), "the burst should be written once");
+        assertEquals(render(snapshot), Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    void writeBehind_writesTheListAsItWasWhenPersisted() throws Exception {
+        File file = newDataFile();
+        Storage storage = new Storage(file, new Storage.Options().writeBehind(true));
+        TaskList tasks = storage.loadTaskList();
+        storage.attach(tasks);
+        tasks.add(new Todo("read book"));
+        storage.persist(tasks);
+        tasks.mark(0); // not persisted, so the background write must not see it
+        storage.flush();
+
+        assertEquals(List.of("T/-/0/-/read book/-/1"), Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writeBehind_persistReturnsBeforeWriteAndFlushWaits() throws Exception {
+        File file = newDataFile();
+        Storage storage = new Storage(file, new Storage.Options().writeBehind(true));
+        TaskList tasks = storage.loadTaskList();
+        storage.attach(tasks);
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new Todo("task " + i));
+            storage.persist(tasks);
+            assertFalse(tasks.isDirty());
+        }
+        storage.flush();
+
+        assertTrue(storage.backgroundWrites() <= 100);
+        assertEquals(render(tasks.asList()), render(new Storage(file).load()));
+    }
+
+    @Test
+    void incremental_marksPatchInPlaceAndAddsAppend() throws Exception {
+        File file = newDataFile();
+        Files.write(file.toPath(), ("T /-/ 0 /-/ spaced /-/ 1\r\nbroken line\n"
+                + "D/-/0/-/return book/-/12-08-2025 1800/-/2").getBytes(StandardCharsets.UTF_8));
+        Storage storage = new Storage(file, new Storage.Options().incremental(true));
+        TaskList tasks = storage.loadTaskList();
+        storage.attach(tasks);
+        assertEquals(2, tasks.size());
+        long length = file.length();
+
+        tasks.mark(0);
+        tasks.mark(1);
+        storage.persist(tasks);
+        assertEquals(length, file.length(), "a status change should not grow the file");
+        assertEquals(2, storage.bytesWritten());
+
+        tasks.add(new Todo("new task"));
+        tasks.unmark(0);
+        storage.persist(tasks);
+        String contents = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        assertTrue(contents.startsWith("T /-/ 0 /-/ spaced /-/ 1\r\nbroken line\nD/-/1/-/return book"), contents);
+        assertEquals(render(tasks.asList()), render(new Storage(file).load()));
+    }
+
+    @Test
+    void incremental_deletesBlankOutLinesUntilCompaction() throws Exception {
+        File file = newDataFile();
+        Storage storage = new Storage(file, new Storage.Options().incremental(true));
+        TaskList tasks = storage.loadTaskList();
+        storage.attach(tasks);
+        for (int i = 0; i < 3000; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        storage.persist(tasks);
+        long length = file.length();
+
+        tasks.remove(5);
+        tasks.removeAll(new int[]{0, 1, 2});
+        tasks.mark(0);
+        storage.persist(tasks);
+        assertEquals(length, file.length(), "deleting should not rewrite the file");
+        assertEquals(render(tasks.asList()), render(new Storage(file).load()));
+
+        int[] most = new int[2000];
+        for (int i = 0; i < most.length; i++) {
+            most[i] = i;
+        }
+        tasks.removeAll(most);
+        storage.persist(tasks);
+        storage.persist(tasks);
+        assertEquals(render(tasks.asList()), Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+
+        Storage reopened = new Storage(file, new Storage.Options().incremental(true));
+        TaskList again = reopened.loadTaskList();
+        reopened.attach(again);
+        again.mark(again.size() - 1);
+        reopened.persist(again);
+        assertEquals(render(again.asList()), render(new Storage(file).load()));
+    }
+
+    @Test
+    void incremental_randomChanges_matchFullRewrite() throws Exception {
+        File file = newDataFile();
+        Files.write(file.toPath(), "T/-/yes/-/odd status\nE/-/1/-/trip/-/01-01-2025 0900/-/02-01-2025 1800"
+                .getBytes(StandardCharsets.UTF_8));
+        Random rnd = new Random(18);
+        Storage storage = new Storage(file, new Storage.Options().incremental(true));
+        TaskList tasks = storage.loadTaskList();
+        storage.attach(tasks);
+        for (int round = 0; round < 300; round++) {
+            for (int op = rnd.nextInt(4); op >= 0; op--) {
+                int kind = rnd.nextInt(10);
+                if (kind < 4 || tasks.size() == 0) {
+                    tasks.add(new Todo("task " + round + "-" + op));
+                } else if (kind < 8) {
+                    int idx = rnd.nextInt(tasks.size());
+                    if (tasks.get(idx).getIsDone()) {
+                        tasks.unmark(idx);
+                    } else {
+                        tasks.mark(idx);
+                    }
+                } else {
+                    tasks.remove(rnd.nextInt(tasks.size()));
+                }
+            }
+            if (tasks.isDirty()) {
+                storage.persist(tasks);
+            }
+            assertEquals(render(tasks.asList()), render(new Storage(file).load()), "round " + round);
+        }
+    }
+
+    @Test
+    void fsyncPolicyOf_ignoresCaseAndFallsBackOnUnknownNames() {
+        assertEquals(FsyncPolicy.ALWAYS, Storage.fsyncPolicyOf("Always"));
+        assertEquals(FsyncPolicy.NEVER, Storage.fsyncPolicyOf("never"));
+        assertEquals(Storage.DEFAULT_FSYNC_POLICY, Storage.fsyncPolicyOf("allways"));
+        assertEquals(Storage.DEFAULT_FSYNC_POLICY, Storage.fsyncPolicyOf(""));
+    }
+
+    @Test
+    void save_replacesFileAtomicallyWithEveryPolicy() throws Exception {
+        for (FsyncPolicy policy : FsyncPolicy.values()) {
+            for (boolean isIncremental : new boolean[]{false, true}) {
+                File file = newDataFile();
+                Storage storage = new Storage(file, new Storage.Options().incremental(isIncremental).fsync(policy));
+                TaskList tasks = storage.loadTaskList();
+                storage.attach(tasks);
+                tasks.add(new Todo("first"));
+                storage.persist(tasks);
+                tasks.add(new Todo("second"));
+                tasks.mark(0);
+                storage.persist(tasks);
+                storage.flush();
+
+                String mode = policy + " incremental=" + isIncremental;
+                assertEquals(List.of("T/-/1/-/first/-/1", "T/-/0/-/second/-/2"),
+                        Files.readAllLines(file.toPath(), StandardCharsets.UTF_8), mode);
+                assertFalse(new File(file.getPath() + ".tmp").exists(), mode);
+            }
+        }
+    }
+
+    @Test
+    void load_discardsUnfinishedSaveAndSetsAsideUnreadableFile() throws Exception {
+        File file = newDataFile();
+        Files.write(file.toPath(), List.of("T/-/0/-/kept"), StandardCharsets.UTF_8);
+        File tmp = new File(file.getPath() + ".tmp");
+        Files.write(tmp.toPath(), List.of("T/-/0/-/half writ"), StandardCharsets.UTF_8);
+        assertEquals(List.of("T/-/0/-/kept/-/1"), render(new Storage(file).load()));
+        assertFalse(tmp.exists());
+
+        File bin = new File(file.getParentFile(), "chatty.bin");
+        Files.write(bin.toPath(), "not binary at all".getBytes(StandardCharsets.UTF_8));
+        Storage storage = new Storage(bin);
+        assertTrue(storage.load().isEmpty());
+        storage.save(List.of(new Todo("new")));
+        File[] aside = bin.getParentFile().listFiles((dir, name) -> name.startsWith("chatty.bin.unreadable-"));
+        assertEquals(1, aside.length);
+        assertEquals("not binary at all", Files.readString(aside[0].toPath(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void parallelRead_matchesLineByLineRead() throws Exception {
+        String[] lines = {"T/-/0/-/read book", "D/-/1/-/return book/-/12-08-2025 1800", "corrupted",
+            " E /-/ 0 /-/ trip /-/ 01-01-2025 0900 /-/ 02-01-2025 1800", "D/-/0/-/no date", "", "T/-/yes/-/odd",
+            "T/-/1/-/caf\u00e9 \u2615"};
+        String[] breaks = {"\n", "\r\n", "\r"};
+        Random rnd = new Random(20);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append(lines[rnd.nextInt(lines.length)]).append(breaks[rnd.nextInt(breaks.length)]);
+        }
+        sb.append("T/-/0/-/no line break at the end");
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        ArrayList<Task> expected = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new StringReader(sb.toString()))) {
+            for (String line = br.readLine(); line != null; line = br.readLine()) {
+                Task t = Storage.parseLine(line);
+                if (t != null) {
+                    expected.add(t);
+                }
+            }
+        }
+        ParallelTextReader.Records whole = ParallelTextReader.parse(bytes, true, new ForkJoinPool(1), bytes.length);
+        assertEquals(render(expected), render(whole.tasks));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int minChunkBytes : new int[]{1, 7, 100, 4096}) {
+                ParallelTextReader.Records chunked = ParallelTextReader.parse(bytes, true, pool, minChunkBytes);
+                assertEquals(render(expected), render(chunked.tasks), "chunks of " + minChunkBytes);
+                assertEquals(whole.deadLines, chunked.deadLines);
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(whole.kindAt[i], chunked.kindAt[i]);
+                    assertEquals(whole.statusAt[i], chunked.statusAt[i]);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        int[] bounds = ParallelTextReader.chunkBounds(bytes, 64);
+        for (int i = 1; i + 1 < bounds.length; i++) {
+            byte before = bytes[bounds[i] - 1];
+            assertTrue(before == '\n' || before == '\r' && bytes[bounds[i]] != '\n', "bound " + bounds[i]);
+        }
+    }
+}
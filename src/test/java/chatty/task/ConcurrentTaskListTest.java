@@ -0,0 +1,174 @@
+package chatty.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentTaskListTest {
+    private static final int READERS = 4;
+    private static final int ROUNDS = 20_000;
+
+    /**
+     * The writer only ever adds, marks and removes tasks in pairs, each pair inside one write.
+     * Readers check, inside one read, that they never see half a pair.
+     */
+    @Test
+    void readersNeverSeeHalfAChange() throws Exception {
+        ConcurrentTaskList list = new ConcurrentTaskList(new ArrayList<>());
+        AtomicBoolean isDone = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    while (!isDone.get()) {
+                        list.read(() -> {
+                            checkPairs(list);
+                            return null;
+                        });
+                        if (list.find("pair").size() % 2 != 0) {
+                            throw new AssertionError("find saw half a pair");
+                        }
+                        int n = list.size(); // unlocked reads may be stale, but never torn
+                        if (n > 0) {
+                            try {
+                                assertNotNull(list.get(n - 1));
+                            } catch (IndexOutOfBoundsException e) {
+                                // removed in the meantime
+                            }
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+
+        start.countDown();
+        for (int i = 0; i < ROUNDS; i++) {
+            int id = i;
+            list.write(() -> {
+                list.add(new Todo("pair " + id));
+                list.add(new Todo("pair " + id));
+                return null;
+            });
+            if (i % 3 == 0) {
+                list.write(() -> {
+                    list.mark(0);
+                    list.mark(1);
+                    return null;
+                });
+            }
+            if (list.size() > 64) {
+                list.write(() -> {
+                    list.removeAll(new int[] {0, 1});
+                    return null;
+                });
+            }
+        }
+        isDone.set(true);
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertNull(failure.get());
+        checkPairs(list);
+    }
+
+    private static void checkPairs(TaskList list) {
+        int n = list.size();
+        if (n % 2 != 0) {
+            throw new AssertionError("Odd size " + n);
+        }
+        for (int i = 0; i < n; i += 2) {
+            Task a = list.get(i);
+            Task b = list.get(i + 1);
+            if (!a.toString().equals(b.toString())) {
+                throw new AssertionError("Torn pair: " + a + " / " + b);
+            }
+        }
+    }
+
+    @Test
+    void nestedCalls_doNotDeadlock() throws Exception {
+        ConcurrentTaskList list = new ConcurrentTaskList(new ArrayList<>());
+        list.write(() -> {
+            list.add(new Todo("a"));
+            return list.write(() -> list.read(() -> list.find("a")));
+        });
+        assertEquals(1, (int) list.read(() -> list.read(list::size)));
+        assertThrows(IllegalStateException.class, () -> list.read(() -> list.remove(0)));
+    }
+
+    @Test
+    void reads_finishWhileAWriterHoldsTheLock() throws Exception {
+        ConcurrentTaskList list = new ConcurrentTaskList(new ArrayList<>());
+        list.add(new Todo("read book"));
+        CountDownLatch isWriting = new CountDownLatch(1);
+        CountDownLatch mayFinish = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            try {
+                list.write(() -> {
+                    list.add(new Todo("return book"));
+                    list.mark(0);
+                    isWriting.countDown();
+                    try {
+                        mayFinish.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return null;
+                });
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+        writer.start();
+        isWriting.await();
+
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<Task>> found = reader.submit(() -> list.read(() -> list.find("book")));
+            List<Task> before = found.get(10, TimeUnit.SECONDS);
+            assertEquals(1, before.size());
+            assertFalse(before.get(0).getIsDone());
+        } finally {
+            mayFinish.countDown();
+            writer.join();
+            reader.shutdown();
+        }
+
+        assertEquals(2, list.find("book").size());
+        assertTrue(list.get(0).getIsDone());
+    }
+
+    @Test
+    void asList_isSnapshot() {
+        ConcurrentTaskList list = new ConcurrentTaskList(new ArrayList<>());
+        list.add(new Todo("a"));
+        List<Task> snapshot = list.asList();
+        list.add(new Todo("b"));
+        assertEquals(1, snapshot.size());
+    }
+}
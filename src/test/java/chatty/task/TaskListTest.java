@@ -1,13 +1,24 @@
 package chatty.task;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 
+import chatty.exceptions.ChattyException;
+
 public class TaskListTest {
 
     @Test
@@ -47,4 +58,510 @@ public class TaskListTest {
         list.get(0).unmark();
         assertTrue(list.get(0).toString().contains("[ ]"));
     }
+
+    private static List<Task> scan(TaskList list, String keyword) {
+        ArrayList<Task> matches = new ArrayList<>();
+        for (Task t : list.asList()) {
+            if (t.toString().toLowerCase().contains(keyword.toLowerCase())) {
+                matches.add(t);
+            }
+        }
+        return matches;
+    }
+
+    @Test
+    void find_matchesFullScan_acrossChanges() throws ChattyException {
+        String[] words = {"read", "Book", "milk", "xray", "box", "meeting", "report", "taxes"};
+        String[] queries = {"book", "BOOK", "o", "x", "[x]", "[ ]", "[t][ ] read", "milk box",
+            "(by: 12-08", "ee", "taxes", "[e]", "nothing here", "read book", " 1800)"};
+        Random rnd = new Random(42);
+        TaskList list = new TaskList(new ArrayList<>());
+
+        for (int step = 0; step < 5000; step++) {
+            int op = rnd.nextInt(10);
+            if (op < 5 || list.size() == 0) {
+                String desc = words[rnd.nextInt(words.length)] + " " + words[rnd.nextInt(words.length)];
+                switch (rnd.nextInt(3)) {
+                case 0:
+                    list.add(new Todo(desc));
+                    break;
+                case 1:
+                    list.add(new Deadline(desc, "12-08-2025 1800"));
+                    break;
+                default:
+                    list.add(new Event(desc, "12-08-2025 1000", "13-08-2025 1200"));
+                    break;
+                }
+            } else if (op == 5) {
+                list.mark(rnd.nextInt(list.size()));
+            } else if (op == 6) {
+                list.unmark(rnd.nextInt(list.size()));
+            } else {
+                list.remove(rnd.nextInt(list.size()));
+            }
+
+            if (step % 97 == 0) {
+                for (String q : queries) {
+                    assertEquals(scan(list, q), list.find(q), "query: " + q);
+                }
+            }
+        }
+    }
+
+    @Test
+    void findTimed_matchesBruteForceOverlap() throws ChattyException {
+        Random rnd = new Random(7);
+        TaskList list = new TaskList(new ArrayList<>());
+        for (int step = 0; step < 3000; step++) {
+            if (rnd.nextInt(4) == 0 && list.size() > 0) {
+                list.remove(rnd.nextInt(list.size()));
+                continue;
+            }
+            int day = 1 + rnd.nextInt(20);
+            int hour = rnd.nextInt(24);
+            String start = String.format("%02d-08-2025 %02d00", day, hour);
+            String end = String.format("%02d-08-2025 %02d30", Math.min(28, day + rnd.nextInt(3)), hour);
+            switch (rnd.nextInt(3)) {
+            case 0:
+                list.add(new Todo("todo " + step));
+                break;
+            case 1:
+                list.add(new Deadline("deadline " + step, start));
+                break;
+            default:
+                list.add(new Event("event " + step, start, end));
+                break;
+            }
+        }
+
+        for (int day = 1; day <= 28; day++) {
+            LocalDateTime from = LocalDateTime.of(2025, 8, day, 0, 0);
+            LocalDateTime to = from.plusDays(rnd.nextInt(3)).withHour(23).withMinute(59);
+            ArrayList<Task> expected = new ArrayList<>();
+            for (Task t : list.asList()) {
+                if (t instanceof Deadline d && !d.getBy().isBefore(from) && !d.getBy().isAfter(to)) {
+                    expected.add(t);
+                } else if (t instanceof Event e && !e.getTo().isBefore(from) && !e.getFrom().isAfter(to)) {
+                    expected.add(t);
+                }
+            }
+            assertEquals(expected, list.findTimed(from, to), "window starting " + from);
+        }
+    }
+
+    @Test
+    void rollbackBatch_restoresListAndHidesChangesFromListeners() throws ChattyException {
+        ArrayList<Task> seed = new ArrayList<>();
+        seed.add(new Todo("read book"));
+        seed.add(new Deadline("return book", "12-08-2025 1800"));
+        seed.add(new Todo("buy milk"));
+        TaskList list = new TaskList(seed);
+        List<String> events = new ArrayList<>();
+        list.addListener(new TaskList.Listener() {
+            @Override
+            public void onAdd(int idx, Task t) {
+                events.add("add " + idx);
+            }
+
+            @Override
+            public void onRemove(int idx, Task t) {
+                events.add("remove " + idx);
+            }
+        });
+        List<String> before = new ArrayList<>();
+        for (Task t : list.asList()) {
+            before.add(t.toString());
+        }
+
+        list.beginBatch();
+        list.add(new Todo("novel"));
+        list.mark(1);
+        list.remove(0);
+        list.unmark(0);
+        list.remove(2);
+        list.rollbackBatch();
+
+        List<String> after = new ArrayList<>();
+        for (Task t : list.asList()) {
+            after.add(t.toString());
+        }
+        assertEquals(before, after);
+        assertTrue(events.isEmpty());
+        assertFalse(list.isDirty());
+        assertEquals(2, list.find("book").size());
+        LocalDateTime day = LocalDateTime.of(2025, 8, 12, 0, 0);
+        assertEquals(1, list.findTimed(day, day.plusDays(1)).size());
+
+        list.beginBatch();
+        list.add(new Todo("novel"));
+        list.remove(0);
+        list.commitBatch();
+        assertEquals(List.of("add 3", "remove 0"), events);
+        assertTrue(list.isDirty());
+    }
+
+    @Test
+    void removeAll_matchesRemovingOneByOne() throws ChattyException {
+        Random rnd = new Random(9);
+        for (int round = 0; round < 20; round++) {
+            TaskList bulk = new TaskList(null);
+            TaskList single = new TaskList(null);
+            int n = 1 + rnd.nextInt(200);
+            for (int i = 0; i < n; i++) {
+                Task t = i % 2 == 0
+                        ? new Todo("book " + i)
+                        : new Deadline("book " + i, "1" + (i % 9) + "-08-2025 1800");
+                bulk.add(t);
+                single.add(t);
+            }
+            int[] picked = rnd.ints(rnd.nextInt(n + 1), 0, n).distinct().sorted().toArray();
+            List<Integer> reported = new ArrayList<>();
+            bulk.addListener(new TaskList.Listener() {
+                @Override
+                public void onRemove(int idx, Task t) {
+                    reported.add(idx);
+                }
+            });
+
+            bulk.removeAll(picked);
+            for (int i = picked.length - 1; i >= 0; i--) {
+                single.remove(picked[i]);
+            }
+
+            assertEquals(single.asList(), bulk.asList());
+            assertEquals(single.find("book 1"), bulk.find("book 1"));
+            LocalDateTime from = LocalDateTime.of(2025, 8, 12, 0, 0);
+            assertEquals(single.findTimed(from, from.plusDays(3)), bulk.findTimed(from, from.plusDays(3)));
+            for (int i = 0; i < picked.length; i++) {
+                assertEquals(picked[picked.length - 1 - i], (int) reported.get(i));
+            }
+        }
+    }
+
+    @Test
+    void idsAndPositions_matchPlainListAcrossRandomChanges() {
+        Random rnd = new Random(21);
+        TaskList list = new TaskList(null);
+        ArrayList<Task> expected = new ArrayList<>();
+        int goneId = -1;
+        for (int round = 0; round < 3000; round++) {
+            int kind = rnd.nextInt(10);
+            if (kind < 5 || expected.isEmpty()) {
+                Task t = new Todo("task " + round);
+                list.add(t);
+                expected.add(t);
+            } else if (kind < 8) {
+                int idx = rnd.nextInt(expected.size());
+                goneId = expected.get(idx).getId();
+                assertSame(expected.remove(idx), list.remove(idx));
+            } else {
+                int n = expected.size();
+                int[] picked = rnd.ints(rnd.nextInt(Math.min(n, 20) + 1), 0, n).distinct().sorted().toArray();
+                list.removeAll(picked);
+                for (int i = picked.length - 1; i >= 0; i--) {
+                    goneId = expected.remove(picked[i]).getId();
+                }
+            }
+
+            assertEquals(expected, list.asList(), "round " + round);
+            if (!expected.isEmpty()) {
+                int idx = rnd.nextInt(expected.size());
+                assertSame(expected.get(idx), list.get(idx));
+                assertEquals(idx, list.indexOfId(expected.get(idx).getId()), "round " + round);
+            }
+            assertEquals(-1, list.indexOfId(goneId));
+        }
+    }
+
+    @Test
+    void columnar_matchesObjectListAcrossChanges() throws ChattyException {
+        Random rnd = new Random(22);
+        TaskList objects = new TaskList(null);
+        TaskList columns = TaskList.columnar(new ArrayList<>());
+        LocalDateTime start = LocalDateTime.of(2025, 8, 1, 0, 0);
+        for (int round = 0; round < 2000; round++) {
+            int kind = rnd.nextInt(10);
+            if (kind < 5 || objects.size() == 0) {
+                String desc = "caf\u00e9 book " + round;
+                LocalDateTime at = start.plusMinutes(rnd.nextInt(60 * 24 * 30));
+                objects.add(kind % 3 == 0 ? new Todo(desc) : kind % 3 == 1 ? new Deadline(desc, at)
+                        : new Event(desc, at, at.plusMinutes(rnd.nextInt(60 * 24 * 3))));
+                columns.add(copy(objects.get(objects.size() - 1)));
+            } else if (kind < 8) {
+                int idx = rnd.nextInt(objects.size());
+                objects.clearDirty();
+                columns.clearDirty();
+                if (objects.get(idx).getIsDone()) {
+                    objects.unmark(idx);
+                    columns.unmark(idx);
+                } else {
+                    objects.mark(idx);
+                    columns.mark(idx);
+                }
+                assertTrue(columns.isDirty());
+            } else {
+                int n = objects.size();
+                int[] picked = rnd.ints(rnd.nextInt(Math.min(n, 5) + 1), 0, n).distinct().sorted().toArray();
+                objects.removeAll(picked);
+                columns.removeAll(picked);
+            }
+
+            assertEquals(render(objects), render(columns), "round " + round);
+        }
+        for (int i = 0; i < 8000; i++) {
+            objects.add(new Todo("filler task number " + i));
+            columns.add(new Todo("filler task number " + i));
+        }
+        int[] most = IntStream.range(0, objects.size() - 10).filter(i -> i % 7 != 0).toArray();
+        objects.removeAll(most); // leaves most of the description arena unused, which compacts it
+        columns.removeAll(most);
+
+        assertEquals(render(objects), render(columns));
+        assertEquals(render(objects.find("book 1")), render(columns.find("book 1")));
+        assertEquals(render(objects.find("[x] caf\u00e9")), render(columns.find("[x] caf\u00e9")));
+        LocalDateTime from = start.plusDays(10);
+        assertEquals(render(objects.findTimed(from, from.plusDays(2))),
+                render(columns.findTimed(from, from.plusDays(2))));
+        Task last = objects.get(objects.size() - 1);
+        assertEquals(objects.size() - 1, columns.indexOfId(last.getId()));
+    }
+
+    @Test
+    void statusPositions_matchScanAcrossMarksRemovalsAndRollback() throws ChattyException {
+        Random rnd = new Random(23);
+        List<TaskList> lists = List.of(new TaskList(null), TaskList.columnar(new ArrayList<>()));
+        for (int round = 0; round < 3000; round++) {
+            int kind = rnd.nextInt(10);
+            int n = lists.get(0).size();
+            int idx = n == 0 ? 0 : rnd.nextInt(n);
+            boolean isDone = rnd.nextBoolean();
+            int[] picked = rnd.ints(rnd.nextInt(Math.min(n, 3) + 1), 0, Math.max(n, 1)).distinct().sorted().toArray();
+            for (TaskList list : lists) {
+                if (kind < 4 || n == 0) {
+                    Todo t = new Todo("task " + round);
+                    if (isDone) {
+                        t.mark(); // added as done
+                    }
+                    list.add(t);
+                } else if (kind < 7) {
+                    list.mark(idx);
+                } else if (kind < 8) {
+                    list.unmark(idx);
+                } else if (kind < 9) {
+                    list.removeAll(picked);
+                } else {
+                    list.beginBatch();
+                    list.mark(idx);
+                    list.remove(idx);
+                    list.rollbackBatch();
+                }
+
+                int[] done = IntStream.range(0, list.size()).filter(i -> list.get(i).getIsDone()).toArray();
+                int[] pending = IntStream.range(0, list.size()).filter(i -> !list.get(i).getIsDone()).toArray();
+                assertEquals(List.of(done.length, IntStream.of(done).boxed().toList()),
+                        List.of(list.countDone(), IntStream.of(list.positionsWithStatus(true)).boxed().toList()),
+                        "round " + round);
+                assertEquals(IntStream.of(pending).boxed().toList(),
+                        IntStream.of(list.positionsWithStatus(false)).boxed().toList(), "round " + round);
+            }
+        }
+    }
+
+    @Test
+    void upcoming_andForEachUpcoming_matchScanAcrossChanges() throws ChattyException {
+        Random rnd = new Random(24);
+        LocalDateTime start = LocalDateTime.of(2025, 8, 1, 0, 0);
+        List<TaskList> lists = List.of(new TaskList(null), TaskList.columnar(new ArrayList<>()),
+                TaskList.backedBy(new ArrayList<>(), 0));
+        for (int round = 0; round < 2000; round++) {
+            int kind = rnd.nextInt(10);
+            int n = lists.get(0).size();
+            int idx = n == 0 ? 0 : rnd.nextInt(n);
+            LocalDateTime at = start.plusMinutes(rnd.nextInt(60 * 24 * 10));
+            LocalDateTime now = start.plusMinutes(rnd.nextInt(60 * 24 * 10));
+            int count = 1 + rnd.nextInt(8);
+            for (TaskList list : lists) {
+                if (kind < 4 || n == 0) {
+                    String desc = "task " + round;
+                    list.add(kind % 3 == 0 ? new Todo(desc) : kind % 3 == 1 ? new Deadline(desc, at)
+                            : new Event(desc, at, at.plusHours(2)));
+                } else if (kind < 7) {
+                    list.mark(idx);
+                } else if (kind < 8) {
+                    list.unmark(idx);
+                } else if (kind < 9) {
+                    list.remove(idx);
+                } else {
+                    list.beginBatch();
+                    list.unmark(idx);
+                    list.remove(idx);
+                    list.rollbackBatch();
+                }
+
+                List<Task> due = list.asList().stream()
+                        .filter(t -> !t.getIsDone() && (t instanceof Deadline || t instanceof Event))
+                        .filter(t -> !(t instanceof Deadline d ? d.getBy() : ((Event) t).getFrom()).isBefore(now))
+                        .sorted(Comparator.comparing((Task t) -> t instanceof Deadline d ? d.getBy()
+                                : ((Event) t).getFrom()).thenComparingInt(Task::getId))
+                        .toList();
+                List<Task> expected = due.stream().limit(count).toList();
+                assertEquals(render(expected), render(list.upcoming(now, count)), "round " + round);
+
+                ArrayList<String> visited = new ArrayList<>();
+                list.forEachUpcoming(now, (id, minute) -> visited.add(id + "@" + minute));
+                visited.sort(null);
+                List<String> dueAt = due.stream().map(t -> t.getId() + "@" + AgendaIndex.keyOf(t)).sorted().toList();
+                assertEquals(dueAt, visited, "round " + round);
+            }
+        }
+    }
+
+    @Test
+    void upcoming_hugeCountReturnsEveryTaskInEveryLayout() {
+        LocalDateTime now = LocalDateTime.of(2025, 8, 12, 9, 0);
+        List<TaskList> lists = List.of(new TaskList(null), TaskList.columnar(new ArrayList<>()),
+                TaskList.backedBy(new ArrayList<>(), 0));
+        for (TaskList list : lists) {
+            list.add(new Deadline("return book", now.plusDays(1)));
+            list.add(new Todo("read book"));
+            list.add(new Event("team lunch", now.plusHours(3), now.plusHours(4)));
+            for (int count : new int[]{Integer.MAX_VALUE, 2_000_000_000}) {
+                assertEquals(List.of("E/-/0/-/team lunch/-/12-08-2025 1200/-/12-08-2025 1300/-/3",
+                        "D/-/0/-/return book/-/13-08-2025 0900/-/1"), render(list.upcoming(now, count)));
+            }
+        }
+    }
+
+    private static Task copy(Task t) {
+        Task c = t instanceof Deadline d ? new Deadline(d.getDescription(), d.getBy())
+                : t instanceof Event e ? new Event(e.getDescription(), e.getFrom(), e.getTo())
+                : new Todo(t.getDescription());
+        if (t.getIsDone()) {
+            c.mark();
+        }
+        return c;
+    }
+
+    private static List<String> render(TaskList list) {
+        return render(list.asList());
+    }
+
+    private static List<String> render(List<Task> tasks) {
+        ArrayList<String> out = new ArrayList<>();
+        for (Task t : tasks) {
+            out.add(t.toDataString());
+        }
+        return out;
+    }
+
+    @Test
+    void ensureUniqueIds_givesMissingAndRepeatedIdsNewOnes() {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int id : new int[]{0, 5, 5, 0}) {
+            Todo t = new Todo("task");
+            if (id > 0) {
+                t.setId(id);
+            }
+            tasks.add(t);
+        }
+
+        assertTrue(TaskList.ensureUniqueIds(tasks));
+        assertEquals("T/-/0/-/task/-/6", tasks.get(0).toDataString());
+        assertEquals(List.of(6, 5, 7, 8), tasks.stream().map(Task::getId).toList());
+        assertFalse(TaskList.ensureUniqueIds(tasks));
+
+        TaskList list = new TaskList(tasks);
+        list.add(new Todo("next"));
+        assertEquals(9, list.get(4).getId());
+        assertEquals(2, list.indexOfId(7));
+    }
+
+    @Test
+    void highestId_keepsIdsOfRemovedTasksFromBeingGivenAgain() {
+        List<TaskList> lists = List.of(new TaskList(withIds(2, 5), 9), TaskList.columnar(withIds(2, 5), 9),
+                TaskList.backedBy(withIds(2, 5), 9));
+        for (TaskList list : lists) {
+            list.add(new Todo("c"));
+            assertEquals(List.of(2, 5, 10), list.asList().stream().map(Task::getId).toList());
+            assertEquals(10, list.highestId());
+            list.remove(2);
+            assertTrue(list.hasRemovals());
+            list.clearDirty();
+            assertFalse(list.hasRemovals());
+            list.add(new Todo("d"));
+            assertEquals(11, list.get(2).getId());
+        }
+    }
+
+    private static ArrayList<Task> withIds(int... ids) {
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int id : ids) {
+            Todo t = new Todo("task " + id);
+            t.setId(id);
+            tasks.add(t);
+        }
+        return tasks;
+    }
+
+    @Test
+    void idIndex_matchesHashMap() {
+        Random rnd = new Random(5);
+        IdIndex index = new IdIndex();
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int id = 1 + rnd.nextInt(500);
+            if (rnd.nextBoolean()) {
+                index.put(id, i);
+                expected.put(id, i);
+            } else {
+                Integer slot = expected.remove(id);
+                assertEquals(slot == null ? -1 : (int) slot, index.remove(id));
+            }
+            assertEquals(expected.size(), index.size());
+            int probe = 1 + rnd.nextInt(500);
+            assertEquals((int) expected.getOrDefault(probe, -1), index.get(probe));
+        }
+    }
+
+    @Test
+    void temporalCodec_fixedWidth_matchesStrictFormat() {
+        assertEquals(LocalDateTime.of(2024, 2, 29, 23, 59), TemporalCodec.parseDateTime("29-02-2024 2359"));
+        assertEquals("05-01-0999 0007", TemporalCodec.formatDateTime(LocalDateTime.of(999, 1, 5, 0, 7)));
+        assertEquals("01-01-+10000 1200", TemporalCodec.formatDateTime(LocalDateTime.of(10000, 1, 1, 12, 0)));
+        assertEquals(LocalDateTime.of(10000, 1, 1, 12, 0), TemporalCodec.parseDateTime("01-01-+10000 1200"));
+        assertThrows(DateTimeParseException.class, () -> TemporalCodec.parseDateTime("29-02-2025 1200"));
+        assertThrows(DateTimeParseException.class, () -> TemporalCodec.parseDateTime("12-08-2025 2400"));
+        assertThrows(DateTimeParseException.class, () -> TemporalCodec.parseDate("1-08-2025"));
+    }
+
+    @Test
+    void toDataString_cachedUntilMarkedOrUnmarked() throws ChattyException {
+        Deadline d = new Deadline("return book", "12-08-2025 1800");
+        String saved = d.toDataString();
+        assertEquals("D/-/0/-/return book/-/12-08-2025 1800", saved);
+        assertSame(saved, d.toDataString());
+
+        d.mark();
+        assertEquals("D/-/1/-/return book/-/12-08-2025 1800", d.toDataString());
+        d.unmark();
+        assertEquals(saved, d.toDataString());
+        assertEquals("[D][ ] return book (by: 12-08-2025 1800)", d.toString());
+    }
+
+    @Test
+    void displayAndSearchStrings_cachedUntilMarkedOrUnmarked() {
+        Todo t = new Todo("Read Book");
+        String shown = t.toString();
+        assertSame(shown, t.toString());
+        assertEquals("[t][ ] read book", t.toSearchString());
+        assertSame(t.toSearchString(), t.toSearchString());
+
+        TaskList list = new TaskList(new ArrayList<>(List.of(t)));
+        list.mark(0);
+        assertEquals("[T][X] Read Book", t.toString());
+        assertEquals(1, list.find("[x] read").size());
+        list.unmark(0);
+        assertEquals(shown, t.toString());
+        assertTrue(list.find("[x] read").isEmpty());
+    }
 }